@@ -1,22 +1,49 @@
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
 
 import mazecontroller.HTWConsoleController;
 import mazecontroller.HTWController;
 import mazecontroller.MazeConsoleFeatures;
 import mazecontroller.MazeFeatures;
+import mazemodel.CellEvent;
+import mazemodel.CellHeatmap;
 import mazemodel.Maze;
 import mazemodel.NonPerfectMaze;
+import mazesimulation.GameJournalWriter;
+import mazesimulation.GameResult;
+import mazesimulation.GameSettings;
+import mazesimulation.JournalReplayer;
+import mazesimulation.ParameterGrid;
+import mazesimulation.RandomAgent;
+import mazesimulation.ReplayResult;
+import mazesimulation.ResultColumn;
+import mazesimulation.ResultFileReader;
+import mazesimulation.ResultFileWriter;
+import mazesimulation.SimulationCoordinator;
+import mazesimulation.SimulationResult;
+import mazesimulation.SimulationRunner;
+import mazesimulation.SimulationWorker;
+import mazesimulation.SweepRunner;
 import mazeview.HTWView;
 import mazeview.MazeView;
 
 /**
- * A driver for the HTW GUI and console games.
+ * A driver for the HTW GUI and console games, for headless simulations of many games, and for
+ * playing recorded console games again.
  */
 public class MazeDriver {
 
   /**
-   * Conditionally play either the HTW GUI game or the HTW console game.
+   * Conditionally play either the HTW GUI game or the HTW console game, or simulate many games.
    * @param args system arguments
    * @throws IOException an IOException
    */
@@ -32,11 +59,12 @@ public class MazeDriver {
       MazeView view = new HTWView();
       MazeFeatures controller = new HTWController(view);
     } else if (args[0].equals("--text")) {
-      if (args.length != 10) {
+      if (args.length != 10 && args.length != 11) {
         System.out.println("Invalid program inputs");
         return;
       }
       Maze model = null;
+      GameJournalWriter journal = null;
       int rows;
       int cols;
       int arrows;
@@ -52,15 +80,247 @@ public class MazeDriver {
         twoPlayers = Boolean.valueOf(args[8]);
         boolean wrapping = Boolean.valueOf(args[9]);
         model = new NonPerfectMaze(rows, cols, wrapping, seed, walls, pits, bats);
+        if (args.length == 11) {
+          journal = new GameJournalWriter(Paths.get(args[10]), rows, cols, wrapping, seed, walls,
+                  pits, bats);
+        }
       } catch (Exception e) {
         System.out.println("Invalid program inputs");
         return;
       }
-      MazeConsoleFeatures controller = new HTWConsoleController(new InputStreamReader(System.in),
-              System.out);
-      controller.start(model, rows, cols, arrows, twoPlayers);
+      try {
+        MazeConsoleFeatures controller = new HTWConsoleController(
+                new InputStreamReader(System.in), System.out, journal);
+        controller.start(model, rows, cols, arrows, twoPlayers);
+      } finally {
+        if (journal != null) {
+          journal.close();
+        }
+      }
+    } else if (args[0].equals("--replay")) {
+      if (args.length != 3) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      JournalReplayer replayer;
+      try {
+        replayer = new JournalReplayer(Integer.valueOf(args[2]));
+      } catch (Exception e) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      Path path = Paths.get(args[1]);
+      if (!Files.isDirectory(path)) {
+        System.out.println(path + ": " + replayer.replay(path));
+        return;
+      }
+      long start = System.nanoTime();
+      int failed = 0;
+      long commands = 0;
+      for (Map.Entry<Path, ReplayResult> entry : replayer.verify(path).entrySet()) {
+        ReplayResult result = entry.getValue();
+        commands += result.getNumCommands();
+        if (!result.isVerified()) {
+          failed += 1;
+          System.out.println(entry.getKey() + ": " + result);
+        }
+      }
+      System.out.printf("%d commands played, %d journals failed in %.3f s%n", commands, failed,
+              (System.nanoTime() - start) / 1e9);
+    } else if (args[0].equals("--simulate")) {
+      if (args.length != 12 && args.length != 13) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      GameSettings settings;
+      SimulationRunner runner;
+      int firstSeed;
+      int numGames;
+      try {
+        int rows = Integer.valueOf(args[1]);
+        int cols = Integer.valueOf(args[2]);
+        int walls = Integer.valueOf(args[3]);
+        int pits = Integer.valueOf(args[4]);
+        int bats = Integer.valueOf(args[5]);
+        int arrows = Integer.valueOf(args[6]);
+        boolean wrapping = Boolean.valueOf(args[7]);
+        firstSeed = Integer.valueOf(args[8]);
+        numGames = Integer.valueOf(args[9]);
+        int threads = Integer.valueOf(args[10]);
+        int maxTurns = Integer.valueOf(args[11]);
+        settings = new GameSettings(rows, cols, wrapping, walls, pits, bats, arrows, maxTurns);
+        runner = new SimulationRunner(settings, RandomAgent::new, threads);
+      } catch (Exception e) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      if (args.length == 12) {
+        System.out.print(runner.run(firstSeed, numGames));
+        return;
+      }
+      try (ResultFileWriter writer = new ResultFileWriter(Paths.get(args[12]))) {
+        System.out.print(runner.run(firstSeed, numGames, record -> {
+          try {
+            writer.add(settings, record);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }));
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    } else if (args[0].equals("--summarize")) {
+      if (args.length != 3) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      ResultColumn column;
+      try {
+        column = ResultColumn.valueOf(args[2].toUpperCase());
+      } catch (Exception e) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      try (ResultFileReader reader = new ResultFileReader(Paths.get(args[1]))) {
+        System.out.println("games: " + reader.getNumRecords());
+        for (Map.Entry<Integer, long[]> entry : reader.countResults(column).entrySet()) {
+          long[] counts = entry.getValue();
+          long games = 0;
+          for (long count : counts) {
+            games += count;
+          }
+          System.out.printf("%s %d: %d games, win rate %.4f%n", column.name().toLowerCase(),
+                  entry.getKey(), games, (double) counts[GameResult.WON.ordinal()] / games);
+        }
+      }
+    } else if (args[0].equals("--sweep")) {
+      if (args.length != 14) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      ParameterGrid grid;
+      SweepRunner runner;
+      try {
+        grid = new ParameterGrid(parseValues(args[2]), parseValues(args[3]),
+                parseValues(args[4]), parseValues(args[5]), parseValues(args[6]),
+                parseFlags(args[8]), parseValues(args[7]), Integer.valueOf(args[13]));
+        runner = new SweepRunner(grid, RandomAgent::new, Integer.valueOf(args[12]),
+                Integer.valueOf(args[9]), Integer.valueOf(args[10]), Integer.valueOf(args[11]),
+                Paths.get(args[1]));
+      } catch (Exception e) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      SimulationResult[] totals = runner.run((configuration, settings, result, done, units) ->
+              System.out.printf("%d/%d configuration %d: %d games, win rate %.4f%n", done, units,
+                      configuration, result.getNumGames(), result.getRate(GameResult.WON)));
+      for (int configuration = 0; configuration < totals.length; configuration++) {
+        System.out.println("configuration " + configuration + ":");
+        System.out.print(totals[configuration]);
+      }
+    } else if (args[0].equals("--coordinate")) {
+      if (args.length != 13) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      SimulationCoordinator coordinator;
+      int firstSeed;
+      int numGames;
+      try {
+        int rows = Integer.valueOf(args[1]);
+        int cols = Integer.valueOf(args[2]);
+        int walls = Integer.valueOf(args[3]);
+        int pits = Integer.valueOf(args[4]);
+        int bats = Integer.valueOf(args[5]);
+        int arrows = Integer.valueOf(args[6]);
+        boolean wrapping = Boolean.valueOf(args[7]);
+        firstSeed = Integer.valueOf(args[8]);
+        numGames = Integer.valueOf(args[9]);
+        int workers = Integer.valueOf(args[10]);
+        int maxTurns = Integer.valueOf(args[11]);
+        int gamesPerLease = Integer.valueOf(args[12]);
+        GameSettings settings = new GameSettings(rows, cols, wrapping, walls, pits, bats, arrows,
+                maxTurns);
+        // workers run this same driver in a new virtual machine with the same class path
+        ProcessBuilder worker = new ProcessBuilder(System.getProperty("java.home")
+                + File.separator + "bin" + File.separator + "java", "-cp",
+                System.getProperty("java.class.path"), MazeDriver.class.getName(), "--worker");
+        worker.redirectError(ProcessBuilder.Redirect.INHERIT);
+        coordinator = new SimulationCoordinator(settings, workers, gamesPerLease, worker::start);
+      } catch (Exception e) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      System.out.print(coordinator.run(firstSeed, numGames));
+    } else if (args[0].equals("--heatmap")) {
+      if (args.length != 14) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      SimulationRunner runner;
+      CellHeatmap heatmap;
+      CellEvent event;
+      int mazeSeed;
+      int firstSeed;
+      int numGames;
+      try {
+        int rows = Integer.valueOf(args[1]);
+        int cols = Integer.valueOf(args[2]);
+        int walls = Integer.valueOf(args[3]);
+        int pits = Integer.valueOf(args[4]);
+        int bats = Integer.valueOf(args[5]);
+        int arrows = Integer.valueOf(args[6]);
+        boolean wrapping = Boolean.valueOf(args[7]);
+        mazeSeed = Integer.valueOf(args[8]);
+        firstSeed = Integer.valueOf(args[9]);
+        numGames = Integer.valueOf(args[10]);
+        int threads = Integer.valueOf(args[11]);
+        int maxTurns = Integer.valueOf(args[12]);
+        event = CellEvent.valueOf(args[13].toUpperCase());
+        GameSettings settings = new GameSettings(rows, cols, wrapping, walls, pits, bats, arrows,
+                maxTurns);
+        runner = new SimulationRunner(settings, RandomAgent::new, threads);
+        heatmap = new CellHeatmap(rows, cols);
+      } catch (Exception e) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      runner.runOnMaze(mazeSeed, firstSeed, numGames, heatmap);
+      for (long[] row : heatmap.toGrid(event)) {
+        StringBuilder line = new StringBuilder();
+        for (long count : row) {
+          line.append(line.length() == 0 ? "" : " ").append(count);
+        }
+        System.out.println(line);
+      }
+    } else if (args[0].equals("--worker")) {
+      if (args.length != 1) {
+        System.out.println("Invalid program inputs");
+        return;
+      }
+      new SimulationWorker(RandomAgent::new).serve(
+              new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+              new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
     } else {
       System.out.println("Invalid program inputs");
     }
   }
+
+  private static int[] parseValues(String list) {
+    String[] values = list.split(",");
+    int[] result = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = Integer.valueOf(values[i]);
+    }
+    return result;
+  }
+
+  private static boolean[] parseFlags(String list) {
+    String[] values = list.split(",");
+    boolean[] result = new boolean[values.length];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = Boolean.valueOf(values[i]);
+    }
+    return result;
+  }
 }
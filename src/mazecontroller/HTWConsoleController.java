@@ -1,24 +1,38 @@
 package mazecontroller;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.InputMismatchException;
-import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 import mazemodel.Maze;
+import mazemodel.TurnOutcome;
+import mazesimulation.GameJournalWriter;
 
 /**
  * An implementation of MazeController based on the game Hunt the Wumpus.
  */
 public class HTWConsoleController implements MazeConsoleFeatures {
+  private static final String[] DIRECTION_NAMES = {"N", "S", "E", "W"};
+
   private Readable in;
   private Appendable out;
+  private GameJournalWriter journal;
 
   public HTWConsoleController(Readable in, Appendable out) {
+    this(in, out, null);
+  }
+
+  /**
+   * Create a HTWConsoleController object that records every command of the game in a journal, so
+   * that the game can be played again by a JournalReplayer.
+   * @param in where the commands are read from
+   * @param out where the game is written to
+   * @param journal the journal to record the game in, or null to not record it
+   */
+  public HTWConsoleController(Readable in, Appendable out, GameJournalWriter journal) {
     this.in = in;
     this.out = out;
+    this.journal = journal;
   }
 
   @Override
@@ -27,31 +41,47 @@ public class HTWConsoleController implements MazeConsoleFeatures {
     this.validateMazeExists(maze);
     Scanner scanner = new Scanner(this.in);
 
+    // a player's outcome only changes on that player's own turn, so the latest outcome of each
+    // player is kept instead of asking the maze again
+    TurnOutcome[] outcomes = new TurnOutcome[twoPlayers ? 2 : 1];
     maze.addPlayer(0, 0, playerArrows);
-    this.initialBatsMessage(maze, 0, twoPlayers);
+    outcomes[0] = maze.getTurnOutcome(0);
+    if (this.journal != null) {
+      this.journal.recordAddPlayer(0, 0, 0, playerArrows, outcomes[0]);
+    }
+    this.initialBatsMessage(outcomes[0], 0, twoPlayers);
     int currentPlayer = 0;
 
     if (twoPlayers) {
       maze.addPlayer(rows - 1, cols - 1, playerArrows);
-      this.initialBatsMessage(maze, 1, true);
+      outcomes[1] = maze.getTurnOutcome(1);
+      if (this.journal != null) {
+        this.journal.recordAddPlayer(1, rows - 1, cols - 1, playerArrows, outcomes[1]);
+      }
+      this.initialBatsMessage(outcomes[1], 1, true);
     }
 
-    while (!this.gameOver(maze, twoPlayers)) {
+    while (!this.gameOver(outcomes)) {
+      TurnOutcome current = outcomes[currentPlayer];
       if (twoPlayers) {
         this.out.append("It is Player " + (currentPlayer + 1) + "'s turn\n");
       }
-      if (maze.smellWumpus(currentPlayer)) {
+      if (current.smellWumpus()) {
         this.out.append("You can smell a wumpus nearby...\n");
       }
-      if (maze.feelDraft(currentPlayer)) {
+      if (current.feelDraft()) {
         this.out.append("You can feel a draft nearby...\n");
       }
 
-      this.out.append("You are at location " + maze.getPlayerLocation(currentPlayer) + "\n");
-      this.out.append("You have " + maze.getPlayerArrows(currentPlayer) + " arrows left\n");
-      this.out.append(this.getDirectionMessage(maze, currentPlayer));
+      this.out.append("You are at location " + current.getLocation() + "\n");
+      this.out.append("You have " + current.getArrows() + " arrows left\n");
+      this.out.append(this.getDirectionMessage(current));
       this.out.append("\n");
 
+      // the journal keeps every turn so far while the game waits for the next command
+      if (this.journal != null) {
+        this.journal.flush();
+      }
       this.out.append("Shoot or Move (S-M)? Or q to quit: ");
 
       boolean move;
@@ -97,9 +127,15 @@ public class HTWConsoleController implements MazeConsoleFeatures {
         if (!move) {
           this.out.append("How many caves do you want to shoot through? ");
           int caves = scanner.nextInt();
-          maze.shootArrow(direction, caves, currentPlayer);
+          current = maze.takeShot(direction, caves, currentPlayer);
+          if (this.journal != null) {
+            this.journal.recordShot(currentPlayer, direction, caves, current);
+          }
         } else {
-          maze.movePlayerInDirection(direction, currentPlayer);
+          current = maze.takeMove(direction, currentPlayer);
+          if (this.journal != null) {
+            this.journal.recordMove(currentPlayer, direction, current);
+          }
         }
       } catch (IllegalArgumentException e) {
         this.out.append(e.getMessage());
@@ -110,47 +146,50 @@ public class HTWConsoleController implements MazeConsoleFeatures {
         continue;
       }
 
-      if (move && maze.movedByBats(currentPlayer)) {
+      outcomes[currentPlayer] = current;
+
+      if (move && current.movedByBats()) {
         this.out.append("You have been picked up and carried away by bats...\n");
-      } else if (move && maze.playerOnBat(currentPlayer)) {
+      } else if (move && current.playerOnBat()) {
         this.out.append("You have avoided swooping bats!\n");
-      } else if (!move && !maze.wumpusKilled(currentPlayer)) {
+      } else if (!move && !current.wumpusKilled()) {
         this.out.append("You missed the wumpus and lost an arrow!\n");
       }
 
-      this.conditionalLoseMessage(maze, currentPlayer, twoPlayers);
+      this.conditionalLoseMessage(current, currentPlayer, twoPlayers);
 
       if (twoPlayers) {
-        currentPlayer = this.conditionalSwitchPlayer(maze, currentPlayer);
+        currentPlayer = this.conditionalSwitchPlayer(outcomes, currentPlayer);
       }
 
       this.out.append("\n");
     }
 
-    this.finalMessage(maze, twoPlayers);
+    this.finalMessage(outcomes);
   }
 
-  private void finalMessage(Maze maze, boolean twoPlayers) throws IOException {
-    if (!twoPlayers && maze.wumpusKilled(0)) {
+  private void finalMessage(TurnOutcome[] outcomes) throws IOException {
+    boolean twoPlayers = outcomes.length == 2;
+    if (!twoPlayers && outcomes[0].wumpusKilled()) {
       this.out.append("You have killed the wumpus and won the game!");
-    } else if (twoPlayers && maze.wumpusKilled(0)) {
+    } else if (twoPlayers && outcomes[0].wumpusKilled()) {
       this.out.append("Player 1 has killed the wumpus and won the game!");
-    } else if (twoPlayers && maze.wumpusKilled(1)) {
+    } else if (twoPlayers && outcomes[1].wumpusKilled()) {
       this.out.append("Player 2 has killed the wumpus and won the game!");
     } else if (twoPlayers) {
       this.out.append("All players have lost the game!");
     }
   }
 
-  private void conditionalLoseMessage(Maze maze, int player, boolean twoPlayers)
+  private void conditionalLoseMessage(TurnOutcome outcome, int player, boolean twoPlayers)
           throws IOException {
-    if (!maze.gameLost(player)) {
+    if (!outcome.gameLost()) {
       return;
     }
     String playerString = this.getPlayerString(player, twoPlayers);
-    if (maze.playerEaten(player)) {
+    if (outcome.playerEaten()) {
       this.out.append(playerString + " been eaten by the wumpus and lost!\n");
-    } else if (maze.playerFallen(player)) {
+    } else if (outcome.playerFallen()) {
       this.out.append(playerString + " fallen into a pit and lost!\n");
     } else {
       this.out.append(playerString + " run out of arrows and lost!\n");
@@ -165,48 +204,45 @@ public class HTWConsoleController implements MazeConsoleFeatures {
     return playerString;
   }
 
-  private int conditionalSwitchPlayer(Maze maze, int player) {
+  private int conditionalSwitchPlayer(TurnOutcome[] outcomes, int player) {
     int next = Math.abs(player - 1);
-    if (maze.gameLost(next)) {
+    if (outcomes[next].gameLost()) {
       return player;
     }
     return next;
   }
 
-  private String getDirectionMessage(Maze maze, int player) {
-    Map<Integer, String> directionMap = new HashMap<>();
-    directionMap.put(0, "N");
-    directionMap.put(1, "S");
-    directionMap.put(2, "E");
-    directionMap.put(3, "W");
-
-    List<Integer> validMoves = maze.getValidPlayerMoves(player);
+  private String getDirectionMessage(TurnOutcome outcome) {
+    int validMoves = outcome.getValidMoveMask();
     String result = "Tunnels lead to the";
-
-    for (int i = 0; i < validMoves.size() - 1; i++) {
-      result += (" " + directionMap.get(validMoves.get(i)) + ",");
+    String separator = " ";
+    for (int direction = 0; direction < 4; direction++) {
+      if ((validMoves & (1 << direction)) != 0) {
+        result += (separator + DIRECTION_NAMES[direction]);
+        separator = ", ";
+      }
     }
-
-    result += (" " + directionMap.get(validMoves.get(validMoves.size() - 1)) + "\n");
-    return result;
+    return result + "\n";
   }
 
-  private void initialBatsMessage(Maze maze, int player, boolean twoPlayers) throws IOException {
+  private void initialBatsMessage(TurnOutcome outcome, int player, boolean twoPlayers)
+          throws IOException {
     String playerString = this.getPlayerString(player, twoPlayers);
-    if (maze.movedByBats(player)) {
+    if (outcome.movedByBats()) {
       this.out.append(playerString +
               " been picked up and carried away by bats...\n");
-    } else if (maze.playerOnBat(player)) {
+    } else if (outcome.playerOnBat()) {
       this.out.append(playerString + " avoided swooping bats!\n");
     }
   }
 
-  private boolean gameOver(Maze maze, boolean twoPlayers) {
-    if (maze.wumpusKilled(0) ||
-            (twoPlayers && maze.wumpusKilled(1))) {
+  private boolean gameOver(TurnOutcome[] outcomes) {
+    boolean twoPlayers = outcomes.length == 2;
+    if (outcomes[0].wumpusKilled() ||
+            (twoPlayers && outcomes[1].wumpusKilled())) {
       return true;
     }
-    return maze.gameLost(0) && (!twoPlayers || maze.gameLost(1));
+    return outcomes[0].gameLost() && (!twoPlayers || outcomes[1].gameLost());
   }
 
   private void validateMazeExists(Maze maze) {
@@ -1,16 +1,20 @@
 package mazecontroller;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import mazemodel.Maze;
-import mazemodel.NonPerfectMaze;
+import mazemodel.TopologyCache;
+import mazemodel.TurnOutcome;
 import mazeview.MazeView;
 
 /**
  * A controller for a HTW GUI game.
  */
 public class HTWController implements MazeFeatures {
+  private static final int MAZES_KEPT = 8;
+  private static final int HALLWAYS_KEPT = 16;
+
+  private final TopologyCache mazes;
   private Maze model;
   private MazeView view;
   private int rows;
@@ -23,6 +27,8 @@ public class HTWController implements MazeFeatures {
   private int arrows;
   private int currentPlayer;
   private boolean twoPlayers;
+  private TurnOutcome[] outcomes;
+  private int[] hallways;
 
   /**
    * Create a HTWController object.
@@ -30,6 +36,8 @@ public class HTWController implements MazeFeatures {
    */
   public HTWController(MazeView view) {
     this.view = view;
+    this.mazes = new TopologyCache(MAZES_KEPT);
+    this.hallways = new int[HALLWAYS_KEPT];
     this.view.displayMenu();
     this.view.setMenuFeatures(this);
   }
@@ -47,19 +55,21 @@ public class HTWController implements MazeFeatures {
     this.arrows = numArrows;
     this.twoPlayers = twoPlayers;
 
-    this.model = new NonPerfectMaze(numRows, numCols, wrapping, seed, numWalls, percentPits,
-            percentBats);
+    // restarting, or playing a recent maze again from the menu, reuses the maze already generated
+    this.model = this.mazes.getNonPerfectMaze(numRows, numCols, wrapping, seed, numWalls,
+            percentPits, percentBats);
     this.view.displayMaze(numRows, numCols);
     this.view.setGameFeatures(this);
 
+    this.outcomes = new TurnOutcome[twoPlayers ? 2 : 1];
     this.currentPlayer = 0;
     this.model.addPlayer(0, 0, numArrows);
-    this.updateViewAfterMove();
+    this.updateViewAfterMove(this.model.getTurnOutcome(0));
 
     if (this.twoPlayers) {
       this.currentPlayer = 1;
       this.model.addPlayer(numRows - 1, numCols - 1, numArrows);
-      this.updateViewAfterMove();
+      this.updateViewAfterMove(this.model.getTurnOutcome(1));
     }
 
     this.handleViewAfterPlayerPlacement();
@@ -78,13 +88,7 @@ public class HTWController implements MazeFeatures {
       return;
     }
     try {
-      this.model.movePlayerInDirection(direction, this.currentPlayer);
-      this.showHallways();
-      this.updateViewAfterMove();
-      if (this.twoPlayers) {
-        this.switchPlayers();
-      }
-      this.conditionallySetGameOverMessage();
+      this.movePlayer(direction);
     } catch (IllegalArgumentException e) {
       return;
     }
@@ -95,18 +99,19 @@ public class HTWController implements MazeFeatures {
     if (this.gameOver()) {
       return;
     }
+    TurnOutcome outcome;
     try {
-      this.model.movePlayerToLocation(location, this.currentPlayer);
-      this.showHallways();
-      this.updateViewAfterMove();
-      if (this.twoPlayers) {
-        this.switchPlayers();
-      }
-      this.conditionallySetGameOverMessage();
-      this.view.resetFocus();
+      outcome = this.model.takeMoveToLocation(location, this.currentPlayer);
     } catch (IllegalArgumentException e) {
       return;
     }
+    if (!outcome.movedByBats()) {
+      for (List<Integer> hallway : outcome.getHallwaysTraveled()) {
+        this.showHallway(hallway.get(0));
+      }
+    }
+    this.endMove(outcome);
+    this.view.resetFocus();
   }
 
   @Override
@@ -115,12 +120,13 @@ public class HTWController implements MazeFeatures {
       return;
     }
     try {
-      this.model.shootArrow(direction, caves, this.currentPlayer);
-      this.view.setMoveMessage(this.getShootArrowMessage(), this.currentPlayer);
+      TurnOutcome outcome = this.model.takeShot(direction, caves, this.currentPlayer);
+      this.outcomes[this.currentPlayer] = outcome;
+      this.view.setMoveMessage(this.getShootArrowMessage(outcome), this.currentPlayer);
       if (this.twoPlayers) {
         this.switchPlayers();
       } else {
-        this.view.setArrowCount(this.model.getPlayerArrows(0), 0);
+        this.view.setArrowCount(outcome.getArrows(), 0);
       }
       this.conditionallySetGameOverMessage();
       this.view.resetFocus();
@@ -135,84 +141,99 @@ public class HTWController implements MazeFeatures {
     this.view.setMenuFeatures(this);
   }
 
-  private void updateViewAfterMove() {
-    int location = this.model.getPlayerLocation(this.currentPlayer);
-    this.view.setPictureAtLocation(location,
-            this.view.getTileKey(this.model.getValidPlayerMoves(this.currentPlayer)));
-    this.setConditions(location);
+  private void movePlayer(int direction) {
+    int numHallways = this.model.getHallwayLength(direction, this.currentPlayer);
+    if (numHallways > this.hallways.length) {
+      this.hallways = new int[Integer.highestOneBit(numHallways) << 1];
+    }
+    this.model.movePlayer(direction, this.currentPlayer, this.hallways);
+    TurnOutcome outcome = this.model.getTurnOutcome(this.currentPlayer);
+    if (!outcome.movedByBats()) {
+      for (int i = 0; i < numHallways; i++) {
+        this.showHallway(this.hallways[i]);
+      }
+    }
+    this.endMove(outcome);
+  }
+
+  private void endMove(TurnOutcome outcome) {
+    this.updateViewAfterMove(outcome);
+    if (this.twoPlayers) {
+      this.switchPlayers();
+    }
+    this.conditionallySetGameOverMessage();
+  }
+
+  private void updateViewAfterMove(TurnOutcome outcome) {
+    this.outcomes[this.currentPlayer] = outcome;
+    int location = outcome.getLocation();
+    this.view.setPictureAtLocation(location, this.view.getTileKey(outcome.getValidMoveMask()));
+    this.setConditions(outcome, location);
     this.view.setPictureAtLocation(location, "player" + this.currentPlayer);
-    this.view.setMoveMessage(this.getMovePlayerMessage(), this.currentPlayer);
+    this.view.setMoveMessage(this.getMovePlayerMessage(outcome), this.currentPlayer);
   }
 
-  private void setConditions(int location) {
-    if (this.model.playerOnBat(this.currentPlayer)) {
+  private void setConditions(TurnOutcome outcome, int location) {
+    if (outcome.playerOnBat()) {
       this.view.setPictureAtLocation(location, "bats");
     }
-    if (this.model.feelDraft(this.currentPlayer)) {
+    if (outcome.feelDraft()) {
       this.view.setPictureAtLocation(location, "breeze");
     }
-    if (this.model.smellWumpus(this.currentPlayer)) {
+    if (outcome.smellWumpus()) {
       this.view.setPictureAtLocation(location, "stench");
     }
-    if (this.model.playerEaten(this.currentPlayer)) {
+    if (outcome.playerEaten()) {
       this.view.setPictureAtLocation(location, "wumpus");
     }
-    if (this.model.playerFallen(this.currentPlayer)) {
+    if (outcome.playerFallen()) {
       this.view.setPictureAtLocation(location, "pit");
     }
   }
 
-  private String getMovePlayerMessage() {
-    if (this.model.playerEaten(this.currentPlayer)) {
+  private String getMovePlayerMessage(TurnOutcome outcome) {
+    if (outcome.playerEaten()) {
       return "has been eaten by the wumpus and lost!";
-    } else if (this.model.playerFallen(this.currentPlayer)) {
+    } else if (outcome.playerFallen()) {
       return "has fallen into a pit and lost!";
-    } else if (this.model.movedByBats(this.currentPlayer)) {
+    } else if (outcome.movedByBats()) {
       return "has been moved by bats!";
-    } else if (this.model.playerOnBat(this.currentPlayer)) {
+    } else if (outcome.playerOnBat()) {
       return "has successfully avoided bats!";
     } else {
       return "has moved successfully!";
     }
   }
 
-  private String getShootArrowMessage() {
-    if (this.model.wumpusKilled(this.currentPlayer)) {
+  private String getShootArrowMessage(TurnOutcome outcome) {
+    if (outcome.wumpusKilled()) {
       return "has killed the wumpus!";
-    } else if (this.model.gameLost(this.currentPlayer)) {
+    } else if (outcome.gameLost()) {
       return "has ran out of arrows and lost!";
     } else {
       return "has missed the wumpus and lost an arrow!";
     }
   }
 
-  private void showHallways() {
-    if (!this.model.movedByBats(this.currentPlayer)) {
-      List<List<Integer>> hallways = this.model.getHallwaysTraveled();
-      for (List<Integer> hallway : hallways) {
-        List<Integer> directions = new ArrayList<>();
-        directions.add(hallway.get(1));
-        directions.add(hallway.get(2));
-        this.view.setPictureAtLocation(hallway.get(0), this.view.getTileKey(directions));
-      }
-    }
+  private void showHallway(int hallway) {
+    this.view.setPictureAtLocation(hallway, this.view.getTileKey(this.model.getDoorMask(hallway)));
   }
 
   private boolean gameOver() {
-    if (this.model.wumpusKilled(0) ||
-            (this.twoPlayers && this.model.wumpusKilled(1))) {
+    if (this.outcomes[0].wumpusKilled() ||
+            (this.twoPlayers && this.outcomes[1].wumpusKilled())) {
       return true;
     }
-    return this.model.gameLost(0) && (!this.twoPlayers || this.model.gameLost(1));
+    return this.outcomes[0].gameLost() && (!this.twoPlayers || this.outcomes[1].gameLost());
   }
 
   private void switchPlayers() {
     this.currentPlayer = Math.abs(this.currentPlayer - 1);
-    if (this.model.gameLost(this.currentPlayer)) {
+    if (this.outcomes[this.currentPlayer].gameLost()) {
       this.currentPlayer = Math.abs(this.currentPlayer - 1);
     }
     this.view.setCurrentPlayer(this.currentPlayer);
-    this.view.setArrowCount(this.model.getPlayerArrows(this.currentPlayer), this.currentPlayer);
+    this.view.setArrowCount(this.outcomes[this.currentPlayer].getArrows(), this.currentPlayer);
   }
 
   private void conditionallySetGameOverMessage() {
@@ -220,9 +241,9 @@ public class HTWController implements MazeFeatures {
       return;
     }
     int winner = -1;
-    if (this.model.wumpusKilled(0)) {
+    if (this.outcomes[0].wumpusKilled()) {
       winner = 0;
-    } else if (this.twoPlayers && this.model.wumpusKilled(1)) {
+    } else if (this.twoPlayers && this.outcomes[1].wumpusKilled()) {
       winner = 1;
     }
     this.view.setGameOverMessage(winner);
@@ -233,21 +254,19 @@ public class HTWController implements MazeFeatures {
     if (this.gameOver()) {
       return;
     }
-    if (this.twoPlayers && this.model.gameLost(1)) {
-      this.currentPlayer = 1;
-      this.view.setMoveMessage(this.getMovePlayerMessage(), 1);
+    if (this.twoPlayers && this.outcomes[1].gameLost()) {
+      this.view.setMoveMessage(this.getMovePlayerMessage(this.outcomes[1]), 1);
       this.currentPlayer = 0;
-      this.view.setArrowCount(this.model.getPlayerArrows(this.currentPlayer), 0);
+      this.view.setArrowCount(this.outcomes[0].getArrows(), 0);
       this.view.setCurrentPlayer(0);
-    } else if (this.twoPlayers && this.model.gameLost(0)) {
-      this.currentPlayer = 0;
-      this.view.setMoveMessage(this.getMovePlayerMessage(), 0);
+    } else if (this.twoPlayers && this.outcomes[0].gameLost()) {
+      this.view.setMoveMessage(this.getMovePlayerMessage(this.outcomes[0]), 0);
       this.currentPlayer = 1;
-      this.view.setArrowCount(this.model.getPlayerArrows(this.currentPlayer), 1);
+      this.view.setArrowCount(this.outcomes[1].getArrows(), 1);
       this.view.setCurrentPlayer(1);
     } else {
       this.currentPlayer = 0;
-      this.view.setArrowCount(this.model.getPlayerArrows(this.currentPlayer), 0);
+      this.view.setArrowCount(this.outcomes[0].getArrows(), 0);
       this.view.setMoveMessage("will start the game!", 0);
       this.view.setCurrentPlayer(0);
     }
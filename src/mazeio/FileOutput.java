@@ -0,0 +1,82 @@
+package mazeio;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file that is written through a direct buffer of 64 KB, for the writers of the binary files of
+ * the game. A writer reserves room for the few bytes it is about to put and puts them in the
+ * buffer, which is written to the file whenever it runs short of room, so the file is written in
+ * large blocks however small the values are.
+ */
+public final class FileOutput implements Closeable, Flushable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+
+  /**
+   * Construct a FileOutput object, creating the file or replacing what is in it.
+   * @param file the file to write
+   * @throws IOException if the file cannot be opened
+   */
+  public FileOutput(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  }
+
+  /**
+   * Make room in the buffer for a number of bytes, writing out what it holds if it has less room
+   * left than that.
+   * @param size the number of bytes about to be put, at most 64 KB
+   * @return the buffer to put the bytes in
+   * @throws IOException if the file cannot be written
+   */
+  public ByteBuffer reserve(int size) throws IOException {
+    if (this.buffer.remaining() < size) {
+      this.flush();
+    }
+    return this.buffer;
+  }
+
+  /**
+   * Get the offset in the file that the next byte put in the buffer will be written at.
+   * @return the offset
+   * @throws IOException if the position of the file cannot be read
+   */
+  public long getPosition() throws IOException {
+    return this.channel.position() + this.buffer.position();
+  }
+
+  /**
+   * Write what the buffer holds to the file.
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void flush() throws IOException {
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+    this.buffer.clear();
+  }
+
+  /**
+   * Write what the buffer holds and close the file.
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.flush();
+    } finally {
+      this.channel.close();
+    }
+  }
+}
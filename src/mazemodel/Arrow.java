@@ -1,7 +0,0 @@
-package mazemodel;
-
-/**
- * An interface that represents an arrow.
- */
-interface Arrow extends ObjectWithLocation {
-}
@@ -0,0 +1,202 @@
+package mazemodel;
+
+import java.util.Arrays;
+
+/**
+ * An immutable table for flying arrows through many caves at once. The state of an arrow in flight
+ * is the cave it is in and the direction it is flying, and each state leads to exactly one next
+ * state, or to none if the arrow would hit a wall. Following states from any start either runs
+ * into a wall or ends up going around a loop of states forever.
+ *
+ * <p>For every state the table records how many caves the arrow passes before it reaches a wall or
+ * a loop, and one jump further along that path. The jumps are laid out the way a skew binary
+ * number is written, so that a flight through any number of caves takes a number of steps that
+ * grows with the logarithm of the number of states, while the table keeps only four integers per
+ * state. Once on a loop the position of the arrow is found directly from its position in the loop.
+ */
+class ArrowJumpTable {
+  private final int[] next;
+  private final int[] pathLengths;
+  private final int[] jumps;
+  private final int[] loopIndexes;
+  private final int[] loopStarts;
+  private final int[] loopStates;
+
+  /**
+   * Construct an ArrowJumpTable object.
+   * @param next the state that follows each state, or -1 if an arrow in that state hits a wall
+   */
+  public ArrowJumpTable(int[] next) {
+    int numStates = next.length;
+    this.next = next;
+    this.pathLengths = new int[numStates];
+    this.jumps = new int[numStates];
+    this.loopIndexes = new int[numStates];
+
+    // walk from each state that has not been seen yet until the walk runs into a wall, a state
+    // that is already done, or itself, then fill in the states of the walk from the back
+    byte[] status = new byte[numStates];
+    int[] walk = new int[16];
+    int[] loopStarts = new int[16];
+    int[] loopStates = new int[16];
+    int numLoops = 0;
+    int numLoopStates = 0;
+    for (int first = 0; first < numStates; first++) {
+      if (status[first] != 0) {
+        continue;
+      }
+
+      int walkLength = 0;
+      int state = first;
+      while (state >= 0 && status[state] == 0) {
+        if (walkLength == walk.length) {
+          walk = Arrays.copyOf(walk, walkLength * 2);
+        }
+        walk[walkLength] = state;
+        walkLength += 1;
+        status[state] = 1;
+        state = next[state];
+      }
+
+      if (state >= 0 && status[state] == 1) {
+        // the walk ran into itself, so the states from that point on form a new loop
+        int loopLength = 0;
+        while (walk[walkLength - 1 - loopLength] != state) {
+          loopLength += 1;
+        }
+        loopLength += 1;
+        if (numLoops + 2 > loopStarts.length) {
+          loopStarts = Arrays.copyOf(loopStarts, loopStarts.length * 2);
+        }
+        while (numLoopStates + loopLength > loopStates.length) {
+          loopStates = Arrays.copyOf(loopStates, loopStates.length * 2);
+        }
+        loopStarts[numLoops] = numLoopStates;
+        for (int i = walkLength - loopLength; i < walkLength; i++) {
+          int loopState = walk[i];
+          this.loopIndexes[loopState] = numLoopStates;
+          this.jumps[loopState] = loopState;
+          loopStates[numLoopStates] = loopState;
+          numLoopStates += 1;
+          status[loopState] = 2;
+        }
+        numLoops += 1;
+        loopStarts[numLoops] = numLoopStates;
+        walkLength -= loopLength;
+      }
+
+      for (int i = walkLength - 1; i >= 0; i--) {
+        int walkState = walk[i];
+        int following = next[walkState];
+        this.loopIndexes[walkState] = -1;
+        if (following < 0) {
+          this.jumps[walkState] = walkState;
+        } else {
+          this.pathLengths[walkState] = this.pathLengths[following] + 1;
+          // jump as far as the following state's jump and its jump together when those two
+          // cover the same number of caves, and otherwise just to the following state
+          int jump = this.jumps[following];
+          int farther = this.jumps[jump];
+          this.jumps[walkState] = this.pathLengths[following] - this.pathLengths[jump]
+                  == this.pathLengths[jump] - this.pathLengths[farther] ? farther : following;
+        }
+        status[walkState] = 2;
+      }
+    }
+    this.loopStarts = Arrays.copyOf(loopStarts, numLoops + 1);
+    this.loopStates = Arrays.copyOf(loopStates, numLoopStates);
+  }
+
+  /**
+   * Get the state of an arrow after it flies through a number of caves.
+   * @param state the state the arrow starts in
+   * @param caves the number of caves the arrow flies through
+   * @return the state after the flight, or the bitwise complement of the state the arrow is in
+   *         when it hits a wall if that happens first
+   */
+  public int fly(int state, int caves) {
+    if (this.loopIndexes[state] < 0) {
+      int pathLength = this.pathLengths[state];
+      if (caves <= pathLength) {
+        return this.getPathState(state, pathLength - caves);
+      }
+
+      int end = this.getPathState(state, 0);
+      if (this.loopIndexes[end] < 0) {
+        return ~end;
+      }
+      state = end;
+      caves -= pathLength;
+    }
+
+    int loopIndex = this.loopIndexes[state];
+    int loop = this.getLoop(loopIndex);
+    int loopStart = this.loopStarts[loop];
+    int loopLength = this.loopStarts[loop + 1] - loopStart;
+    long position = (loopIndex - loopStart + (long) caves) % loopLength;
+    return this.loopStates[loopStart + (int) position];
+  }
+
+  /**
+   * Get the states an arrow passes through when it flies through a number of caves, not counting
+   * the state it starts in. The flight stops early if the arrow hits a wall, and a flight that
+   * goes around a loop more than once only lists the states of the first trip around the loop.
+   * @param state the state the arrow starts in
+   * @param caves the number of caves the arrow flies through
+   * @return the states passed through, in order
+   */
+  public int[] trace(int state, int caves) {
+    int[] result = new int[this.getFlightLength(state, caves)];
+    for (int i = 0; i < result.length; i++) {
+      state = this.next[state];
+      result[i] = state;
+    }
+    return result;
+  }
+
+  /**
+   * Get the number of caves an arrow passes through when it flies through a number of caves,
+   * which is fewer if it hits a wall first or if the flight goes around a loop more than once.
+   * @param state the state the arrow starts in
+   * @param caves the number of caves the arrow flies through
+   * @return the number of states the trace of the flight lists
+   */
+  public int getFlightLength(int state, int caves) {
+    long maxLength = this.pathLengths[state];
+    int end = this.getPathState(state, 0);
+    if (this.loopIndexes[end] >= 0) {
+      int loop = this.getLoop(this.loopIndexes[end]);
+      maxLength += this.loopStarts[loop + 1] - this.loopStarts[loop];
+    }
+    return (int) Math.min(caves, maxLength);
+  }
+
+  /**
+   * Follow the path from a state until the given number of caves is left before its end, taking
+   * the jump of a state whenever it does not go too far.
+   */
+  private int getPathState(int state, int pathLength) {
+    while (this.pathLengths[state] > pathLength) {
+      int jump = this.jumps[state];
+      state = this.pathLengths[jump] >= pathLength ? jump : this.next[state];
+    }
+    return state;
+  }
+
+  /**
+   * Find the loop that holds the state at an index of the loop states.
+   */
+  private int getLoop(int loopIndex) {
+    int low = 0;
+    int high = this.loopStarts.length - 2;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (this.loopStarts[middle] <= loopIndex) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+}
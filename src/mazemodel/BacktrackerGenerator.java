@@ -0,0 +1,54 @@
+package mazemodel;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * A maze generation engine based on a randomized depth-first search. From the current location the
+ * search opens a door to a random unvisited neighbor and moves there, and it backs up once a
+ * location has no unvisited neighbors left. The search keeps its own stack instead of recursing, so
+ * it can carve mazes of any size without overflowing the call stack.
+ *
+ * <p>This engine is fast and produces mazes with long, winding hallways. It keeps one integer per
+ * location for its stack.
+ */
+public class BacktrackerGenerator extends SpanningTreeGenerator {
+
+  @Override
+  protected void buildSpanningTree(DoorGrid grid, BitSet openDoors, Random random) {
+    int numLocations = grid.getNumLocations();
+    BitSet visited = new BitSet(numLocations);
+    int[] stack = new int[numLocations];
+    int[] candidates = new int[4];
+    int size = 0;
+
+    int start = random.nextInt(numLocations);
+    visited.set(start);
+    stack[size] = start;
+    size += 1;
+
+    while (size > 0) {
+      int location = stack[size - 1];
+      int numCandidates = 0;
+      for (int direction = 0; direction < 4; direction++) {
+        int door = grid.getDoor(location, direction);
+        if (door >= 0 && !visited.get(this.getOtherSide(grid, door, location))) {
+          candidates[numCandidates] = door;
+          numCandidates += 1;
+        }
+      }
+
+      if (numCandidates == 0) {
+        size -= 1;
+        continue;
+      }
+
+      int door = candidates[random.nextInt(numCandidates)];
+      int next = this.getOtherSide(grid, door, location);
+      openDoors.set(door);
+      visited.set(next);
+      stack[size] = next;
+      size += 1;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package mazemodel;
+
+import java.util.Arrays;
+
+/**
+ * An immutable graph whose nodes are the caves of a maze and whose edges are the hallways between
+ * them. Leaving a cave through a door always ends in exactly one cave, however long and winding the
+ * hallway behind the door is, so each edge records that cave, the direction the traveler is facing
+ * on arrival, and the hallway locations passed on the way.
+ *
+ * <p>Edges are stored by cave and direction. The hallway locations of all edges are kept in one
+ * shared array, and an edge that runs through the same hallway as an earlier edge in the opposite
+ * direction reuses the earlier edge's locations read backwards.
+ */
+class CaveGraph {
+  private final int[] destinations;
+  private final byte[] exitDirections;
+  private final int[] hallwayLengths;
+  private final int[] hallwayStarts;
+  private final int[] hallways;
+
+  /**
+   * Construct a CaveGraph object.
+   * @param topology the frozen doors of the maze
+   */
+  public CaveGraph(MazeTopology topology) {
+    int numEdges = topology.getNumLocations() * 4;
+    this.destinations = new int[numEdges];
+    this.exitDirections = new byte[numEdges];
+    this.hallwayLengths = new int[numEdges];
+    this.hallwayStarts = new int[numEdges];
+
+    int[] pool = new int[16];
+    int poolSize = 0;
+
+    for (int edge = 0; edge < numEdges; edge++) {
+      int location = edge >> 2;
+      int direction = edge & 3;
+      this.destinations[edge] = -1;
+      if (topology.isHallway(location) || !topology.isOpen(location, direction)) {
+        continue;
+      }
+
+      // follow the hallway behind the door until it reaches a cave
+      int start = poolSize;
+      int length = 0;
+      int current = location;
+      while (true) {
+        if (!topology.isOpen(current, direction)) {
+          int exits = topology.getOpenDirections(current) & ~(1 << (direction ^ 1));
+          direction = 31 - Integer.numberOfLeadingZeros(exits);
+        }
+        current = topology.getNeighbor(current, direction);
+        if (!topology.isHallway(current)) {
+          break;
+        }
+        if (length == topology.getNumLocations()) {
+          // the hallway loops forever without reaching a cave, so treat it as a wall
+          current = -1;
+          break;
+        }
+        if (poolSize == pool.length) {
+          pool = Arrays.copyOf(pool, pool.length * 2);
+        }
+        pool[poolSize] = current;
+        poolSize += 1;
+        length += 1;
+      }
+
+      if (current < 0) {
+        poolSize = start;
+        continue;
+      }
+
+      this.destinations[edge] = current;
+      this.exitDirections[edge] = (byte) direction;
+      this.hallwayLengths[edge] = length;
+      this.hallwayStarts[edge] = start << 1;
+
+      int reverse = (current << 2) + (direction ^ 1);
+      if (length > 0 && reverse < edge && this.isReverseOf(reverse, pool, start, length)) {
+        this.hallwayStarts[edge] = this.hallwayStarts[reverse] ^ 1;
+        poolSize = start;
+      }
+    }
+
+    this.hallways = Arrays.copyOf(pool, poolSize);
+  }
+
+  /**
+   * Get the cave reached by leaving a cave in a direction.
+   * @param cave the cave
+   * @param direction the direction
+   * @return the cave reached, or -1 if there is no way out of the cave in that direction
+   */
+  public int getDestination(int cave, int direction) {
+    return this.destinations[(cave << 2) + direction];
+  }
+
+  /**
+   * Get the direction a traveler faces when arriving at the cave reached by leaving a cave in a
+   * direction.
+   * @param cave the cave
+   * @param direction the direction
+   * @return the direction faced on arrival
+   */
+  public int getExitDirection(int cave, int direction) {
+    return this.exitDirections[(cave << 2) + direction];
+  }
+
+  /**
+   * Get the number of hallway locations passed when leaving a cave in a direction.
+   * @param cave the cave
+   * @param direction the direction
+   * @return the number of hallway locations passed
+   */
+  public int getHallwayLength(int cave, int direction) {
+    return this.hallwayLengths[(cave << 2) + direction];
+  }
+
+  /**
+   * Get one of the hallway locations passed when leaving a cave in a direction.
+   * @param cave the cave
+   * @param direction the direction
+   * @param index the position of the hallway location along the way, starting from 0
+   * @return the hallway location
+   */
+  public int getHallway(int cave, int direction, int index) {
+    int edge = (cave << 2) + direction;
+    return this.getHallway(this.hallways, this.hallwayStarts[edge], this.hallwayLengths[edge],
+            index);
+  }
+
+  /**
+   * Get the direction that leads from a cave to another cave.
+   * @param cave the cave
+   * @param destination the other cave
+   * @return the lowest direction that leads to the other cave, or -1 if there is none
+   */
+  public int getDirectionTo(int cave, int destination) {
+    int base = cave << 2;
+    for (int direction = 0; direction < 4; direction++) {
+      if (this.destinations[base + direction] == destination) {
+        return direction;
+      }
+    }
+    return -1;
+  }
+
+  private int getHallway(int[] pool, int encodedStart, int length, int index) {
+    int start = encodedStart >>> 1;
+    if ((encodedStart & 1) != 0) {
+      return pool[start + length - 1 - index];
+    }
+    return pool[start + index];
+  }
+
+  private boolean isReverseOf(int reverse, int[] pool, int start, int length) {
+    if (this.destinations[reverse] < 0 || this.hallwayLengths[reverse] != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (this.getHallway(pool, this.hallwayStarts[reverse], length, length - 1 - i)
+              != pool[start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
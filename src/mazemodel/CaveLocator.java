@@ -0,0 +1,129 @@
+package mazemodel;
+
+/**
+ * An immutable index for finding the cave closest to a location of a maze. The maze is cut into
+ * square buckets of locations and the caves are filed by bucket, so a search only looks at the
+ * buckets around the location, ring by ring, until no unseen bucket can hold a closer cave.
+ *
+ * <p>Distance is the straight line distance between locations. In a wrapping maze it is measured
+ * the shorter way around each edge. When several caves are equally close, the one that comes first
+ * in order row by row is chosen.
+ */
+class CaveLocator {
+  private final int numRows;
+  private final int numCols;
+  private final boolean wrapping;
+  private final int bucketSize;
+  private final int numBucketRows;
+  private final int numBucketCols;
+  private final int[] bucketStarts;
+  private final int[] bucketCaves;
+
+  /**
+   * Construct a CaveLocator object.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param caves the caves of the maze, in order row by row
+   */
+  public CaveLocator(int numRows, int numCols, boolean wrapping, int[] caves) {
+    if (caves.length == 0) {
+      throw new IllegalArgumentException("maze has no caves");
+    }
+    this.numRows = numRows;
+    this.numCols = numCols;
+    this.wrapping = wrapping;
+
+    // size the buckets so that each one holds about two caves
+    long numLocations = (long) numRows * numCols;
+    this.bucketSize = Math.max(1, (int) Math.ceil(Math.sqrt(2.0 * numLocations / caves.length)));
+    this.numBucketRows = (numRows + this.bucketSize - 1) / this.bucketSize;
+    this.numBucketCols = (numCols + this.bucketSize - 1) / this.bucketSize;
+
+    int numBuckets = this.numBucketRows * this.numBucketCols;
+    this.bucketStarts = new int[numBuckets + 1];
+    for (int cave : caves) {
+      this.bucketStarts[this.getBucket(cave) + 1] += 1;
+    }
+    for (int bucket = 0; bucket < numBuckets; bucket++) {
+      this.bucketStarts[bucket + 1] += this.bucketStarts[bucket];
+    }
+
+    // the caves are filed in the order given, so each bucket lists its caves row by row
+    this.bucketCaves = new int[caves.length];
+    int[] next = new int[numBuckets];
+    for (int cave : caves) {
+      int bucket = this.getBucket(cave);
+      this.bucketCaves[this.bucketStarts[bucket] + next[bucket]] = cave;
+      next[bucket] += 1;
+    }
+  }
+
+  /**
+   * Get the cave closest to a location.
+   * @param row the row of the location
+   * @param col the column of the location
+   * @return the closest cave
+   */
+  public int getClosestCave(int row, int col) {
+    int bucketRow = row / this.bucketSize;
+    int bucketCol = col / this.bucketSize;
+
+    // the offsets of the buckets that can be searched, where a wrapping maze is searched at most
+    // half way around in each direction so that no bucket is seen twice
+    int minRowOffset = this.wrapping ? -((this.numBucketRows - 1) / 2) : -bucketRow;
+    int maxRowOffset = this.wrapping ? this.numBucketRows / 2 : this.numBucketRows - 1 - bucketRow;
+    int minColOffset = this.wrapping ? -((this.numBucketCols - 1) / 2) : -bucketCol;
+    int maxColOffset = this.wrapping ? this.numBucketCols / 2 : this.numBucketCols - 1 - bucketCol;
+    int maxRing = Math.max(Math.max(-minRowOffset, maxRowOffset),
+            Math.max(-minColOffset, maxColOffset));
+
+    long closestDistance = Long.MAX_VALUE;
+    int closest = -1;
+    for (int ring = 0; ring <= maxRing; ring++) {
+      for (int rowOffset = Math.max(-ring, minRowOffset);
+           rowOffset <= Math.min(ring, maxRowOffset); rowOffset++) {
+        boolean edgeRow = Math.abs(rowOffset) == ring;
+        for (int colOffset = Math.max(-ring, minColOffset);
+             colOffset <= Math.min(ring, maxColOffset); colOffset++) {
+          if (!edgeRow && Math.abs(colOffset) != ring) {
+            continue;
+          }
+          int bucket = (Math.floorMod(bucketRow + rowOffset, this.numBucketRows)
+                  * this.numBucketCols) + Math.floorMod(bucketCol + colOffset, this.numBucketCols);
+          for (int i = this.bucketStarts[bucket]; i < this.bucketStarts[bucket + 1]; i++) {
+            int cave = this.bucketCaves[i];
+            long distance = this.getDistance(row, col, cave);
+            if (distance < closestDistance || (distance == closestDistance && cave < closest)) {
+              closestDistance = distance;
+              closest = cave;
+            }
+          }
+        }
+      }
+
+      // every bucket outside this ring is at least this far away along one axis, allowing for
+      // the short bucket at the end of each row and column
+      long reach = ((long) Math.max(0, ring - 1) * this.bucketSize) + 1;
+      if (closest >= 0 && closestDistance < reach * reach) {
+        break;
+      }
+    }
+    return closest;
+  }
+
+  private int getBucket(int location) {
+    return ((location / this.numCols) / this.bucketSize) * this.numBucketCols
+            + ((location % this.numCols) / this.bucketSize);
+  }
+
+  private long getDistance(int row, int col, int location) {
+    long rowDistance = Math.abs((location / this.numCols) - row);
+    long colDistance = Math.abs((location % this.numCols) - col);
+    if (this.wrapping) {
+      rowDistance = Math.min(rowDistance, this.numRows - rowDistance);
+      colDistance = Math.min(colDistance, this.numCols - colDistance);
+    }
+    return (rowDistance * rowDistance) + (colDistance * colDistance);
+  }
+}
@@ -0,0 +1,13 @@
+package mazemodel;
+
+/**
+ * The things that can happen to a player in a cell of a maze that a CellHeatmap counts: passing
+ * through or stopping in the cell, including hallways and caves bats drop the player in, being
+ * picked up by bats, being eaten or falling into a pit, and an arrow of the player coming down.
+ */
+public enum CellEvent {
+  VISIT,
+  BAT_GRAB,
+  DEATH,
+  ARROW_LANDING
+}
@@ -0,0 +1,115 @@
+package mazemodel;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts of what happens in each cell of a maze, kept for every kind of CellEvent. A heatmap can
+ * be shared by mazes that are played on many threads at once.
+ *
+ * <p>The counts are split into stripes, and each thread adds to the stripe picked by its id, so
+ * threads that happen to count the same cell usually add to different memory. Reading a count
+ * adds up every stripe. Each stripe holds a count for every event and every cell, so a heatmap is
+ * meant for mazes of the size a person plays, not for the largest mazes.
+ */
+public final class CellHeatmap {
+  private static final CellEvent[] EVENTS = CellEvent.values();
+
+  private final int numRows;
+  private final int numCols;
+  private final AtomicLongArray[] stripes;
+
+  /**
+   * Construct a CellHeatmap object with a stripe for about every processor.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   */
+  public CellHeatmap(int numRows, int numCols) {
+    this(numRows, numCols, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Construct a CellHeatmap object.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param numStripes the number of stripes to spread the counts over, rounded up to a power of 2
+   */
+  public CellHeatmap(int numRows, int numCols, int numStripes) {
+    if (numRows <= 0 || numCols <= 0) {
+      throw new IllegalArgumentException("number of rows and columns must be positive");
+    }
+    if (numStripes < 1) {
+      throw new IllegalArgumentException("number of stripes must be positive");
+    }
+    if ((long) numRows * numCols * EVENTS.length > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("maze is too large for a heatmap");
+    }
+    this.numRows = numRows;
+    this.numCols = numCols;
+    this.stripes = new AtomicLongArray[Integer.highestOneBit(numStripes * 2 - 1)];
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new AtomicLongArray(numRows * numCols * EVENTS.length);
+    }
+  }
+
+  /**
+   * Get the number of rows in the maze.
+   * @return the number of rows
+   */
+  public int getNumRows() {
+    return this.numRows;
+  }
+
+  /**
+   * Get the number of columns in the maze.
+   * @return the number of columns
+   */
+  public int getNumCols() {
+    return this.numCols;
+  }
+
+  /**
+   * Count an event in a cell.
+   * @param event the event
+   * @param location the cell
+   */
+  void record(CellEvent event, int location) {
+    int stripe = (int) Thread.currentThread().getId() & (this.stripes.length - 1);
+    this.stripes[stripe].getAndIncrement(event.ordinal() * this.numRows * this.numCols + location);
+  }
+
+  /**
+   * Get the number of times an event happened in a cell.
+   * @param event the event
+   * @param location the cell
+   * @return the count
+   */
+  public long getCount(CellEvent event, int location) {
+    if (location < 0 || location >= this.numRows * this.numCols) {
+      throw new IllegalArgumentException("not a valid location");
+    }
+    long count = 0;
+    for (AtomicLongArray stripe : this.stripes) {
+      count += stripe.get(event.ordinal() * this.numRows * this.numCols + location);
+    }
+    return count;
+  }
+
+  /**
+   * Get the counts of an event as a grid. Counts that are still being added while the grid is
+   * made may or may not be included.
+   * @param event the event
+   * @return the counts, indexed by row and then column
+   */
+  public long[][] toGrid(CellEvent event) {
+    long[][] grid = new long[this.numRows][this.numCols];
+    int start = event.ordinal() * this.numRows * this.numCols;
+    for (AtomicLongArray stripe : this.stripes) {
+      for (int row = 0; row < this.numRows; row++) {
+        for (int col = 0; col < this.numCols; col++) {
+          grid[row][col] += stripe.get(start + (row * this.numCols) + col);
+        }
+      }
+    }
+    return grid;
+  }
+}
@@ -0,0 +1,281 @@
+package mazemodel;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class represents a wrapping maze that is far too large to hold at once, such as an
+ * "endless" world for long games between agents. The maze is split into square regions, and a
+ * region is only built when a player, an arrow or a bat first reaches it. Only a fixed number of
+ * regions are kept, and the region that was used longest ago is dropped to make room for a new
+ * one, so memory grows with the regions in use and not with the size of the maze.
+ *
+ * <p>Everything in a region is drawn from a random number generator seeded from the seed of the
+ * maze and the position of the region, so a region that was dropped is built again exactly as it
+ * was. The inside of each region is carved with Eller's algorithm. The doors along each border
+ * between two regions are drawn from a generator of their own, seeded from the border, so both
+ * regions agree on them whichever is built first. Each region is connected inside, and like a
+ * group of cells in Eller's algorithm, every border opens at least one door, so every cave of the
+ * maze can be reached from every other.
+ *
+ * <p>The wumpus is placed in a random cave of a random region, and bats drop a player the same
+ * way, since the caves of the whole maze are never counted.
+ */
+public class ChunkedMaze extends GridMaze {
+  private static final int BORDER_DOOR_PERCENT = 25;
+  private static final int INSIDE = 0;
+  private static final int SOUTH_BORDER = 1;
+  private static final int EAST_BORDER = 2;
+
+  private final int numRegionRows;
+  private final int numRegionCols;
+  private final int regionSize;
+  private final long seed;
+  private final int pitPercent;
+  private final int batPercent;
+  private final Map<Integer, MazeRegion> regions;
+  private int lastRegionIndex;
+  private MazeRegion lastRegion;
+  private long numRegionsBuilt;
+
+  /**
+   * Construct a ChunkedMaze object.
+   * @param numRegionRows the number of rows of regions in the maze
+   * @param numRegionCols the number of columns of regions in the maze
+   * @param regionSize the number of rows and columns of locations in each region
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @param maxRegions the largest number of regions to keep at once
+   */
+  public ChunkedMaze(int numRegionRows, int numRegionCols, int regionSize, int seed,
+                     int pitPercent, int batPercent, int maxRegions) {
+    super(new DoorGrid(numRegionRows * regionSize, numRegionCols * regionSize, true),
+            seed >= 0 ? new Random(seed) : new Random());
+    if (numRegionRows <= 0 || numRegionCols <= 0) {
+      throw new IllegalArgumentException("number of regions must be positive");
+    }
+    if (regionSize < 2) {
+      throw new IllegalArgumentException("regions must be at least 2 locations wide");
+    }
+    if ((long) numRegionRows * numRegionCols * regionSize * regionSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("maze is too large");
+    }
+    this.validatePercentage(pitPercent, "percentage of pits is not valid");
+    this.validatePercentage(batPercent, "percentage of bats is not valid");
+    if (maxRegions <= 0) {
+      throw new IllegalArgumentException("number of regions to keep must be positive");
+    }
+
+    this.numRegionRows = numRegionRows;
+    this.numRegionCols = numRegionCols;
+    this.regionSize = regionSize;
+    this.seed = this.random.nextLong();
+    this.pitPercent = pitPercent;
+    this.batPercent = batPercent;
+    this.regions = new LinkedHashMap<Integer, MazeRegion>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, MazeRegion> eldest) {
+        return this.size() > maxRegions;
+      }
+    };
+    this.lastRegionIndex = -1;
+    this.wumpus = this.getRandomCave();
+  }
+
+  /**
+   * Get the number of regions that are kept at the moment.
+   * @return the number of regions kept
+   */
+  public int getNumRegionsKept() {
+    return this.regions.size();
+  }
+
+  /**
+   * Get the number of times a region was built, counting a region again each time it is built
+   * after being dropped.
+   * @return the number of regions built
+   */
+  public long getNumRegionsBuilt() {
+    return this.numRegionsBuilt;
+  }
+
+  @Override
+  protected int getOpenDoors(int location) {
+    int cell = this.findCell(location);
+    return this.lastRegion.getOpenDoors(cell);
+  }
+
+  @Override
+  protected boolean hasPit(int location) {
+    int cell = this.findCell(location);
+    return this.lastRegion.hasPit(cell);
+  }
+
+  @Override
+  protected boolean hasBats(int location) {
+    int cell = this.findCell(location);
+    return this.lastRegion.hasBats(cell);
+  }
+
+  /**
+   * Get the cell of a location within its region, making that region the last one used.
+   */
+  private int findCell(int location) {
+    int row = location / this.grid.getNumCols();
+    int col = location - row * this.grid.getNumCols();
+    int regionRow = row / this.regionSize;
+    int regionCol = col / this.regionSize;
+    this.getRegion(regionRow * this.numRegionCols + regionCol);
+    return (row - regionRow * this.regionSize) * this.regionSize + col
+            - regionCol * this.regionSize;
+  }
+
+  /**
+   * Get the location of a cell of a region.
+   */
+  private int getLocation(int regionIndex, int cell) {
+    int row = (regionIndex / this.numRegionCols) * this.regionSize + cell / this.regionSize;
+    int col = (regionIndex % this.numRegionCols) * this.regionSize + cell % this.regionSize;
+    return row * this.grid.getNumCols() + col;
+  }
+
+  /**
+   * Get a region, building it if it is not kept. The region that was used last is remembered
+   * apart from the others, so most moves do not look the region up at all.
+   */
+  private MazeRegion getRegion(int regionIndex) {
+    if (regionIndex == this.lastRegionIndex) {
+      return this.lastRegion;
+    }
+    MazeRegion region = this.regions.get(regionIndex);
+    if (region == null) {
+      region = this.buildRegion(regionIndex);
+      this.regions.put(regionIndex, region);
+    }
+    this.lastRegionIndex = regionIndex;
+    this.lastRegion = region;
+    return region;
+  }
+
+  /**
+   * Build a region from its seed, adding the doors of its four borders to the doors carved inside
+   * it.
+   */
+  private MazeRegion buildRegion(int regionIndex) {
+    this.numRegionsBuilt += 1;
+    int size = this.regionSize;
+    Random regionRandom = new Random(this.getSeed(regionIndex, INSIDE));
+    DoorGrid regionGrid = new DoorGrid(size, size, false);
+    int numTreeDoors = size * size - 1;
+    BitSet openDoors = new EllerGenerator().generate(size, size, false,
+            regionGrid.getNumDoors() - numTreeDoors, regionRandom);
+
+    byte[] doors = new byte[size * size];
+    for (int door = openDoors.nextSetBit(0); door >= 0; door = openDoors.nextSetBit(door + 1)) {
+      int direction = regionGrid.getDirectionOne(door);
+      doors[regionGrid.getLocationOne(door)] |= (byte) (1 << direction);
+      doors[regionGrid.getLocationTwo(door)] |= (byte) (1 << (direction ^ 1));
+    }
+
+    int regionRow = regionIndex / this.numRegionCols;
+    int regionCol = regionIndex % this.numRegionCols;
+    int regionAbove = ((regionRow + this.numRegionRows - 1) % this.numRegionRows)
+            * this.numRegionCols + regionCol;
+    int regionLeft = regionRow * this.numRegionCols
+            + (regionCol + this.numRegionCols - 1) % this.numRegionCols;
+    boolean[] north = this.getBorderDoors(regionAbove, SOUTH_BORDER);
+    boolean[] south = this.getBorderDoors(regionIndex, SOUTH_BORDER);
+    boolean[] east = this.getBorderDoors(regionIndex, EAST_BORDER);
+    boolean[] west = this.getBorderDoors(regionLeft, EAST_BORDER);
+    for (int i = 0; i < size; i++) {
+      if (north[i]) {
+        doors[i] |= 1;
+      }
+      if (south[i]) {
+        doors[(size - 1) * size + i] |= 1 << 1;
+      }
+      if (east[i]) {
+        doors[i * size + size - 1] |= 1 << 2;
+      }
+      if (west[i]) {
+        doors[i * size] |= 1 << 3;
+      }
+    }
+
+    return new MazeRegion(doors, this.pitPercent, this.batPercent, regionRandom);
+  }
+
+  /**
+   * Get which doors are open along the South or East border of a region, opening at least one.
+   */
+  private boolean[] getBorderDoors(int regionIndex, int border) {
+    Random borderRandom = new Random(this.getSeed(regionIndex, border));
+    boolean[] open = new boolean[this.regionSize];
+    boolean any = false;
+    for (int i = 0; i < this.regionSize; i++) {
+      open[i] = borderRandom.nextInt(100) < BORDER_DOOR_PERCENT;
+      any |= open[i];
+    }
+    if (!any) {
+      open[borderRandom.nextInt(this.regionSize)] = true;
+    }
+    return open;
+  }
+
+  /**
+   * Get the seed of the inside or of a border of a region, by mixing the seed of the maze with
+   * the position of the region.
+   */
+  private long getSeed(int regionIndex, int part) {
+    long mixed = this.seed + (regionIndex * 3L + part) * 0x9E3779B97F4A7C15L;
+    mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+    mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+    return mixed ^ (mixed >>> 31);
+  }
+
+  /**
+   * Get a random cave by picking a random region and then a random cave of that region, trying
+   * again in the rare case that the region has no caves.
+   */
+  @Override
+  protected int getRandomCave() {
+    int numRegions = this.numRegionRows * this.numRegionCols;
+    while (true) {
+      int regionIndex = this.random.nextInt(numRegions);
+      MazeRegion region = this.getRegion(regionIndex);
+      if (region.getNumCaves() > 0) {
+        return this.getLocation(regionIndex, region.getCave(this.random.nextInt(
+                region.getNumCaves())));
+      }
+    }
+  }
+
+  /**
+   * Get the closest cave to a location, searching the locations at each distance around it in
+   * turn. Among caves at the same distance the one found first, row by row, is taken.
+   */
+  @Override
+  protected int getClosestCaveToLocation(int row, int col) {
+    int numRows = this.grid.getNumRows();
+    int numCols = this.grid.getNumCols();
+    for (int distance = 1; distance <= numRows + numCols; distance++) {
+      for (int rowOffset = -distance; rowOffset <= distance; rowOffset++) {
+        int colOffset = distance - Math.abs(rowOffset);
+        int caveRow = Math.floorMod(row + rowOffset, numRows);
+        int location = caveRow * numCols + Math.floorMod(col - colOffset, numCols);
+        if (!this.isHallway(location)) {
+          return location;
+        }
+        location = caveRow * numCols + Math.floorMod(col + colOffset, numCols);
+        if (!this.isHallway(location)) {
+          return location;
+        }
+      }
+    }
+    throw new IllegalStateException("maze has no caves");
+  }
+}
@@ -0,0 +1,518 @@
+package mazemodel;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class represents a non-perfect maze that is stored in primitive arrays instead of location
+ * and door objects. Each location keeps four bits that mark its open doors, two locations to a
+ * byte, and pits, bats and caves are kept in bit sets. A CompactMaze is built in about one byte
+ * per location, so it can hold mazes that are far too large for a NonPerfectMaze. The game is
+ * played by GridMaze on top of these arrays, with arrows flown through a jump table of the caves.
+ *
+ * <p>Two tables are built the first time they are needed, and each adds a cost per cave on top of
+ * the byte per location. The jump table is built when an arrow is first shot or traced, and keeps
+ * four ints for each direction an arrow can fly out of a cave, so at least 64 bytes per cave. The
+ * index used to find the closest cave to a hallway is built when a player is first added in a
+ * hallway, and keeps about six bytes per cave.
+ *
+ * <p>The caves a player smells the wumpus or feels a draft in are worked out once, when the maze
+ * is built, by shifting the bits of the hazards a whole word at a time toward each neighbor and
+ * keeping the caves whose door in that direction is open. Hazards that are reached through
+ * hallways are then followed out from each hazard along its hallways. A maze that places an
+ * exact count of hazards keeps them, and the caves next to them, in hash tables instead, found by
+ * following every door of each hazard.
+ *
+ * <p>A CompactMaze that places its hazards in each cave draws its random numbers in the same
+ * order as a NonPerfectMaze, so the two produce the same maze and the same game for the same seed
+ * and parameters.
+ */
+public class CompactMaze extends GridMaze {
+  private final byte[] doors;
+  private final LocationSet pits;
+  private final LocationSet bats;
+  private final LocationSet stench;
+  private final LocationSet draft;
+  private final long[] caves;
+  private final int[] cavesBefore;
+  private final int numCaves;
+  private CaveLocator caveLocator;
+  private ArrowJumpTable arrowFlights;
+
+  /**
+   * Construct a CompactMaze object that is generated with Kruskal's algorithm.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param numWallsRemaining the number of walls that should remain erected in the maze
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   */
+  public CompactMaze(int numRows, int numCols, boolean wrapping, int seed, int numWallsRemaining,
+                     int pitPercent, int batPercent) {
+    this(numRows, numCols, wrapping, seed, numWallsRemaining, pitPercent, batPercent,
+            new KruskalGenerator());
+  }
+
+  /**
+   * Construct a CompactMaze object that is generated with the given engine.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param numWallsRemaining the number of walls that should remain erected in the maze
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @param generator the engine used to decide which doors of the maze are opened
+   */
+  public CompactMaze(int numRows, int numCols, boolean wrapping, int seed, int numWallsRemaining,
+                     int pitPercent, int batPercent, MazeGenerator generator) {
+    this(numRows, numCols, wrapping, seed, numWallsRemaining, pitPercent, batPercent, generator,
+            HazardPlacement.EACH_CAVE);
+  }
+
+  /**
+   * Construct a CompactMaze object that is generated with the given engine and places its
+   * hazards the given way.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param numWallsRemaining the number of walls that should remain erected in the maze
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @param generator the engine used to decide which doors of the maze are opened
+   * @param placement the way pits and bats are placed in the caves
+   */
+  public CompactMaze(int numRows, int numCols, boolean wrapping, int seed, int numWallsRemaining,
+                     int pitPercent, int batPercent, MazeGenerator generator,
+                     HazardPlacement placement) {
+    super(new DoorGrid(numRows, numCols, wrapping),
+            seed >= 0 ? new MazeRandom(seed) : new MazeRandom());
+    this.validatePercentage(pitPercent, "percentage of pits is not valid");
+    this.validatePercentage(batPercent, "percentage of bats is not valid");
+    if (generator == null) {
+      throw new IllegalArgumentException("generator cannot be null");
+    }
+    if (placement == null) {
+      throw new IllegalArgumentException("placement cannot be null");
+    }
+    if (numWallsRemaining < 0 || numWallsRemaining >
+            (this.grid.getNumDoors() - (numRows * numCols) + 1)) {
+      throw new IllegalArgumentException("numRemainingWalls is not valid");
+    }
+
+    int numLocations = this.grid.getNumLocations();
+    this.doors = new byte[(numLocations + 1) / 2];
+    this.openDoors(generator.generate(numRows, numCols, wrapping, numWallsRemaining,
+            this.random));
+
+    this.caves = new long[(numLocations + 63) >>> 6];
+    this.cavesBefore = new int[this.caves.length];
+    this.numCaves = this.indexCaves();
+
+    this.wumpus = this.getCave(this.random.nextInt(this.numCaves));
+    if (placement == HazardPlacement.EXACT_COUNT) {
+      int[] pitCaves = this.pickHazards(pitPercent);
+      this.pits = new HashedLocations(pitCaves);
+      this.bats = new HashedLocations(this.pickHazards(batPercent));
+      this.stench = new HashedLocations(this.getCavesNextTo(new int[] {this.wumpus}));
+      this.draft = new HashedLocations(this.getCavesNextTo(pitCaves));
+    } else {
+      long[] pitBits = new long[this.caves.length];
+      long[] batBits = new long[this.caves.length];
+      if (placement == HazardPlacement.EACH_CAVE) {
+        this.setHazards(pitBits, pitPercent);
+        this.setHazards(batBits, batPercent);
+      } else {
+        this.sampleHazards(pitBits, pitPercent);
+        this.sampleHazards(batBits, batPercent);
+      }
+
+      long[] wumpusBits = new long[this.caves.length];
+      GridBits.set(wumpusBits, this.wumpus);
+      long[][] doorBits = this.getDoorBits();
+      this.pits = this.toLocationSet(pitBits);
+      this.bats = this.toLocationSet(batBits);
+      this.stench = this.toLocationSet(this.getCavesNextTo(wumpusBits, doorBits));
+      this.draft = this.toLocationSet(this.getCavesNextTo(pitBits, doorBits));
+    }
+  }
+
+  @Override
+  protected int getOpenDoors(int location) {
+    return (this.doors[location >>> 1] >>> ((location & 1) << 2)) & 0xF;
+  }
+
+  @Override
+  protected boolean hasPit(int location) {
+    return this.pits.contains(location);
+  }
+
+  @Override
+  protected boolean hasBats(int location) {
+    return this.bats.contains(location);
+  }
+
+  @Override
+  protected int getPerceptions(int location) {
+    int perceptions = 0;
+    if (this.stench.contains(location)) {
+      perceptions |= TurnOutcome.SMELL_WUMPUS;
+    }
+    if (this.draft.contains(location)) {
+      perceptions |= TurnOutcome.FEEL_DRAFT;
+    }
+    return perceptions;
+  }
+
+  @Override
+  protected int getRandomCave() {
+    return this.getCave(this.random.nextInt(this.numCaves));
+  }
+
+  @Override
+  protected int getClosestCaveToLocation(int row, int col) {
+    if (this.caveLocator == null) {
+      int[] caveList = new int[this.numCaves];
+      for (int rank = 0; rank < this.numCaves; rank++) {
+        caveList[rank] = this.getCave(rank);
+      }
+      this.caveLocator = new CaveLocator(this.grid.getNumRows(), this.grid.getNumCols(),
+              this.grid.isWrapping(), caveList);
+    }
+    return this.caveLocator.getClosestCave(row, col);
+  }
+
+  /**
+   * Fly an arrow by looking its flight up in the jump table of the maze.
+   */
+  @Override
+  protected int flyArrow(int location, int direction, int caves) {
+    int state = this.getArrowFlights().fly(this.getArrowState(location, direction), caves);
+    return state < 0 ? -1 : this.getCave(state >> 2);
+  }
+
+  /**
+   * Get the length of a flight by looking it up in the jump table of the maze.
+   */
+  @Override
+  protected int getArrowFlightLength(int location, int direction, int caves) {
+    return this.getArrowFlights().getFlightLength(this.getArrowState(location, direction), caves);
+  }
+
+  /**
+   * Get the open doors of every location, four bits to a location and two locations to a byte,
+   * with the even location in the low bits. The array is not copied.
+   * @return the open doors
+   */
+  byte[] getDoorNibbles() {
+    return this.doors;
+  }
+
+  /**
+   * Get the bits of the locations that are caves, in row major order. The array is not copied.
+   * @return the bits of the caves
+   */
+  long[] getCaveBits() {
+    return this.caves;
+  }
+
+  /**
+   * Get the number of caves before each word of the cave bits. The array is not copied.
+   * @return the number of caves before each word
+   */
+  int[] getCavesBefore() {
+    return this.cavesBefore;
+  }
+
+  /**
+   * Get the number of caves in the maze.
+   * @return the number of caves
+   */
+  int getNumCaves() {
+    return this.numCaves;
+  }
+
+  /**
+   * Get the caves that have pits.
+   * @return the caves with pits
+   */
+  LocationSet getPits() {
+    return this.pits;
+  }
+
+  /**
+   * Get the caves that have bats.
+   * @return the caves with bats
+   */
+  LocationSet getBats() {
+    return this.bats;
+  }
+
+  /**
+   * Get the caves a player smells the wumpus in.
+   * @return the caves next to the wumpus
+   */
+  LocationSet getStench() {
+    return this.stench;
+  }
+
+  /**
+   * Get the caves a player feels a draft in.
+   * @return the caves next to a pit
+   */
+  LocationSet getDraft() {
+    return this.draft;
+  }
+
+  /**
+   * Get the location of the wumpus.
+   * @return the location of the wumpus
+   */
+  int getWumpus() {
+    return this.wumpus;
+  }
+
+  /**
+   * Get the state of the random number generator of the game.
+   * @return the state of the generator
+   */
+  long getRandomState() {
+    return ((MazeRandom) this.random).getState();
+  }
+
+  private int getArrowState(int location, int direction) {
+    return (this.getCaveRank(location) << 2) + direction;
+  }
+
+  /**
+   * Get the jump table for arrows flying through the maze, building it the first time it is needed.
+   * States are numbered by the rank of the cave rather than its location, so the table only has
+   * entries for caves.
+   */
+  private ArrowJumpTable getArrowFlights() {
+    if (this.arrowFlights == null) {
+      int[] next = new int[this.numCaves * 4];
+      for (int state = 0; state < next.length; state++) {
+        int location = this.getCave(state >> 2);
+        int direction = state & 3;
+        if ((this.getOpenDoors(location) & (1 << direction)) == 0) {
+          next[state] = -1;
+          continue;
+        }
+        do {
+          direction = this.getHallwayDirection(location, direction);
+          location = this.grid.getNeighbor(location, direction);
+        } while (this.isHallway(location));
+        next[state] = (this.getCaveRank(location) << 2) + direction;
+      }
+      this.arrowFlights = new ArrowJumpTable(next);
+    }
+    return this.arrowFlights;
+  }
+
+  private int getCaveRank(int location) {
+    int word = location >>> 6;
+    return this.cavesBefore[word] + Long.bitCount(this.caves[word] & ((1L << location) - 1));
+  }
+
+  private int getOppositeDirection(int direction) {
+    return direction ^ 1;
+  }
+
+  private void openDoors(BitSet openDoors) {
+    for (int door = openDoors.nextSetBit(0); door >= 0; door = openDoors.nextSetBit(door + 1)) {
+      int direction = this.grid.getDirectionOne(door);
+      this.openDoor(this.grid.getLocationOne(door), direction);
+      this.openDoor(this.grid.getLocationTwo(door), this.getOppositeDirection(direction));
+    }
+  }
+
+  private void openDoor(int location, int direction) {
+    this.doors[location >>> 1] |= (byte) (1 << (direction + ((location & 1) << 2)));
+  }
+
+  /**
+   * Mark every location that is not a hallway as a cave, and count the caves that come before each
+   * word of the index so that the caves can be looked up by rank.
+   */
+  private int indexCaves() {
+    int count = 0;
+    for (int location = 0; location < this.grid.getNumLocations(); location++) {
+      if (!this.isHallway(location)) {
+        this.caves[location >>> 6] |= 1L << location;
+      }
+    }
+    for (int word = 0; word < this.caves.length; word++) {
+      this.cavesBefore[word] = count;
+      count += Long.bitCount(this.caves[word]);
+    }
+    return count;
+  }
+
+  /**
+   * Get a cave by its rank, where caves are ordered row by row.
+   */
+  private int getCave(int rank) {
+    int low = 0;
+    int high = this.cavesBefore.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (this.cavesBefore[middle] <= rank) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return (low << 6) + WordBits.select(this.caves[low], rank - this.cavesBefore[low]);
+  }
+
+  private void setHazards(long[] hazards, int percent) {
+    for (int word = 0; word < this.caves.length; word++) {
+      for (long bits = this.caves[word]; bits != 0; bits &= bits - 1) {
+        if (this.random.nextInt(100) < percent) {
+          hazards[word] |= Long.lowestOneBit(bits);
+        }
+      }
+    }
+  }
+
+  /**
+   * Place hazards in the caves by drawing the number of caves to skip before each hazard. When
+   * each cave has a hazard with a fixed chance, the number of caves between two hazards follows a
+   * geometric distribution, so it can be drawn from a single uniform number, and whole words of
+   * caves are skipped by counting their bits.
+   */
+  private void sampleHazards(long[] hazards, int percent) {
+    if (percent == 0) {
+      return;
+    }
+    if (percent == 100) {
+      System.arraycopy(this.caves, 0, hazards, 0, this.caves.length);
+      return;
+    }
+
+    double logMiss = Math.log1p(-percent / 100.0);
+    int word = 0;
+    long bits = this.caves[0];
+    long skip = this.drawSkip(logMiss);
+    while (true) {
+      int count = Long.bitCount(bits);
+      while (skip >= count) {
+        skip -= count;
+        word += 1;
+        if (word == this.caves.length) {
+          return;
+        }
+        bits = this.caves[word];
+        count = Long.bitCount(bits);
+      }
+      int position = WordBits.select(bits, (int) skip);
+      hazards[word] |= 1L << position;
+      bits &= -2L << position;
+      skip = this.drawSkip(logMiss);
+    }
+  }
+
+  private long drawSkip(double logMiss) {
+    return (long) (Math.log(1.0 - this.random.nextDouble()) / logMiss);
+  }
+
+  /**
+   * Get the caves that a player can reach a hazard from in one move. Caves that are next to a
+   * hazard are found for each direction by shifting the hazards a word at a time and keeping the
+   * caves whose door in that direction is open. A non-wrapping maze has no doors across its
+   * edges, so shifting the grid as if it wrapped around does no harm. The hallways that lead out
+   * of each hazard are then followed to the caves at their other ends, which reach the hazard
+   * back along the same hallway.
+   */
+  private long[] getCavesNextTo(long[] hazards, long[][] doorBits) {
+    long[] result = new long[this.caves.length];
+    for (int direction = 0; direction < 4; direction++) {
+      long[] neighbors = GridBits.getNeighborBits(hazards, this.grid.getNumRows(),
+              this.grid.getNumCols(), direction);
+      long[] open = doorBits[direction];
+      for (int word = 0; word < result.length; word++) {
+        result[word] |= open[word] & neighbors[word] & this.caves[word];
+      }
+    }
+
+    for (int word = 0; word < hazards.length; word++) {
+      for (long bits = hazards[word]; bits != 0; bits &= bits - 1) {
+        int hazard = (word << 6) + Long.numberOfTrailingZeros(bits);
+        for (int direction = 0; direction < 4; direction++) {
+          if (GridBits.get(doorBits[direction], hazard)
+                  && this.isHallway(this.grid.getNeighbor(hazard, direction))) {
+            GridBits.set(result, this.moveObject(hazard, direction, 1, null));
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Pick exactly the percentage of the caves, rounded, with Floyd's algorithm, which draws one
+   * number for each cave it picks and needs to remember only the caves picked so far.
+   */
+  private int[] pickHazards(int percent) {
+    int count = (int) Math.round(percent * (double) this.numCaves / 100);
+    int[] result = new int[count];
+    HashedLocations picked = new HashedLocations(count);
+    for (int i = 0; i < count; i++) {
+      int last = this.numCaves - count + i;
+      int rank = this.random.nextInt(last + 1);
+      if (!picked.add(rank)) {
+        rank = last;
+        picked.add(rank);
+      }
+      result[i] = this.getCave(rank);
+    }
+    return result;
+  }
+
+  /**
+   * Get the caves that a player can reach one of a few hazards from in one move, by following
+   * each door of each hazard to the cave at its other end, which reaches the hazard back the same
+   * way. A cave is listed once for each way it reaches a hazard.
+   */
+  private int[] getCavesNextTo(int[] hazards) {
+    int[] result = new int[hazards.length * 4];
+    int size = 0;
+    for (int hazard : hazards) {
+      int open = this.getOpenDoors(hazard);
+      for (int direction = 0; direction < 4; direction++) {
+        if ((open & (1 << direction)) != 0) {
+          result[size] = this.moveObject(hazard, direction, 1, null);
+          size += 1;
+        }
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  private LocationSet toLocationSet(long[] bits) {
+    return location -> GridBits.get(bits, location);
+  }
+
+  /**
+   * Get, for each direction, the bits of the locations whose door in that direction is open.
+   */
+  private long[][] getDoorBits() {
+    long[][] doorBits = new long[4][this.caves.length];
+    for (int location = 0; location < this.grid.getNumLocations(); location++) {
+      int open = this.getOpenDoors(location);
+      for (int direction = 0; direction < 4; direction++) {
+        if ((open & (1 << direction)) != 0) {
+          GridBits.set(doorBits[direction], location);
+        }
+      }
+    }
+    return doorBits;
+  }
+}
@@ -0,0 +1,71 @@
+package mazemodel;
+
+/**
+ * A disjoint-set (union-find) structure over the integers 0 to size - 1. Sets are stored in
+ * primitive arrays and use path compression and union by rank, so that any sequence of operations
+ * runs in near-linear time.
+ */
+class DisjointSet {
+  private final int[] parent;
+  private final byte[] rank;
+
+  /**
+   * Construct a DisjointSet object where every element starts out in its own set.
+   * @param size the number of elements
+   */
+  public DisjointSet(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size cannot be negative");
+    }
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    for (int i = 0; i < size; i++) {
+      this.parent[i] = i;
+    }
+  }
+
+  /**
+   * Get the representative element of the set containing an element.
+   * @param element the element
+   * @return the representative element of the set containing the element
+   */
+  public int find(int element) {
+    int root = element;
+    while (this.parent[root] != root) {
+      root = this.parent[root];
+    }
+
+    // compress the path so that every element on it points directly at the root
+    while (this.parent[element] != root) {
+      int next = this.parent[element];
+      this.parent[element] = root;
+      element = next;
+    }
+
+    return root;
+  }
+
+  /**
+   * Merge the sets containing two elements.
+   * @param first the first element
+   * @param second the second element
+   * @return true if the elements were in different sets, false if they were already connected
+   */
+  public boolean union(int first, int second) {
+    int rootOne = this.find(first);
+    int rootTwo = this.find(second);
+    if (rootOne == rootTwo) {
+      return false;
+    }
+
+    if (this.rank[rootOne] < this.rank[rootTwo]) {
+      this.parent[rootOne] = rootTwo;
+    } else if (this.rank[rootOne] > this.rank[rootTwo]) {
+      this.parent[rootTwo] = rootOne;
+    } else {
+      this.parent[rootTwo] = rootOne;
+      this.rank[rootOne] += 1;
+    }
+    return true;
+  }
+}
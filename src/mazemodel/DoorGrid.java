@@ -0,0 +1,204 @@
+package mazemodel;
+
+/**
+ * A class that numbers the doors of a rectangular maze. Doors are numbered in the same order that
+ * the maze builds them: first the East-West doors row by row, then the North-South doors column by
+ * column, and finally (for wrapping mazes) the doors that wrap around each row and each column.
+ * Locations are numbered row by row, so the location at (row, col) is (row * numCols) + col.
+ */
+class DoorGrid {
+  private final int numRows;
+  private final int numCols;
+  private final boolean wrapping;
+  private final int numEastWestDoors;
+  private final int numNorthSouthDoors;
+
+  /**
+   * Construct a DoorGrid object.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   */
+  public DoorGrid(int numRows, int numCols, boolean wrapping) {
+    if (numRows <= 0) {
+      throw new IllegalArgumentException("number of rows must be positive");
+    }
+    if (numCols <= 0) {
+      throw new IllegalArgumentException("number of columns must be positive");
+    }
+    this.numRows = numRows;
+    this.numCols = numCols;
+    this.wrapping = wrapping;
+    this.numEastWestDoors = numRows * (numCols - 1);
+    this.numNorthSouthDoors = (numRows - 1) * numCols;
+  }
+
+  /**
+   * Get the number of rows in the maze.
+   * @return the number of rows in the maze
+   */
+  public int getNumRows() {
+    return this.numRows;
+  }
+
+  /**
+   * Get the number of columns in the maze.
+   * @return the number of columns in the maze
+   */
+  public int getNumCols() {
+    return this.numCols;
+  }
+
+  /**
+   * Return whether or not the maze is wrapping.
+   * @return true if the maze is wrapping, false otherwise
+   */
+  public boolean isWrapping() {
+    return this.wrapping;
+  }
+
+  /**
+   * Get the number of locations in the maze.
+   * @return the number of locations in the maze
+   */
+  public int getNumLocations() {
+    return this.numRows * this.numCols;
+  }
+
+  /**
+   * Get the number of doors in the maze.
+   * @return the number of doors in the maze
+   */
+  public int getNumDoors() {
+    int result = this.numEastWestDoors + this.numNorthSouthDoors;
+    if (this.wrapping) {
+      result += this.numRows + this.numCols;
+    }
+    return result;
+  }
+
+  /**
+   * Get the location on the first side of a door.
+   * @param door the door
+   * @return the location on the first side of the door
+   */
+  public int getLocationOne(int door) {
+    if (door < this.numEastWestDoors) {
+      return (door / (this.numCols - 1)) * this.numCols + (door % (this.numCols - 1));
+    }
+    door -= this.numEastWestDoors;
+    if (door < this.numNorthSouthDoors) {
+      return (door % (this.numRows - 1)) * this.numCols + (door / (this.numRows - 1));
+    }
+    door -= this.numNorthSouthDoors;
+    if (door < this.numRows) {
+      return door * this.numCols;
+    }
+    return door - this.numRows;
+  }
+
+  /**
+   * Get the direction of a door as seen from the location on its first side.
+   * @param door the door
+   * @return the direction of the door from its first location (0 - North, 1 - South, 2 - East,
+   *         3 - West)
+   */
+  public int getDirectionOne(int door) {
+    if (door < this.numEastWestDoors) {
+      return 2;
+    }
+    door -= this.numEastWestDoors;
+    if (door < this.numNorthSouthDoors) {
+      return 1;
+    }
+    door -= this.numNorthSouthDoors;
+    if (door < this.numRows) {
+      return 3;
+    }
+    return 0;
+  }
+
+  /**
+   * Get the location on the second side of a door.
+   * @param door the door
+   * @return the location on the second side of the door
+   */
+  public int getLocationTwo(int door) {
+    return this.getNeighbor(this.getLocationOne(door), this.getDirectionOne(door));
+  }
+
+  /**
+   * Get the door leading out of a location in a direction.
+   * @param location the location
+   * @param direction the direction
+   * @return the door leading out of the location in the direction, or -1 if there is none
+   */
+  public int getDoor(int location, int direction) {
+    int row = location / this.numCols;
+    int col = location % this.numCols;
+    int wrapStart = this.numEastWestDoors + this.numNorthSouthDoors;
+
+    switch (direction) {
+      case 0:
+        if (row > 0) {
+          return this.numEastWestDoors + col * (this.numRows - 1) + row - 1;
+        }
+        return this.wrapping ? wrapStart + this.numRows + col : -1;
+      case 1:
+        if (row < this.numRows - 1) {
+          return this.numEastWestDoors + col * (this.numRows - 1) + row;
+        }
+        return this.wrapping ? wrapStart + this.numRows + col : -1;
+      case 2:
+        if (col < this.numCols - 1) {
+          return row * (this.numCols - 1) + col;
+        }
+        return this.wrapping ? wrapStart + row : -1;
+      case 3:
+        if (col > 0) {
+          return row * (this.numCols - 1) + col - 1;
+        }
+        return this.wrapping ? wrapStart + row : -1;
+      default:
+        throw new IllegalArgumentException("this is not a valid direction");
+    }
+  }
+
+  /**
+   * Get the location adjacent to a location in a direction, ignoring whether or not the door
+   * between them is open.
+   * @param location the location
+   * @param direction the direction
+   * @return the adjacent location, or -1 if there is no door in that direction
+   */
+  public int getNeighbor(int location, int direction) {
+    int row = location / this.numCols;
+    int col = location % this.numCols;
+
+    switch (direction) {
+      case 0:
+        row -= 1;
+        break;
+      case 1:
+        row += 1;
+        break;
+      case 2:
+        col += 1;
+        break;
+      case 3:
+        col -= 1;
+        break;
+      default:
+        throw new IllegalArgumentException("this is not a valid direction");
+    }
+
+    if (row < 0 || row >= this.numRows || col < 0 || col >= this.numCols) {
+      if (!this.wrapping) {
+        return -1;
+      }
+      row = (row + this.numRows) % this.numRows;
+      col = (col + this.numCols) % this.numCols;
+    }
+    return (row * this.numCols) + col;
+  }
+}
@@ -0,0 +1,113 @@
+package mazemodel;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * A maze generation engine based on Eller's algorithm. The maze is carved one row at a time: cells
+ * in the current row are randomly joined to their Eastern neighbors, and then every group of
+ * connected cells extends at least one door down into the next row. The last row joins every group
+ * that is still separate.
+ *
+ * <p>Apart from the set of open doors it returns, this engine only keeps a handful of arrays the
+ * size of one row, which makes it the best choice for very tall mazes when memory is tight.
+ */
+public class EllerGenerator extends SpanningTreeGenerator {
+
+  @Override
+  protected void buildSpanningTree(DoorGrid grid, BitSet openDoors, Random random) {
+    int numRows = grid.getNumRows();
+    int numCols = grid.getNumCols();
+
+    // the group of each cell in the current row, and a union-find over those groups
+    int[] groups = new int[numCols];
+    int[] parent = new int[numCols];
+    int[] groupSizes = new int[numCols];
+    boolean[] extended = new boolean[numCols];
+    int[] nextGroups = new int[numCols];
+    boolean[] down = new boolean[numCols];
+
+    for (int col = 0; col < numCols; col++) {
+      groups[col] = col;
+    }
+
+    for (int row = 0; row < numRows; row++) {
+      boolean lastRow = row == numRows - 1;
+      for (int i = 0; i < numCols; i++) {
+        parent[i] = i;
+        groupSizes[i] = 0;
+        extended[i] = false;
+      }
+
+      for (int col = 0; col < numCols - 1; col++) {
+        int groupOne = this.findGroup(parent, groups[col]);
+        int groupTwo = this.findGroup(parent, groups[col + 1]);
+        if (groupOne != groupTwo && (lastRow || random.nextBoolean())) {
+          parent[groupTwo] = groupOne;
+          openDoors.set(grid.getDoor(row * numCols + col, 2));
+        }
+      }
+
+      if (lastRow) {
+        break;
+      }
+
+      for (int col = 0; col < numCols; col++) {
+        groupSizes[this.findGroup(parent, groups[col])] += 1;
+      }
+
+      // every group must extend down at least once, so the last cell of a group that has not
+      // extended yet always does
+      for (int col = 0; col < numCols; col++) {
+        int group = this.findGroup(parent, groups[col]);
+        groupSizes[group] -= 1;
+        down[col] = (groupSizes[group] == 0 && !extended[group]) || random.nextBoolean();
+        if (down[col]) {
+          extended[group] = true;
+          openDoors.set(grid.getDoor(row * numCols + col, 1));
+        }
+      }
+
+      this.renumberGroups(groups, parent, down, nextGroups);
+    }
+  }
+
+  private int findGroup(int[] parent, int group) {
+    while (parent[group] != group) {
+      parent[group] = parent[parent[group]];
+      group = parent[group];
+    }
+    return group;
+  }
+
+  /**
+   * Give the cells of the next row compact group numbers. Cells below an open door keep the group
+   * of the cell above them, and every other cell starts a group of its own.
+   */
+  private void renumberGroups(int[] groups, int[] parent, boolean[] down, int[] renumbered) {
+    for (int i = 0; i < renumbered.length; i++) {
+      renumbered[i] = -1;
+    }
+
+    int nextGroup = 0;
+    for (int col = 0; col < groups.length; col++) {
+      if (down[col]) {
+        int group = this.findGroup(parent, groups[col]);
+        if (renumbered[group] < 0) {
+          renumbered[group] = nextGroup;
+          nextGroup += 1;
+        }
+        groups[col] = renumbered[group];
+      } else {
+        groups[col] = -1;
+      }
+    }
+
+    for (int col = 0; col < groups.length; col++) {
+      if (groups[col] < 0) {
+        groups[col] = nextGroup;
+        nextGroup += 1;
+      }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package mazemodel;
+
+/**
+ * A class of helper operations on bit sets that hold one bit for each location of a grid, in row
+ * major order, 64 locations to a long.
+ */
+final class GridBits {
+
+  private GridBits() {
+  }
+
+  /**
+   * Get whether the bit of a location is set.
+   * @param bits the bits of the grid
+   * @param location the location
+   * @return true if the bit is set, false otherwise
+   */
+  static boolean get(long[] bits, int location) {
+    return (bits[location >>> 6] & (1L << location)) != 0;
+  }
+
+  /**
+   * Set the bit of a location.
+   * @param bits the bits of the grid
+   * @param location the location
+   */
+  static void set(long[] bits, int location) {
+    bits[location >>> 6] |= 1L << location;
+  }
+
+  /**
+   * Get, for every location, the bit of its neighbor in a direction, treating the grid as a torus
+   * so that every location has a neighbor. The result is built a whole word at a time by shifting
+   * the grid by a row or by a location, and only the locations on the edge column that the shift
+   * carries across rows are then fixed one by one.
+   * @param bits the bits of the grid
+   * @param numRows the number of rows in the grid
+   * @param numCols the number of columns in the grid
+   * @param direction the direction of the neighbor, 0 for north, 1 for south, 2 for east and 3
+   *                  for west
+   * @return the bits of the neighbors
+   */
+  static long[] getNeighborBits(long[] bits, int numRows, int numCols, int direction) {
+    int numBits = numRows * numCols;
+    switch (direction) {
+      case 0:
+        return rotate(bits, numBits, numBits - numCols);
+      case 1:
+        return rotate(bits, numBits, numCols % numBits);
+      case 2: {
+        long[] result = rotate(bits, numBits, 1 % numBits);
+        for (int rowStart = 0; rowStart < numBits; rowStart += numCols) {
+          copyBit(bits, rowStart, result, rowStart + numCols - 1);
+        }
+        return result;
+      }
+      case 3: {
+        long[] result = rotate(bits, numBits, numBits - 1);
+        for (int rowStart = 0; rowStart < numBits; rowStart += numCols) {
+          copyBit(bits, rowStart + numCols - 1, result, rowStart);
+        }
+        return result;
+      }
+      default:
+        throw new IllegalArgumentException("not a valid direction");
+    }
+  }
+
+  /**
+   * Rotate the bits of a grid so that each bit of the result is the bit an offset further on,
+   * wrapping around at the end of the grid.
+   */
+  private static long[] rotate(long[] bits, int numBits, int offset) {
+    long[] result = new long[bits.length];
+    for (int word = 0; word < result.length; word++) {
+      result[word] = read(bits, numBits, (int) (((long) word * 64 + offset) % numBits));
+    }
+    int tail = numBits & 63;
+    if (tail != 0) {
+      result[result.length - 1] &= (1L << tail) - 1;
+    }
+    return result;
+  }
+
+  /**
+   * Read the 64 bits that start at a position, going on from the start of the grid each time the
+   * end is reached. The bits past the end of the grid must be clear.
+   */
+  private static long read(long[] bits, int numBits, int start) {
+    long value = 0;
+    int filled = 0;
+    while (filled < 64) {
+      int word = start >>> 6;
+      int shift = start & 63;
+      long chunk = bits[word] >>> shift;
+      if (shift != 0 && word + 1 < bits.length) {
+        chunk |= bits[word + 1] << (64 - shift);
+      }
+      int length = Math.min(64 - filled, numBits - start);
+      if (length < 64) {
+        chunk &= (1L << length) - 1;
+      }
+      value |= chunk << filled;
+      filled += length;
+      start = 0;
+    }
+    return value;
+  }
+
+  private static void copyBit(long[] from, int fromLocation, long[] to, int toLocation) {
+    if (get(from, fromLocation)) {
+      set(to, toLocation);
+    } else {
+      to[toLocation >>> 6] &= ~(1L << toLocation);
+    }
+  }
+}
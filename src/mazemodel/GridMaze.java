@@ -0,0 +1,623 @@
+package mazemodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An abstract class for mazes that look their doors and hazards up location by location rather
+ * than keeping location and door objects, so that the layout can be packed into primitive arrays,
+ * live outside the heap or be built only in part. A subclass provides the doors, pits and bats of
+ * each location, the wumpus and the way caves are picked, and this class plays the game on top of
+ * them: players, arrows and hallways are followed one location at a time, unless the subclass
+ * keeps tables that answer a question faster.
+ */
+abstract class GridMaze implements Maze {
+  protected final DoorGrid grid;
+  protected final Random random;
+  protected int wumpus;
+  private int numPlayers;
+  private int[] playerLocations;
+  private int[] playerArrows;
+  private boolean[] wumpusKilledStatus;
+  private boolean[] movedByBatsStatus;
+  private List<List<Integer>> hallwaysTraveled;
+
+  /**
+   * Construct a GridMaze object with no players. The subclass must place the wumpus.
+   * @param grid the locations of the maze and their neighbors
+   * @param random the random number generator of the game
+   */
+  protected GridMaze(DoorGrid grid, Random random) {
+    this.grid = grid;
+    this.random = random;
+    this.numPlayers = 0;
+    this.playerLocations = new int[2];
+    this.playerArrows = new int[2];
+    this.wumpusKilledStatus = new boolean[2];
+    this.movedByBatsStatus = new boolean[2];
+    this.hallwaysTraveled = new ArrayList<>();
+  }
+
+  @Override
+  public void addPlayer(int row, int col, int arrows) {
+    if (row < 0 || row >= this.grid.getNumRows()) {
+      throw new IllegalArgumentException("not a valid row");
+    }
+    if (col < 0 || col >= this.grid.getNumCols()) {
+      throw new IllegalArgumentException("not a valid column");
+    }
+    if (arrows < 0) {
+      throw new IllegalArgumentException("number of arrows cannot be negative");
+    }
+
+    int location = (row * this.grid.getNumCols()) + col;
+    if (this.isHallway(location)) {
+      location = this.getClosestCaveToLocation(row, col);
+    }
+
+    if (this.numPlayers == this.playerLocations.length) {
+      int capacity = this.numPlayers * 2;
+      this.playerLocations = Arrays.copyOf(this.playerLocations, capacity);
+      this.playerArrows = Arrays.copyOf(this.playerArrows, capacity);
+      this.wumpusKilledStatus = Arrays.copyOf(this.wumpusKilledStatus, capacity);
+      this.movedByBatsStatus = Arrays.copyOf(this.movedByBatsStatus, capacity);
+    }
+
+    int player = this.numPlayers;
+    this.numPlayers += 1;
+    this.playerLocations[player] = location;
+    this.playerArrows[player] = arrows;
+    this.wumpusKilledStatus[player] = false;
+    this.conditionallyMovePlayerWithBat(player);
+  }
+
+  @Override
+  public int getPlayerLocation(int player) {
+    this.validatePlayerExists(player);
+    return this.playerLocations[player];
+  }
+
+  @Override
+  public List<Integer> getValidPlayerMoves(int player) {
+    this.validatePlayerExists(player);
+
+    List<Integer> result = new ArrayList<Integer>();
+    int open = this.getOpenDoors(this.playerLocations[player]);
+    for (int direction = 0; direction < 4; direction++) {
+      if ((open & (1 << direction)) != 0) {
+        result.add(direction);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public void movePlayerInDirection(int direction, int player) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    this.hallwaysTraveled = new ArrayList<>();
+    this.playerLocations[player] = this.moveObject(this.playerLocations[player], direction, 1,
+            this.hallwaysTraveled);
+    this.conditionallyMovePlayerWithBat(player);
+  }
+
+  @Override
+  public void movePlayerToLocation(int location, int player) {
+    this.validatePlayerExists(player);
+    int direction = this.getDirectionOfLocation(location, player);
+    if (direction < 0) {
+      throw new IllegalArgumentException("the player cannot move to this location");
+    }
+    this.movePlayerInDirection(direction, player);
+  }
+
+  @Override
+  public List<List<Integer>> getHallwaysTraveled() {
+    return this.hallwaysTraveled;
+  }
+
+  @Override
+  public void shootArrow(int direction, int caves, int player) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    if (caves < 0) {
+      throw new IllegalArgumentException("number of caves cannot be negative");
+    }
+    if (this.playerArrows[player] < 1) {
+      throw new IllegalStateException("you cannot remove more arrows than you have");
+    }
+    this.playerArrows[player] -= 1;
+
+    if (this.flyArrow(this.playerLocations[player], direction, caves) == this.wumpus) {
+      this.wumpusKilledStatus[player] = true;
+    }
+  }
+
+  @Override
+  public int getArrowDestination(int direction, int caves, int player) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    if (caves < 0) {
+      throw new IllegalArgumentException("number of caves cannot be negative");
+    }
+    return this.flyArrow(this.playerLocations[player], direction, caves);
+  }
+
+  @Override
+  public int[] traceArrow(int direction, int caves, int player) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    if (caves < 0) {
+      throw new IllegalArgumentException("number of caves cannot be negative");
+    }
+
+    int location = this.playerLocations[player];
+    int numCaves = this.getArrowFlightLength(location, direction, caves);
+    int[] result = new int[numCaves];
+    int length = 0;
+    for (int i = 0; i < numCaves; i++) {
+      do {
+        direction = this.getHallwayDirection(location, direction);
+        location = this.grid.getNeighbor(location, direction);
+        if (length == result.length) {
+          result = Arrays.copyOf(result, length * 2);
+        }
+        result[length] = location;
+        length += 1;
+      } while (this.isHallway(location));
+    }
+    return Arrays.copyOf(result, length);
+  }
+
+  @Override
+  public TurnOutcome getTurnOutcome(int player) {
+    this.validatePlayerExists(player);
+    return this.createTurnOutcome(player, new ArrayList<>());
+  }
+
+  @Override
+  public TurnOutcome takeMove(int direction, int player) {
+    this.movePlayerInDirection(direction, player);
+    return this.createTurnOutcome(player, this.hallwaysTraveled);
+  }
+
+  @Override
+  public TurnOutcome takeMoveToLocation(int location, int player) {
+    this.movePlayerToLocation(location, player);
+    return this.createTurnOutcome(player, this.hallwaysTraveled);
+  }
+
+  @Override
+  public TurnOutcome takeShot(int direction, int caves, int player) {
+    this.shootArrow(direction, caves, player);
+    return this.createTurnOutcome(player, new ArrayList<>());
+  }
+
+  @Override
+  public int getValidMoveMask(int player) {
+    this.validatePlayerExists(player);
+    return this.getOpenDoors(this.playerLocations[player]);
+  }
+
+  @Override
+  public int getDoorMask(int location) {
+    if (location < 0 || location >= this.grid.getNumLocations()) {
+      throw new IllegalArgumentException("not a valid location");
+    }
+    return this.getOpenDoors(location);
+  }
+
+  @Override
+  public int getConditionMask(int player) {
+    this.validatePlayerExists(player);
+    return this.getConditions(player);
+  }
+
+  @Override
+  public int getHallwayLength(int direction, int player) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    int location = this.playerLocations[player];
+    int length = -1;
+    do {
+      direction = this.getHallwayDirection(location, direction);
+      location = this.grid.getNeighbor(location, direction);
+      length += 1;
+    } while (this.isHallway(location));
+    return length;
+  }
+
+  @Override
+  public int movePlayer(int direction, int player, int[] hallways) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    int location = this.playerLocations[player];
+    int length = 0;
+    while (true) {
+      direction = this.getHallwayDirection(location, direction);
+      location = this.grid.getNeighbor(location, direction);
+      if (!this.isHallway(location)) {
+        break;
+      }
+      if (hallways != null && length < hallways.length) {
+        hallways[length] = location;
+      }
+      length += 1;
+    }
+
+    this.playerLocations[player] = location;
+    this.hallwaysTraveled = Collections.emptyList();
+    this.conditionallyMovePlayerWithBat(player);
+    return length;
+  }
+
+  @Override
+  public boolean wumpusKilled(int player) {
+    this.validatePlayerExists(player);
+    return this.wumpusKilledStatus[player];
+  }
+
+  @Override
+  public boolean playerEaten(int player) {
+    this.validatePlayerExists(player);
+    return this.playerLocations[player] == this.wumpus;
+  }
+
+  @Override
+  public boolean playerFallen(int player) {
+    this.validatePlayerExists(player);
+    return this.hasPit(this.playerLocations[player]);
+  }
+
+  @Override
+  public boolean gameLost(int player) {
+    this.validatePlayerExists(player);
+    return (this.playerEaten(player) || this.playerFallen(player) ||
+            this.getPlayerArrows(player) == 0);
+  }
+
+  @Override
+  public int getPlayerArrows(int player) {
+    this.validatePlayerExists(player);
+    return this.playerArrows[player];
+  }
+
+  @Override
+  public boolean smellWumpus(int player) {
+    this.validatePlayerExists(player);
+    return (this.getConditions(player) & TurnOutcome.SMELL_WUMPUS) != 0;
+  }
+
+  @Override
+  public boolean feelDraft(int player) {
+    this.validatePlayerExists(player);
+    return (this.getConditions(player) & TurnOutcome.FEEL_DRAFT) != 0;
+  }
+
+  @Override
+  public boolean movedByBats(int player) {
+    this.validatePlayerExists(player);
+    return this.movedByBatsStatus[player];
+  }
+
+  @Override
+  public boolean playerOnBat(int player) {
+    this.validatePlayerExists(player);
+    return this.hasBats(this.playerLocations[player]);
+  }
+
+  private void conditionallyMovePlayerWithBat(int player) {
+    this.movedByBatsStatus[player] = false;
+
+    int location = this.playerLocations[player];
+    while (this.hasBats(location) && location != this.wumpus && !this.hasPit(location)) {
+      if (this.random.nextInt(100) < 50) {
+        this.movedByBatsStatus[player] = true;
+        location = this.getRandomCave();
+      } else {
+        break;
+      }
+    }
+    this.playerLocations[player] = location;
+  }
+
+  /**
+   * Move an object from a location through a number of caves, following hallways around corners.
+   * @param location the location the object starts in
+   * @param direction the direction the object starts moving in
+   * @param caves the number of caves to move through
+   * @param hallways the list to add each hallway passed through to, or null if none is needed
+   * @return the final location of the object, or the bitwise complement of the location where it
+   *         stopped if it ran into a wall first
+   */
+  protected int moveObject(int location, int direction, int caves, List<List<Integer>> hallways) {
+    while (caves > 0) {
+      int open = this.getOpenDoors(location);
+
+      if ((open & (1 << direction)) == 0) {
+        if (Integer.bitCount(open) != 2) {
+          return ~location;
+        }
+        direction = this.getHallwayDirection(location, direction);
+      }
+
+      location = this.grid.getNeighbor(location, direction);
+      if (!this.isHallway(location)) {
+        caves -= 1;
+      } else if (hallways != null) {
+        List<Integer> hallwayEntry = new ArrayList<>();
+        hallwayEntry.add(location);
+        int hallwayOpen = this.getOpenDoors(location);
+        for (int dir = 0; dir < 4; dir++) {
+          if ((hallwayOpen & (1 << dir)) != 0) {
+            hallwayEntry.add(dir);
+          }
+        }
+        hallways.add(hallwayEntry);
+      }
+    }
+    return location;
+  }
+
+  /**
+   * Get the direction a traveler leaves a location in, which is straight on if the door ahead is
+   * open and otherwise the highest open direction that does not lead back.
+   * @param location the location
+   * @param direction the direction the traveler entered the location in
+   * @return the direction the traveler leaves in
+   */
+  protected int getHallwayDirection(int location, int direction) {
+    int open = this.getOpenDoors(location);
+    if ((open & (1 << direction)) != 0) {
+      return direction;
+    }
+    int oppositeDirection = direction ^ 1;
+    for (int dir = 0; dir < 4; dir++) {
+      if ((open & (1 << dir)) != 0 && dir != oppositeDirection) {
+        direction = dir;
+      }
+    }
+    return direction;
+  }
+
+  private TurnOutcome createTurnOutcome(int player, List<List<Integer>> hallways) {
+    int location = this.playerLocations[player];
+    return new TurnOutcome(location, this.playerArrows[player], this.getOpenDoors(location),
+            this.getConditions(player), hallways);
+  }
+
+  private int getConditions(int player) {
+    int location = this.playerLocations[player];
+    int conditions = this.getPerceptions(location);
+    if (this.hasBats(location)) {
+      conditions |= TurnOutcome.ON_BAT;
+    }
+    if (location == this.wumpus) {
+      conditions |= TurnOutcome.EATEN;
+    }
+    if (this.hasPit(location)) {
+      conditions |= TurnOutcome.FALLEN;
+    }
+    if (this.movedByBatsStatus[player]) {
+      conditions |= TurnOutcome.MOVED_BY_BATS;
+    }
+    if (this.wumpusKilledStatus[player]) {
+      conditions |= TurnOutcome.WUMPUS_KILLED;
+    }
+    return conditions;
+  }
+
+  /**
+   * Get the open doors of a location.
+   * @param location the location
+   * @return the bit mask of open directions
+   */
+  protected abstract int getOpenDoors(int location);
+
+  /**
+   * Get whether a location has a pit.
+   * @param location the location
+   * @return true if the location has a pit, false otherwise
+   */
+  protected abstract boolean hasPit(int location);
+
+  /**
+   * Get whether a location has bats.
+   * @param location the location
+   * @return true if the location has bats, false otherwise
+   */
+  protected abstract boolean hasBats(int location);
+
+  /**
+   * Pick a random cave, for bats to drop a player in.
+   * @return the cave
+   */
+  protected abstract int getRandomCave();
+
+  /**
+   * Get the cave a player who starts in a hallway is moved to.
+   * @param row the row of the hallway
+   * @param col the column of the hallway
+   * @return the cave
+   */
+  protected abstract int getClosestCaveToLocation(int row, int col);
+
+  /**
+   * Get whether a player in a cave smells the wumpus or feels a draft, by following each open
+   * door to the next cave. A subclass that knows the answer already can look it up instead.
+   * @param location the cave
+   * @return the bit mask made of TurnOutcome.SMELL_WUMPUS and TurnOutcome.FEEL_DRAFT
+   */
+  protected int getPerceptions(int location) {
+    int open = this.getOpenDoors(location);
+    int perceptions = 0;
+    for (int direction = 0; direction < 4; direction++) {
+      if ((open & (1 << direction)) != 0) {
+        int neighbor = this.moveObject(location, direction, 1, null);
+        if (neighbor == this.wumpus) {
+          perceptions |= TurnOutcome.SMELL_WUMPUS;
+        }
+        if (neighbor >= 0 && this.hasPit(neighbor)) {
+          perceptions |= TurnOutcome.FEEL_DRAFT;
+        }
+      }
+    }
+    return perceptions;
+  }
+
+  /**
+   * Get whether a location is a hallway, which is a location with exactly two open doors.
+   * @param location the location
+   * @return true if the location is a hallway, false otherwise
+   */
+  protected boolean isHallway(int location) {
+    return Integer.bitCount(this.getOpenDoors(location)) == 2;
+  }
+
+  /**
+   * Check that a percentage is between 0 and 100.
+   * @param percent the percentage
+   * @param error the message of the exception thrown if it is not
+   * @throws IllegalArgumentException if the percentage is not valid
+   */
+  protected void validatePercentage(int percent, String error) {
+    if (percent < 0 || percent > 100) {
+      throw new IllegalArgumentException(error);
+    }
+  }
+
+  /**
+   * Fly an arrow from a cave through a number of caves. The state of the arrow is the cave it is
+   * in and the direction it is flying, and Brent's algorithm watches for a state coming back: the
+   * state of the flight at each power of two is kept, and once a later state matches it, the
+   * length of the loop is known and the trips around it are skipped. A subclass that keeps a table
+   * of arrow flights can look the flight up instead.
+   * @param location the cave the arrow starts in
+   * @param direction the direction the arrow starts flying in
+   * @param caves the number of caves the arrow flies through
+   * @return the cave the arrow lands in, or -1 if it hits a wall
+   */
+  protected int flyArrow(int location, int direction, int caves) {
+    long state = this.getArrowState(location, direction);
+    long saved = state;
+    int power = 1;
+    int loopLength = 0;
+    for (int cave = 0; cave < caves; cave++) {
+      state = this.getNextArrowState(state);
+      if (state < 0) {
+        return -1;
+      }
+      loopLength += 1;
+      if (state == saved) {
+        for (int left = (caves - cave - 1) % loopLength; left > 0; left--) {
+          state = this.getNextArrowState(state);
+        }
+        break;
+      }
+      if (loopLength == power) {
+        saved = state;
+        power *= 2;
+        loopLength = 0;
+      }
+    }
+    return (int) (state >>> 2);
+  }
+
+  /**
+   * Get the number of caves an arrow passes through when it flies through a number of caves,
+   * which is fewer if it hits a wall first or if the flight goes around a loop more than once,
+   * since a trace lists only the first trip around. The loop is found the same way as by
+   * flyArrow, and the flight before it by letting two arrows a loop apart fly from the start until
+   * they meet. Brent's algorithm can take up to three times as many caves as the flight up to the
+   * end of its first trip around the loop to notice it, so the arrow is followed that far before
+   * the flight is taken to be longer than the number of caves. A subclass that keeps a table of
+   * arrow flights can look the length up instead.
+   * @param location the cave the arrow starts in
+   * @param direction the direction the arrow starts flying in
+   * @param caves the number of caves the arrow flies through
+   * @return the number of caves in the trace of the flight
+   */
+  protected int getArrowFlightLength(int location, int direction, int caves) {
+    long start = this.getArrowState(location, direction);
+    long state = start;
+    long saved = start;
+    int power = 1;
+    int loopLength = 0;
+    for (long cave = 0; cave <= 3L * caves; cave++) {
+      state = this.getNextArrowState(state);
+      if (state < 0) {
+        return (int) Math.min(caves, cave);
+      }
+      loopLength += 1;
+      if (state == saved) {
+        long behind = start;
+        long ahead = start;
+        for (int i = 0; i < loopLength; i++) {
+          ahead = this.getNextArrowState(ahead);
+        }
+        long pathLength = 0;
+        while (behind != ahead) {
+          behind = this.getNextArrowState(behind);
+          ahead = this.getNextArrowState(ahead);
+          pathLength += 1;
+        }
+        return (int) Math.min(caves, pathLength + loopLength);
+      }
+      if (loopLength == power) {
+        saved = state;
+        power *= 2;
+        loopLength = 0;
+      }
+    }
+    return caves;
+  }
+
+  /**
+   * Get the state of an arrow once it has flown on to the next cave, or -1 if it hits a wall.
+   */
+  private long getNextArrowState(long state) {
+    int location = (int) (state >>> 2);
+    int direction = (int) state & 3;
+    if ((this.getOpenDoors(location) & (1 << direction)) == 0) {
+      return -1;
+    }
+    do {
+      direction = this.getHallwayDirection(location, direction);
+      location = this.grid.getNeighbor(location, direction);
+    } while (this.isHallway(location));
+    return this.getArrowState(location, direction);
+  }
+
+  private long getArrowState(int location, int direction) {
+    return location * 4L + direction;
+  }
+
+  private int getDirectionOfLocation(int location, int player) {
+    int start = this.playerLocations[player];
+    int open = this.getOpenDoors(start);
+    for (int direction = 0; direction < 4; direction++) {
+      if ((open & (1 << direction)) != 0
+              && this.moveObject(start, direction, 1, null) == location) {
+        return direction;
+      }
+    }
+    return -1;
+  }
+
+  private void validatePlayerExists(int player) {
+    if (player >= this.numPlayers) {
+      throw new IllegalStateException("this player does not exist");
+    }
+  }
+
+  private void validateDirectionToMove(int direction, int player) {
+    if (direction < 0 || direction > 3
+            || (this.getOpenDoors(this.playerLocations[player]) & (1 << direction)) == 0) {
+      throw new IllegalArgumentException("this is not a valid direction");
+    }
+  }
+}
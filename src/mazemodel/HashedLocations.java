@@ -0,0 +1,69 @@
+package mazemodel;
+
+import java.util.Arrays;
+
+/**
+ * A set of locations that is kept in a hash table of ints, so that it takes memory that depends
+ * only on the number of locations in it and not on the size of the maze, and a lookup usually
+ * reads a single slot. The table is at most half full and probes linearly from the slot a
+ * location hashes to.
+ */
+final class HashedLocations implements LocationSet {
+  private static final int EMPTY = -1;
+
+  private final int[] slots;
+  private final int shift;
+
+  /**
+   * Construct a HashedLocations object.
+   * @param locations the locations of the set, in any order and possibly more than once
+   */
+  HashedLocations(int[] locations) {
+    this(locations.length);
+    for (int location : locations) {
+      this.add(location);
+    }
+  }
+
+  /**
+   * Construct an empty HashedLocations object, to be filled in with add.
+   * @param maxSize the largest number of different locations that will be added
+   */
+  HashedLocations(int maxSize) {
+    int capacity = Integer.highestOneBit(Math.max(maxSize, 1) * 2 - 1) << 1;
+    this.slots = new int[capacity];
+    this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+    Arrays.fill(this.slots, EMPTY);
+  }
+
+  /**
+   * Add a location to the set.
+   * @param location the location to add
+   * @return true if the location was not in the set yet
+   */
+  boolean add(int location) {
+    int slot = this.findSlot(location);
+    if (this.slots[slot] == location) {
+      return false;
+    }
+    this.slots[slot] = location;
+    return true;
+  }
+
+  @Override
+  public boolean contains(int location) {
+    return this.slots[this.findSlot(location)] == location;
+  }
+
+  /**
+   * Get the slot that holds a location, or the empty slot where it would go.
+   */
+  private int findSlot(int location) {
+    int mask = this.slots.length - 1;
+    int slot = (location * 0x9E3779B9) >>> this.shift;
+    while (this.slots[slot] != EMPTY && this.slots[slot] != location) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+}
@@ -0,0 +1,20 @@
+package mazemodel;
+
+/**
+ * The ways a CompactMaze can place its pits and bats. EACH_CAVE draws a number for every cave, in
+ * the same order as a NonPerfectMaze, so both mazes hold the same hazards for the same seed.
+ * SKIP_SAMPLING draws, for each hazard, the number of caves to skip before the next one, so it
+ * only draws as many numbers as there are hazards, but it places them differently from a
+ * NonPerfectMaze. Both give each cave its hazard with the chance of the percentage, so the number
+ * of hazards varies from seed to seed.
+ *
+ * <p>EXACT_COUNT picks exactly the percentage of the caves, rounded, all of them equally likely,
+ * and keeps them in hash tables rather than bit sets over the whole maze. Placing the hazards
+ * and looking them up then take time and memory that grow with the number of hazards and not
+ * with the size of the maze, which suits huge mazes with few hazards.
+ */
+public enum HazardPlacement {
+  EACH_CAVE,
+  SKIP_SAMPLING,
+  EXACT_COUNT
+}
@@ -0,0 +1,81 @@
+package mazemodel;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * A maze generation engine based on a randomized version of Kruskal's algorithm. Doors are drawn
+ * in a random order and opened whenever they join two locations that are not yet connected. Once
+ * every location is connected, the doors that were skipped are opened until the requested number
+ * of walls remains.
+ *
+ * <p>Doors are drawn from the remaining doors with an indexed tree instead of being removed from a
+ * list, and connectivity is tracked with a {@link DisjointSet}, so generation runs in
+ * O(n log n) time. The order in which doors are drawn is the same as drawing
+ * {@code random.nextInt(remaining)} from a list of the remaining doors, so a seed always produces
+ * the same maze.
+ *
+ * <p>This is the default engine. It is fast, but keeps a few integers per location while it runs.
+ */
+public class KruskalGenerator implements MazeGenerator {
+
+  @Override
+  public BitSet generate(int numRows, int numCols, boolean wrapping, int numRemainingWalls,
+                         Random random) {
+    DoorGrid grid = new DoorGrid(numRows, numCols, wrapping);
+    int numDoors = grid.getNumDoors();
+    BitSet result = new BitSet(numDoors);
+    DisjointSet components = new DisjointSet(grid.getNumLocations());
+    int[] remaining = this.createRemainingDoors(numDoors);
+    int[] saved = new int[numDoors];
+    int numSaved = 0;
+
+    for (int numLeft = numDoors; numLeft > 0; numLeft--) {
+      int door = this.removeDoor(remaining, random.nextInt(numLeft));
+      if (components.union(grid.getLocationOne(door), grid.getLocationTwo(door))) {
+        result.set(door);
+      } else {
+        saved[numSaved] = door;
+        numSaved += 1;
+      }
+    }
+
+    int remainingWallsToRemove = numSaved - numRemainingWalls;
+    for (int i = 0; i < remainingWallsToRemove; i++) {
+      result.set(saved[i]);
+    }
+
+    return result;
+  }
+
+  /**
+   * Create a binary indexed tree that counts the doors which have not been drawn yet. Every door
+   * starts out remaining, so each node simply holds the size of the range it covers.
+   */
+  private int[] createRemainingDoors(int numDoors) {
+    int[] tree = new int[numDoors + 1];
+    for (int i = 1; i <= numDoors; i++) {
+      tree[i] = i & -i;
+    }
+    return tree;
+  }
+
+  /**
+   * Find the door at an index among the doors that have not been drawn yet and remove it.
+   */
+  private int removeDoor(int[] tree, int index) {
+    int position = 0;
+    for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+      int next = position + step;
+      if (next < tree.length && tree[next] <= index) {
+        position = next;
+        index -= tree[next];
+      }
+    }
+
+    for (int i = position + 1; i < tree.length; i += i & -i) {
+      tree[i] -= 1;
+    }
+    return position;
+  }
+}
@@ -0,0 +1,14 @@
+package mazemodel;
+
+/**
+ * A set of locations of a maze, such as the caves that hold a hazard.
+ */
+interface LocationSet {
+
+  /**
+   * Get whether a location is in the set.
+   * @param location the location
+   * @return true if the location is in the set, false otherwise
+   */
+  boolean contains(int location);
+}
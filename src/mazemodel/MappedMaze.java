@@ -0,0 +1,201 @@
+package mazemodel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class represents a maze that is played directly on a maze file written by
+ * MazeFileWriter. Each section of the file is mapped into memory read only, so opening even a
+ * maze of several gigabytes reads only its header, the operating system pages the layout in as
+ * it is used, and every process that opens the same file shares the same pages. Only the players
+ * and the random number generator of the game are kept on the heap.
+ *
+ * <p>A MappedMaze starts from the state the random number generator was in when the maze was
+ * written, so it plays the same game as a NonPerfectMaze built with the same parameters.
+ */
+public class MappedMaze extends GridMaze {
+  private final int numCaves;
+  private final ByteBuffer doors;
+  private final LongBuffer caves;
+  private final IntBuffer cavesBefore;
+  private final LongBuffer pits;
+  private final LongBuffer bats;
+  private final LongBuffer stench;
+  private final LongBuffer draft;
+
+  /**
+   * Construct a MappedMaze object.
+   * @param file the maze file
+   * @throws IOException if the file cannot be read or is not a maze file
+   */
+  public MappedMaze(Path file) throws IOException {
+    this(FileChannel.open(file, StandardOpenOption.READ));
+  }
+
+  private MappedMaze(FileChannel channel) throws IOException {
+    this(channel, readHeader(channel));
+  }
+
+  private MappedMaze(FileChannel channel, ByteBuffer header) throws IOException {
+    super(new DoorGrid(header.getInt(8), header.getInt(12), header.getInt(16) != 0),
+            createRandom(header.getLong(48)));
+    try {
+      this.numCaves = header.getInt(36);
+      this.wumpus = header.getInt(40);
+      long[] offsets = MazeFileWriter.getSectionOffsets(this.grid.getNumLocations());
+      if (channel.size() != offsets[MazeFileWriter.NUM_SECTIONS] || this.numCaves <= 0
+              || this.wumpus < 0 || this.wumpus >= this.grid.getNumLocations()) {
+        throw new IOException("maze file is damaged");
+      }
+
+      this.doors = this.map(channel, offsets, MazeFileWriter.DOORS);
+      this.caves = this.map(channel, offsets, MazeFileWriter.CAVES).asLongBuffer();
+      this.cavesBefore = this.map(channel, offsets, MazeFileWriter.CAVES_BEFORE).asIntBuffer();
+      this.pits = this.map(channel, offsets, MazeFileWriter.PITS).asLongBuffer();
+      this.bats = this.map(channel, offsets, MazeFileWriter.BATS).asLongBuffer();
+      this.stench = this.map(channel, offsets, MazeFileWriter.STENCH).asLongBuffer();
+      this.draft = this.map(channel, offsets, MazeFileWriter.DRAFT).asLongBuffer();
+    } finally {
+      channel.close();
+    }
+  }
+
+  @Override
+  protected int getOpenDoors(int location) {
+    return (this.doors.get(location >>> 1) >>> ((location & 1) << 2)) & 0xF;
+  }
+
+  @Override
+  protected boolean hasPit(int location) {
+    return this.isSet(this.pits, location);
+  }
+
+  @Override
+  protected boolean hasBats(int location) {
+    return this.isSet(this.bats, location);
+  }
+
+  @Override
+  protected int getPerceptions(int location) {
+    int perceptions = 0;
+    if (this.isSet(this.stench, location)) {
+      perceptions |= TurnOutcome.SMELL_WUMPUS;
+    }
+    if (this.isSet(this.draft, location)) {
+      perceptions |= TurnOutcome.FEEL_DRAFT;
+    }
+    return perceptions;
+  }
+
+  @Override
+  protected int getRandomCave() {
+    int rank = this.random.nextInt(this.numCaves);
+    int low = 0;
+    int high = this.caves.limit() - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (this.cavesBefore.get(middle) <= rank) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return (low << 6) + WordBits.select(this.caves.get(low), rank - this.cavesBefore.get(low));
+  }
+
+  /**
+   * Get the closest cave to a location by looking at the locations around it, square ring by
+   * square ring, until no location outside the ring can be closer. Distance and ties are settled
+   * the same way as by CaveLocator, without building its index on the heap.
+   */
+  @Override
+  protected int getClosestCaveToLocation(int row, int col) {
+    int numRows = this.grid.getNumRows();
+    int numCols = this.grid.getNumCols();
+    boolean wrapping = this.grid.isWrapping();
+    int minRowOffset = wrapping ? -((numRows - 1) / 2) : -row;
+    int maxRowOffset = wrapping ? numRows / 2 : numRows - 1 - row;
+    int minColOffset = wrapping ? -((numCols - 1) / 2) : -col;
+    int maxColOffset = wrapping ? numCols / 2 : numCols - 1 - col;
+    int maxRing = Math.max(Math.max(-minRowOffset, maxRowOffset),
+            Math.max(-minColOffset, maxColOffset));
+
+    long closestDistance = Long.MAX_VALUE;
+    int closest = -1;
+    for (int ring = 0; ring <= maxRing; ring++) {
+      for (int rowOffset = Math.max(-ring, minRowOffset);
+           rowOffset <= Math.min(ring, maxRowOffset); rowOffset++) {
+        boolean edgeRow = Math.abs(rowOffset) == ring;
+        for (int colOffset = Math.max(-ring, minColOffset);
+             colOffset <= Math.min(ring, maxColOffset); colOffset++) {
+          if (!edgeRow && Math.abs(colOffset) != ring) {
+            continue;
+          }
+          int location = (Math.floorMod(row + rowOffset, numRows) * numCols)
+                  + Math.floorMod(col + colOffset, numCols);
+          long distance = ((long) rowOffset * rowOffset) + ((long) colOffset * colOffset);
+          if (this.isSet(this.caves, location) && (distance < closestDistance
+                  || (distance == closestDistance && location < closest))) {
+            closestDistance = distance;
+            closest = location;
+          }
+        }
+      }
+
+      // every location outside this ring is at least one further away along one axis
+      long reach = ring + 1L;
+      if (closest >= 0 && closestDistance < reach * reach) {
+        break;
+      }
+    }
+    return closest;
+  }
+
+  private boolean isSet(LongBuffer bits, int location) {
+    return (bits.get(location >>> 6) & (1L << location)) != 0;
+  }
+
+  private ByteBuffer map(FileChannel channel, long[] offsets, int section) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, offsets[section],
+            offsets[section + 1] - offsets[section]);
+  }
+
+  /**
+   * Read and check the header of a maze file, closing the file if it is not a maze file.
+   */
+  private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+    try {
+      ByteBuffer header = ByteBuffer.allocate(MazeFileWriter.HEADER_SIZE);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          throw new IOException("not a maze file");
+        }
+      }
+      if (header.getInt(0) != MazeFileWriter.MAGIC) {
+        throw new IOException("not a maze file");
+      }
+      if (header.getInt(4) != MazeFileWriter.VERSION) {
+        throw new IOException("maze file was written by a different version");
+      }
+      if (header.getInt(8) <= 0 || header.getInt(12) <= 0
+              || (long) header.getInt(8) * header.getInt(12) > Integer.MAX_VALUE) {
+        throw new IOException("maze file is damaged");
+      }
+      return header;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static MazeRandom createRandom(long state) {
+    MazeRandom random = new MazeRandom(0);
+    random.setState(state);
+    return random;
+  }
+}
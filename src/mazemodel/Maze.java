@@ -128,4 +128,102 @@ public interface Maze {
    * @param player the player
    */
   void shootArrow(int direction, int caves, int player);
+
+  /**
+   * Get the location where an arrow shot by a player would land, without shooting it.
+   * @param direction the direction to shoot the arrow in
+   * @param caves the number of caves the arrow should travel through
+   * @param player the player
+   * @return the location where the arrow would land, or -1 if it would hit a wall first
+   */
+  int getArrowDestination(int direction, int caves, int player);
+
+  /**
+   * Get the locations, hallways included, that an arrow shot by a player would pass through,
+   * without shooting it. The last location is where the arrow lands or hits a wall. An arrow that
+   * would go around the same loop of caves more than once only has its first trip around the loop
+   * listed.
+   * @param direction the direction to shoot the arrow in
+   * @param caves the number of caves the arrow should travel through
+   * @param player the player
+   * @return the locations the arrow would pass through, in order
+   */
+  int[] traceArrow(int direction, int caves, int player);
+
+  /**
+   * Get a report of where a player currently stands.
+   * @param player the player
+   * @return the report for the player
+   */
+  TurnOutcome getTurnOutcome(int player);
+
+  /**
+   * Move a player in a certain direction and report where the player ends up.
+   * @param direction the direction to move the player in
+   * @param player the player
+   * @return the report for the player after the move
+   */
+  TurnOutcome takeMove(int direction, int player);
+
+  /**
+   * Move a player to an adjacent location and report where the player ends up.
+   * @param location the location to move the player to
+   * @param player the player
+   * @return the report for the player after the move
+   */
+  TurnOutcome takeMoveToLocation(int location, int player);
+
+  /**
+   * Make a player shoot an arrow through a specified number of caves in a certain direction and
+   * report where the player stands afterwards.
+   * @param direction the direction to shoot the arrow in
+   * @param caves the number of caves the arrow should travel through
+   * @param player the player
+   * @return the report for the player after the shot
+   */
+  TurnOutcome takeShot(int direction, int caves, int player);
+
+  /**
+   * Get the directions a player can move in as a bit mask, where bit 0 is North, bit 1 is South,
+   * bit 2 is East and bit 3 is West.
+   * @param player the player
+   * @return the bit mask of valid moves
+   */
+  int getValidMoveMask(int player);
+
+  /**
+   * Get the directions that lead out of a location as a bit mask, where bit 0 is North, bit 1 is
+   * South, bit 2 is East and bit 3 is West.
+   * @param location the location
+   * @return the bit mask of open directions
+   */
+  int getDoorMask(int location);
+
+  /**
+   * Get the conditions of a player as a bit mask made of the constants of TurnOutcome.
+   * @param player the player
+   * @return the bit mask of conditions
+   */
+  int getConditionMask(int player);
+
+  /**
+   * Get the number of hallway locations a player would pass moving in a certain direction, so
+   * that a buffer for movePlayer can be made big enough before the move.
+   * @param direction the direction the player would move in
+   * @param player the player
+   * @return the number of hallway locations the move would pass
+   */
+  int getHallwayLength(int direction, int player);
+
+  /**
+   * Move a player in a certain direction, writing the hallway locations passed on the way into a
+   * buffer. If the buffer is too short, only the first hallway locations are written, so a caller
+   * can compare the result with the length of the buffer to find out whether it was big enough.
+   * A move made this way leaves getHallwaysTraveled empty.
+   * @param direction the direction to move the player in
+   * @param player the player
+   * @param hallways the buffer to write hallway locations into, or null if they are not needed
+   * @return the number of hallway locations passed
+   */
+  int movePlayer(int direction, int player, int[] hallways);
 }
@@ -0,0 +1,136 @@
+package mazemodel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import mazeio.FileOutput;
+
+/**
+ * A writer of maze files, which hold a generated maze laid out so that a MappedMaze can play on
+ * the file where it lies instead of generating the maze again or reading it onto the heap.
+ *
+ * <p>The file starts with a header of 64 bytes: a magic number, the format version, the number of
+ * rows and columns, whether the maze wraps, the seed, the number of walls remaining, the
+ * percentages of pits and bats, the number of caves, the location of the wumpus and the state of
+ * the random number generator once the maze was built. The sections follow, each starting at a
+ * multiple of 8 bytes: the open doors of each location, four bits to a location, the cave bits and
+ * the number of caves before each of their words, and then the bits of the caves with pits, with
+ * bats, next to the wumpus and next to a pit. Bits are kept 64 locations to a long, row by row,
+ * and every number is big-endian.
+ */
+public final class MazeFileWriter {
+  static final int MAGIC = 0x4854574D;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 64;
+  static final int DOORS = 0;
+  static final int CAVES = 1;
+  static final int CAVES_BEFORE = 2;
+  static final int PITS = 3;
+  static final int BATS = 4;
+  static final int STENCH = 5;
+  static final int DRAFT = 6;
+  static final int NUM_SECTIONS = 7;
+
+  private final FileOutput output;
+
+  private MazeFileWriter(FileOutput output) {
+    this.output = output;
+  }
+
+  /**
+   * Generate a maze with Kruskal's algorithm and write it to a file, creating the file or
+   * replacing what is in it. The maze is the same as a NonPerfectMaze or a CompactMaze built with
+   * the same parameters.
+   * @param file the maze file
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param numWallsRemaining the number of walls that should remain erected in the maze
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path file, int numRows, int numCols, boolean wrapping, int seed,
+                           int numWallsRemaining, int pitPercent, int batPercent)
+          throws IOException {
+    CompactMaze maze = new CompactMaze(numRows, numCols, wrapping, seed, numWallsRemaining,
+            pitPercent, batPercent);
+    try (FileOutput output = new FileOutput(file)) {
+      MazeFileWriter writer = new MazeFileWriter(output);
+      output.reserve(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(numRows).putInt(numCols)
+              .putInt(wrapping ? 1 : 0).putInt(seed).putInt(numWallsRemaining)
+              .putInt(pitPercent).putInt(batPercent).putInt(maze.getNumCaves())
+              .putInt(maze.getWumpus()).putInt(0).putLong(maze.getRandomState()).putLong(0);
+
+      for (byte nibbles : maze.getDoorNibbles()) {
+        output.reserve(1).put(nibbles);
+      }
+      writer.pad();
+      long[] caves = maze.getCaveBits();
+      writer.writeLongs(caves);
+      for (int count : maze.getCavesBefore()) {
+        output.reserve(4).putInt(count);
+      }
+      writer.pad();
+      writer.writeLongs(toBits(caves, maze.getPits()));
+      writer.writeLongs(toBits(caves, maze.getBats()));
+      writer.writeLongs(toBits(caves, maze.getStench()));
+      writer.writeLongs(toBits(caves, maze.getDraft()));
+    }
+  }
+
+  /**
+   * Get the offsets of the sections of a maze file, followed by the size of the file.
+   * @param numLocations the number of locations in the maze
+   * @return the offset of each section and then the size of the file
+   */
+  static long[] getSectionOffsets(int numLocations) {
+    long numWords = (numLocations + 63L) >>> 6;
+    long[] sizes = new long[NUM_SECTIONS];
+    sizes[DOORS] = (numLocations + 1L) / 2;
+    sizes[CAVES] = numWords * 8;
+    sizes[CAVES_BEFORE] = numWords * 4;
+    for (int section = PITS; section < NUM_SECTIONS; section++) {
+      sizes[section] = numWords * 8;
+    }
+
+    long[] offsets = new long[NUM_SECTIONS + 1];
+    offsets[0] = HEADER_SIZE;
+    for (int section = 0; section < NUM_SECTIONS; section++) {
+      offsets[section + 1] = (offsets[section] + sizes[section] + 7) & ~7L;
+    }
+    return offsets;
+  }
+
+  /**
+   * Get the bits of the caves that are in a set of locations.
+   */
+  private static long[] toBits(long[] caves, LocationSet locations) {
+    long[] bits = new long[caves.length];
+    for (int word = 0; word < caves.length; word++) {
+      for (long cave = caves[word]; cave != 0; cave &= cave - 1) {
+        if (locations.contains((word << 6) + Long.numberOfTrailingZeros(cave))) {
+          bits[word] |= Long.lowestOneBit(cave);
+        }
+      }
+    }
+    return bits;
+  }
+
+  private void writeLongs(long[] values) throws IOException {
+    for (long value : values) {
+      this.output.reserve(8).putLong(value);
+    }
+  }
+
+  /**
+   * Write zeros up to the next multiple of 8 bytes.
+   */
+  private void pad() throws IOException {
+    while (this.output.getPosition() % 8 != 0) {
+      this.output.reserve(1).put((byte) 0);
+    }
+  }
+}
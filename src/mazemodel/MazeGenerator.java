@@ -0,0 +1,29 @@
+package mazemodel;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * An interface that represents a maze generation engine. An engine decides which doors of a
+ * rectangular maze should be opened so that every location is reachable from every other location,
+ * and so that exactly the requested number of walls remains.
+ *
+ * <p>Doors are identified by number. The East-West doors come first, row by row, followed by the
+ * North-South doors, column by column. In a wrapping maze these are followed by one door per row
+ * that joins its West-most and East-most locations, and then by one door per column that joins its
+ * North-most and South-most locations.
+ */
+public interface MazeGenerator {
+
+  /**
+   * Choose which doors of a maze should be opened.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param numRemainingWalls the number of walls that should remain erected in the maze
+   * @param random the random number generator to use
+   * @return the set of doors that should be opened
+   */
+  BitSet generate(int numRows, int numCols, boolean wrapping, int numRemainingWalls,
+                  Random random);
+}
@@ -1,38 +1,100 @@
 package mazemodel;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.Random;
+import java.util.Collections;
 
 /**
  * An abstract class that implements the Maze interface. This class abstracts common logic between
  * perfect and non-perfect mazes.
  */
 abstract class MazeImpl implements Maze {
-  private List<List<Location>> maze = new ArrayList<List<Location>>();
-  private List<Door> doors = new ArrayList<Door>();
-  private boolean wrapping;
-  private int numRemainingWalls;
-  private int pitPercent;
-  private int batPercent;
-  private List<Player> players;
-  private Random random;
-  private List<Boolean> wumpusKilledStatus;
-  private List<Boolean> movedByBatsStatus;
+  private final MazeLayout layout;
+  private final List<List<Location>> maze;
+  private final MazeTopology topology;
+  private final CaveGraph caveGraph;
+  private final PerceptionField perceptions;
+  private final int[] caves;
+  private final List<Player> players;
+  private final List<Boolean> wumpusKilledStatus;
+  private final List<Boolean> movedByBatsStatus;
+  private final MazeRandom random;
   private List<List<Integer>> hallwaysTraveled;
+  private CellHeatmap heatmap;
+  private TurnJournal journal;
 
   protected MazeImpl(int numRows, int numCols, boolean wrapping, int seed, int numRemainingWalls,
-                     int pitPercent, int batPercent) {
-    this.commonSetUp(numRows, numCols, wrapping, seed, true, numRemainingWalls,
-            pitPercent, batPercent);
+                     int pitPercent, int batPercent, MazeGenerator generator) {
+    this(new MazeLayout(numRows, numCols, wrapping, seed, true, numRemainingWalls,
+            pitPercent, batPercent, generator));
   }
 
   protected MazeImpl(int numRows, int numCols, boolean wrapping, int seed,
-                     int pitPercent, int batPercent) {
-    this.commonSetUp(numRows, numCols, wrapping, seed, false, -1,
-            pitPercent, batPercent);
-  }
+                     int pitPercent, int batPercent, MazeGenerator generator) {
+    this(new MazeLayout(numRows, numCols, wrapping, seed, false, -1,
+            pitPercent, batPercent, generator));
+  }
+
+  /**
+   * Start a game with no players on a maze that was already generated. The random number generator
+   * starts where it was left once the maze was generated, so the game goes the same way as on a
+   * maze generated again from the same seed.
+   * @param layout the generated maze
+   */
+  MazeImpl(MazeLayout layout) {
+    this.layout = layout;
+    this.maze = layout.getLocations();
+    this.topology = layout.getTopology();
+    this.caveGraph = layout.getCaveGraph();
+    this.perceptions = layout.getPerceptions();
+    this.caves = layout.getCaves();
+    this.players = new ArrayList<>();
+    this.wumpusKilledStatus = new ArrayList<>();
+    this.movedByBatsStatus = new ArrayList<>();
+    this.hallwaysTraveled = new ArrayList<>();
+    this.random = new MazeRandom(0);
+    this.random.setState(layout.getRandomState());
+  }
+
+  /**
+   * Copy a game, sharing the maze it is played on and copying the players and their status.
+   * @param source the game to copy
+   */
+  protected MazeImpl(MazeImpl source) {
+    this.layout = source.layout;
+    this.maze = source.maze;
+    this.topology = source.topology;
+    this.caveGraph = source.caveGraph;
+    this.perceptions = source.perceptions;
+    this.caves = source.caves;
+    this.players = new ArrayList<>(source.players.size());
+    for (Player player : source.players) {
+      Player copy = new MazePlayer(player.getLocation());
+      copy.addArrows(player.getArrows());
+      this.players.add(copy);
+    }
+    this.wumpusKilledStatus = new ArrayList<>(source.wumpusKilledStatus);
+    this.movedByBatsStatus = new ArrayList<>(source.movedByBatsStatus);
+    this.hallwaysTraveled = source.hallwaysTraveled;
+    this.random = new MazeRandom(0);
+    this.random.setState(source.random.getState());
+  }
+
+  /**
+   * Fork the game into a new game that goes on from where this one is, so that moves can be tried
+   * on the fork without changing this game. The fork shares the maze, which never changes, and
+   * copies only the players, their status and the state of the random number generator, so
+   * forking takes time in proportion to the number of players. The fork draws the same random
+   * numbers as this game would, so the same moves lead to the same outcomes on both.
+   *
+   * <p>A fork does not count in the heatmap of this game and keeps no journal of turns. Forks of
+   * the same game can be played on different threads at once, as long as each fork is played by
+   * one thread at a time.
+   * @return the fork of the game
+   */
+  public abstract Maze fork();
 
   @Override
   public void addPlayer(int row, int col, int arrows) {
@@ -41,18 +103,95 @@ abstract class MazeImpl implements Maze {
 
     // if a player is initialized in a hallway, then set the player's initial location to the
     // closest cave
-    if (this.maze.get(row).get(col).isHallway()) {
-      List<Integer> startLocation = this.getClosestCaveToLocation(row, col);
-      row = startLocation.get(0);
-      col = startLocation.get(1);
+    int location = (row * this.topology.getNumCols()) + col;
+    if (this.topology.isHallway(location)) {
+      location = this.getClosestCaveToLocation(row, col);
     }
 
-    Player player = new MazePlayer(this.maze.get(row).get(col));
+    Player player = new MazePlayer(this.getLocationAt(location));
     player.addArrows(arrows);
     this.players.add(player);
+    if (this.journal != null) {
+      this.journal.clear();
+    }
     this.wumpusKilledStatus.add(false);
     this.movedByBatsStatus.add(false);
+    if (this.heatmap != null) {
+      this.heatmap.record(CellEvent.VISIT, location);
+    }
     this.conditionallyMovePlayerWithBat(player);
+    if (this.heatmap != null) {
+      this.recordDeath(player);
+    }
+  }
+
+  /**
+   * Count what happens to the players of this maze in a heatmap from now on: the cells they pass
+   * through, the cells where bats pick them up, the cells where they die and the cells where their
+   * arrows come down. The heatmap may be shared with other mazes of the same size, including mazes
+   * played on other threads.
+   * @param heatmap the heatmap to count in, or null to stop counting
+   * @throws IllegalArgumentException if the heatmap is not the size of the maze
+   */
+  public void setHeatmap(CellHeatmap heatmap) {
+    if (heatmap != null && (heatmap.getNumRows() != this.topology.getNumRows()
+            || heatmap.getNumCols() != this.topology.getNumCols())) {
+      throw new IllegalArgumentException("heatmap does not fit the maze");
+    }
+    this.heatmap = heatmap;
+  }
+
+  /**
+   * Save the game to a snapshot file, from which NonPerfectMaze.load can go on with the game. The
+   * snapshot holds the maze, the players and their status, and the state of the random number
+   * generator, but not the heatmap or the journal of turns.
+   * @param file the snapshot file, which is created or replaced
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path file) throws IOException {
+    MazeSnapshot.write(this, file);
+  }
+
+  /**
+   * Keep a journal of the turns taken from now on, so that they can be undone and redone. Only the
+   * given number of the latest turns are kept. Adding a player drops every turn in the journal.
+   * @param turns the largest number of turns that can be undone, or 0 to stop keeping the journal
+   * @throws IllegalArgumentException if the number of turns is negative
+   */
+  public void setUndoLimit(int turns) {
+    if (turns < 0) {
+      throw new IllegalArgumentException("number of turns to undo cannot be negative");
+    }
+    this.journal = turns > 0 ? new TurnJournal(turns) : null;
+  }
+
+  /**
+   * Undo the last turn that was taken and not undone, putting its player back where they were
+   * with the arrows and status they had, and the random number generator back where it was. The
+   * heatmap is not changed.
+   * @return true if a turn was undone, false if there was no turn to undo
+   */
+  public boolean undo() {
+    int slot = this.journal == null ? -1 : this.journal.undo();
+    if (slot < 0) {
+      return false;
+    }
+    this.restoreTurn(slot, TurnJournal.BEFORE);
+    return true;
+  }
+
+  /**
+   * Take again the first turn that was undone and not taken again, as long as no other turn was
+   * taken since it was undone.
+   * @return true if a turn was redone, false if there was no turn to redo
+   */
+  public boolean redo() {
+    int slot = this.journal == null ? -1 : this.journal.redo();
+    if (slot < 0) {
+      return false;
+    }
+    this.restoreTurn(slot, TurnJournal.AFTER);
+    return true;
   }
 
   @Override
@@ -66,10 +205,12 @@ abstract class MazeImpl implements Maze {
     this.validatePlayerExists(player);
 
     List<Integer> result = new ArrayList<Integer>();
-    Location playerLocation = this.players.get(player).getLocation();
+    int open = this.topology.getOpenDirections(this.getPlayerLocation(player));
 
-    for (Map.Entry<Integer, Location> entry : playerLocation.getAdjacentLocations().entrySet()) {
-      result.add(entry.getKey());
+    for (int direction = 0; direction < 4; direction++) {
+      if ((open & (1 << direction)) != 0) {
+        result.add(direction);
+      }
     }
 
     return result;
@@ -80,8 +221,21 @@ abstract class MazeImpl implements Maze {
     this.validatePlayerExists(player);
     this.validateDirectionToMove(direction, player);
     this.hallwaysTraveled = new ArrayList<>();
-    this.moveObject(this.players.get(player), direction, 1, this.hallwaysTraveled);
-    this.conditionallyMovePlayerWithBat(this.players.get(player));
+    Player mazePlayer = this.players.get(player);
+    if (this.journal != null) {
+      this.startTurn(player);
+    }
+    if (this.heatmap != null) {
+      this.recordMove(mazePlayer.getLocation().getLocation(), direction);
+    }
+    this.moveObject(mazePlayer, direction, 1, this.hallwaysTraveled);
+    this.conditionallyMovePlayerWithBat(mazePlayer);
+    if (this.heatmap != null) {
+      this.recordDeath(mazePlayer);
+    }
+    if (this.journal != null) {
+      this.endTurn(player);
+    }
   }
 
   @Override
@@ -104,12 +258,144 @@ abstract class MazeImpl implements Maze {
     this.validatePlayerExists(player);
     this.validateDirectionToMove(direction, player);
     this.validateCaves(caves);
+    if (this.journal != null) {
+      this.startTurn(player);
+    }
     this.players.get(player).removeArrows(1);
-    Arrow arrow = new MazeArrow(this.players.get(player).getLocation());
-    boolean completed = this.moveObject(arrow, direction, caves, new ArrayList<>());
-    if (completed && arrow.getLocation().hasWumpus()) {
+    int state = this.layout.getArrowFlights().fly(this.getArrowState(direction, player), caves);
+    if (state >= 0 && this.getLocationAt(this.getArrowCave(state)).hasWumpus()) {
       this.wumpusKilledStatus.set(player, true);
     }
+    if (this.heatmap != null) {
+      this.heatmap.record(CellEvent.ARROW_LANDING, this.getArrowCave(state < 0 ? ~state : state));
+    }
+    if (this.journal != null) {
+      this.endTurn(player);
+    }
+  }
+
+  @Override
+  public int getArrowDestination(int direction, int caves, int player) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    this.validateCaves(caves);
+    int state = this.layout.getArrowFlights().fly(this.getArrowState(direction, player), caves);
+    return state < 0 ? -1 : this.getArrowCave(state);
+  }
+
+  @Override
+  public int[] traceArrow(int direction, int caves, int player) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    this.validateCaves(caves);
+    int start = this.getArrowState(direction, player);
+    int[] states = this.layout.getArrowFlights().trace(start, caves);
+
+    int length = states.length;
+    int previous = start;
+    for (int state : states) {
+      length += this.caveGraph.getHallwayLength(this.getArrowCave(previous), previous & 3);
+      previous = state;
+    }
+
+    int[] result = new int[length];
+    int next = 0;
+    previous = start;
+    for (int state : states) {
+      int cave = this.getArrowCave(previous);
+      int hallwayLength = this.caveGraph.getHallwayLength(cave, previous & 3);
+      for (int i = 0; i < hallwayLength; i++) {
+        result[next] = this.caveGraph.getHallway(cave, previous & 3, i);
+        next += 1;
+      }
+      result[next] = this.getArrowCave(state);
+      next += 1;
+      previous = state;
+    }
+    return result;
+  }
+
+  @Override
+  public TurnOutcome getTurnOutcome(int player) {
+    this.validatePlayerExists(player);
+    return this.createTurnOutcome(player, new ArrayList<>());
+  }
+
+  @Override
+  public TurnOutcome takeMove(int direction, int player) {
+    this.movePlayerInDirection(direction, player);
+    return this.createTurnOutcome(player, this.hallwaysTraveled);
+  }
+
+  @Override
+  public TurnOutcome takeMoveToLocation(int location, int player) {
+    this.movePlayerToLocation(location, player);
+    return this.createTurnOutcome(player, this.hallwaysTraveled);
+  }
+
+  @Override
+  public TurnOutcome takeShot(int direction, int caves, int player) {
+    this.shootArrow(direction, caves, player);
+    return this.createTurnOutcome(player, new ArrayList<>());
+  }
+
+  @Override
+  public int getValidMoveMask(int player) {
+    this.validatePlayerExists(player);
+    return this.topology.getOpenDirections(this.getPlayerLocation(player));
+  }
+
+  @Override
+  public int getDoorMask(int location) {
+    this.validateLocation(location);
+    return this.topology.getOpenDirections(location);
+  }
+
+  @Override
+  public int getConditionMask(int player) {
+    this.validatePlayerExists(player);
+    return this.getConditions(player);
+  }
+
+  @Override
+  public int getHallwayLength(int direction, int player) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    int location = this.players.get(player).getLocation().getLocation();
+    return this.caveGraph.getHallwayLength(location, direction);
+  }
+
+  @Override
+  public int movePlayer(int direction, int player, int[] hallways) {
+    this.validatePlayerExists(player);
+    this.validateDirectionToMove(direction, player);
+    Player mazePlayer = this.players.get(player);
+    int location = mazePlayer.getLocation().getLocation();
+
+    int length = this.caveGraph.getHallwayLength(location, direction);
+    if (hallways != null) {
+      for (int i = 0; i < Math.min(length, hallways.length); i++) {
+        hallways[i] = this.caveGraph.getHallway(location, direction, i);
+      }
+    }
+
+    if (this.journal != null) {
+      this.startTurn(player);
+    }
+    if (this.heatmap != null) {
+      this.recordMove(location, direction);
+    }
+    int destination = this.walk(location, direction, 1, null);
+    mazePlayer.setLocation(this.getLocationAt(destination < 0 ? ~destination : destination));
+    this.hallwaysTraveled = Collections.emptyList();
+    this.conditionallyMovePlayerWithBat(mazePlayer);
+    if (this.heatmap != null) {
+      this.recordDeath(mazePlayer);
+    }
+    if (this.journal != null) {
+      this.endTurn(player);
+    }
+    return length;
   }
 
   @Override
@@ -146,27 +432,15 @@ abstract class MazeImpl implements Maze {
   @Override
   public boolean smellWumpus(int player) {
     this.validatePlayerExists(player);
-
-    for (Location adj : this.getAdjacentLocations(player)) {
-      if (adj.hasWumpus()) {
-        return true;
-      }
-    }
-
-    return false;
+    return (this.perceptions.getPerceptions(this.getPlayerLocation(player))
+            & PerceptionField.STENCH) != 0;
   }
 
   @Override
   public boolean feelDraft(int player) {
     this.validatePlayerExists(player);
-
-    for (Location adj : this.getAdjacentLocations(player)) {
-      if (adj.hasPit()) {
-        return true;
-      }
-    }
-
-    return false;
+    return (this.perceptions.getPerceptions(this.getPlayerLocation(player))
+            & PerceptionField.DRAFT) != 0;
   }
 
   @Override
@@ -178,7 +452,8 @@ abstract class MazeImpl implements Maze {
   @Override
   public boolean playerOnBat(int player) {
     this.validatePlayerExists(player);
-    return this.players.get(player).getLocation().hasBat();
+    return (this.perceptions.getPerceptions(this.getPlayerLocation(player))
+            & PerceptionField.BAT) != 0;
   }
 
   private void conditionallyMovePlayerWithBat(Player player) {
@@ -194,316 +469,204 @@ abstract class MazeImpl implements Maze {
       int move = this.getRandomNumber(100);
       if (move < 50) {
         this.movedByBatsStatus.set(playerIndex, true);
-        List<List<Integer>> caves = this.getNonHallwayLocations();
-        List<Integer> rowCol = caves.get(this.getRandomNumber(caves.size()));
-        player.setLocation(this.maze.get(rowCol.get(0)).get(rowCol.get(1)));
-      } else {
-        break;
-      }
-    }
-  }
-
-  private boolean moveObject(ObjectWithLocation obj, int direction, int caves,
-                             List<List<Integer>> hallways) {
-    while (caves > 0) {
-      Location next = null;
-
-      if (obj.getLocation().getAdjacentLocations().containsKey(direction)) {
-        next = obj.getLocation().getAdjacentLocations().get(direction);
-      } else {
-
-        if (obj.getLocation().isHallway()) {
-          int oppositeDirection = this.getOppositeDirection(direction);
-          Map<Integer, Location> adj = obj.getLocation().getAdjacentLocations();
-          for (Map.Entry<Integer, Location> entry : adj.entrySet()) {
-            if (entry.getKey() != oppositeDirection) {
-              next = entry.getValue();
-              direction = entry.getKey();
-            }
-          }
-
-        } else {
-          return false;
+        int cave = this.caves[this.getRandomNumber(this.caves.length)];
+        if (this.heatmap != null) {
+          this.heatmap.record(CellEvent.BAT_GRAB, player.getLocation().getLocation());
+          this.heatmap.record(CellEvent.VISIT, cave);
         }
-
-      }
-
-      if (!next.isHallway()) {
-        caves -= 1;
+        player.setLocation(this.getLocationAt(cave));
       } else {
-        List<Integer> hallwayEntry = new ArrayList<>();
-        hallwayEntry.add(next.getLocation());
-        for (Map.Entry<Integer, Location> entry : next.getAdjacentLocations().entrySet()) {
-          hallwayEntry.add(entry.getKey());
-        }
-        hallways.add(hallwayEntry);
+        break;
       }
-      obj.setLocation(next);
     }
-    return true;
   }
 
-  private int getOppositeDirection(int direction) {
-    if (direction == 0) {
-      return 1;
-    }
-    if (direction == 1) {
-      return 0;
-    }
-    if (direction == 2) {
-      return 3;
+  /**
+   * Count the hallways passed and the cave reached by a move out of a cave in the heatmap.
+   */
+  private void recordMove(int location, int direction) {
+    int destination = this.caveGraph.getDestination(location, direction);
+    if (destination < 0) {
+      return;
     }
-    if (direction == 3) {
-      return 2;
+    int length = this.caveGraph.getHallwayLength(location, direction);
+    for (int i = 0; i < length; i++) {
+      this.heatmap.record(CellEvent.VISIT, this.caveGraph.getHallway(location, direction, i));
     }
-    return -1;
+    this.heatmap.record(CellEvent.VISIT, destination);
   }
 
-  private void commonSetUp(int numRows, int numCols, boolean wrapping, int seed,
-                           boolean shouldHaveNRWValue, int numRemainingWalls,
-                           int pitPercent, int batPercent) {
-    if (numRows <= 0) {
-      throw new IllegalArgumentException("number of rows must be positive");
-    }
-    if (numCols <= 0) {
-      throw new IllegalArgumentException("number of columns must be positive");
+  private void recordDeath(Player player) {
+    Location location = player.getLocation();
+    if (location.hasWumpus() || location.hasPit()) {
+      this.heatmap.record(CellEvent.DEATH, location.getLocation());
     }
-
-    this.validatePercentage(pitPercent, "percentage of pits is not valid");
-    this.validatePercentage(batPercent, "percentage of bats is not valid");
-
-    this.pitPercent = pitPercent;
-    this.batPercent = batPercent;
-    this.wrapping = wrapping;
-    this.players = new ArrayList<>();
-    this.wumpusKilledStatus = new ArrayList<>();
-    this.movedByBatsStatus = new ArrayList<>();
-    this.hallwaysTraveled = new ArrayList<>();
-
-    if (seed >= 0) {
-      this.random = new Random(seed);
-    } else {
-      this.random = new Random();
-    }
-
-    this.constructMaze(numRows, numCols);
-
-    this.addDoors(this.doors);
-
-    if (!shouldHaveNRWValue) {
-      numRemainingWalls = this.doors.size() - (numRows * numCols) + 1;
-    }
-    this.validateNumRemainingWalls(numRemainingWalls, numRows, numCols);
-    this.numRemainingWalls = numRemainingWalls;
-
-    this.buildMazePaths();
-
-    this.setWumpus();
-    this.setPits();
-    this.setBats();
   }
 
-  private void setWumpus() {
-    List<List<Integer>> caves = this.getNonHallwayLocations();
-    List<Integer> rowCol = caves.get(this.getRandomNumber(caves.size()));
-    this.maze.get(rowCol.get(0)).get(rowCol.get(1)).setWumpus();
+  MazeLayout getLayout() {
+    return this.layout;
   }
 
-  private void setPits() {
-    List<List<Integer>> caves = this.getNonHallwayLocations();
-    for (List<Integer> rowCol : caves) {
-      int pit = this.getRandomNumber(100);
-      if (pit < this.pitPercent) {
-        this.maze.get(rowCol.get(0)).get(rowCol.get(1)).setPit();
-      }
-    }
+  int getNumPlayers() {
+    return this.players.size();
   }
 
-  private void setBats() {
-    List<List<Integer>> caves = this.getNonHallwayLocations();
-    for (List<Integer> rowCol : caves) {
-      int bat = this.getRandomNumber(100);
-      if (bat < this.batPercent) {
-        this.maze.get(rowCol.get(0)).get(rowCol.get(1)).setBat();
-      }
-    }
+  long getRandomState() {
+    return this.random.getState();
   }
 
-  private List<List<Integer>> getNonHallwayLocations() {
-    List<List<Integer>> result = new ArrayList<List<Integer>>();
-
-    for (int i = 0; i < this.maze.size(); i++) {
-      for (int j = 0; j < this.maze.get(i).size(); j++) {
-        if (!this.maze.get(i).get(j).isHallway()) {
-          List<Integer> rowCol = new ArrayList<Integer>();
-          rowCol.add(i);
-          rowCol.add(j);
-          result.add(rowCol);
-        }
-      }
+  /**
+   * Put a player back into the game as it was saved, without moving the player with bats.
+   */
+  void restorePlayer(int location, int arrows, boolean wumpusKilled, boolean movedByBats) {
+    Player player = new MazePlayer(this.getLocationAt(location));
+    player.addArrows(arrows);
+    this.players.add(player);
+    this.wumpusKilledStatus.add(wumpusKilled);
+    this.movedByBatsStatus.add(movedByBats);
+  }
+
+  private void startTurn(int player) {
+    Player mazePlayer = this.players.get(player);
+    this.journal.startTurn(player, mazePlayer.getLocation().getLocation(), mazePlayer.getArrows(),
+            this.getStatus(player), this.random.getState());
+  }
+
+  private void endTurn(int player) {
+    Player mazePlayer = this.players.get(player);
+    this.journal.endTurn(mazePlayer.getLocation().getLocation(), mazePlayer.getArrows(),
+            this.getStatus(player), this.random.getState());
+  }
+
+  /**
+   * Get the status flags of a player as kept in the journal: whether the player killed the wumpus
+   * and whether bats moved the player.
+   */
+  private int getStatus(int player) {
+    return (this.wumpusKilledStatus.get(player) ? 1 : 0)
+            | (this.movedByBatsStatus.get(player) ? 2 : 0);
+  }
+
+  /**
+   * Put the player of a turn in the journal, and the random number generator, back into the
+   * state they were in before or after the turn.
+   */
+  private void restoreTurn(int slot, int side) {
+    int player = this.journal.getPlayer(slot);
+    Player mazePlayer = this.players.get(player);
+    mazePlayer.setLocation(this.getLocationAt(this.journal.getLocation(slot, side)));
+    int arrows = this.journal.getArrows(slot, side);
+    if (arrows > mazePlayer.getArrows()) {
+      mazePlayer.addArrows(arrows - mazePlayer.getArrows());
+    } else {
+      mazePlayer.removeArrows(mazePlayer.getArrows() - arrows);
     }
-
-    return result;
+    int status = this.journal.getStatus(slot, side);
+    this.wumpusKilledStatus.set(player, (status & 1) != 0);
+    this.movedByBatsStatus.set(player, (status & 2) != 0);
+    this.random.setState(this.journal.getRandomState(slot, side));
+    this.hallwaysTraveled = Collections.emptyList();
   }
 
-  private void constructMaze(int numRows, int numCols) {
-    for (int row = 0; row < numRows; row++) {
-      this.maze.add(new ArrayList<Location>());
-      for (int col = 0; col < numCols; col++) {
-        Location location = new MazeLocation(row, col, numCols);
-        this.maze.get(row).add(location);
-      }
+  private boolean moveObject(ObjectWithLocation obj, int direction, int caves,
+                             List<List<Integer>> hallways) {
+    int destination = this.walk(obj.getLocation().getLocation(), direction, caves, hallways);
+    if (destination < 0) {
+      obj.setLocation(this.getLocationAt(~destination));
+      return false;
     }
+    obj.setLocation(this.getLocationAt(destination));
+    return true;
   }
 
-  private void buildMazePaths() {
-    List<Door> saved = new ArrayList<Door>();
-    List<Integer> connectedComponents = this.createConnectedComponents();
-
-    int numDoors = this.doors.size();
-    while (numDoors > 0) {
-      Door door = this.doors.remove(this.getRandomNumber(numDoors));
-      numDoors -= 1;
-      Location location1 = door.getLocationOne();
-      Location location2 = door.getLocationTwo();
-      int component1 = this.getComponentForLocation(connectedComponents, location1.getLocation());
-      int component2 = this.getComponentForLocation(connectedComponents, location2.getLocation());
-      if (component1 > component2) {
-        this.setComponentForLocation(connectedComponents, component2, component1);
-        door.openDoor();
-      } else if (component2 > component1) {
-        this.setComponentForLocation(connectedComponents, component1, component2);
-        door.openDoor();
-      } else {
-        saved.add(door);
+  /**
+   * Walk from a cave through a number of caves, following hallways around corners. Returns the
+   * final cave, or the bitwise complement of the cave where the walk stopped if it ran into a wall
+   * first.
+   */
+  private int walk(int location, int direction, int caves, List<List<Integer>> hallways) {
+    while (caves > 0) {
+      int destination = this.caveGraph.getDestination(location, direction);
+      if (destination < 0) {
+        return ~location;
       }
-    }
 
-    int remainingWallsToRemove = saved.size() - this.numRemainingWalls;
-    for (int i = 0; i < remainingWallsToRemove; i++) {
-      saved.get(i).openDoor();
-    }
-  }
-
-  private int getRandomNumber(int upperBound) {
-    return this.random.nextInt(upperBound);
-  }
+      if (hallways != null) {
+        int length = this.caveGraph.getHallwayLength(location, direction);
+        for (int i = 0; i < length; i++) {
+          hallways.add(this.getHallwayEntry(this.caveGraph.getHallway(location, direction, i)));
+        }
+      }
 
-  private int getComponentForLocation(List<Integer> connectedComponents, int location) {
-    while (location != connectedComponents.get(location)) {
-      location = connectedComponents.get(location);
+      direction = this.caveGraph.getExitDirection(location, direction);
+      location = destination;
+      caves -= 1;
     }
     return location;
   }
 
-  private void setComponentForLocation(List<Integer> connectedComponents, int location,
-                                       int newComponent) {
-    connectedComponents.set(location, newComponent);
+  private TurnOutcome createTurnOutcome(int player, List<List<Integer>> hallways) {
+    Player mazePlayer = this.players.get(player);
+    int location = mazePlayer.getLocation().getLocation();
+    return new TurnOutcome(location, mazePlayer.getArrows(),
+            this.topology.getOpenDirections(location), this.getConditions(player), hallways);
   }
 
-  private List<Integer> createConnectedComponents() {
-    List<Integer> connectedComponents = new ArrayList<Integer>();
-    Integer numRows = this.maze.size();
-    Integer numCols = this.maze.get(0).size();
+  private int getConditions(int player) {
+    int location = this.players.get(player).getLocation().getLocation();
 
-    for (int i = 0; i < (numRows * numCols); i++) {
-      connectedComponents.add(i);
+    // the perception bits line up with the first three conditions, and the wumpus and pit hazard
+    // bits line up with the next two once shifted
+    int conditions = this.perceptions.getPerceptions(location)
+            | ((this.perceptions.getHazards(location)
+            & (PerceptionField.WUMPUS | PerceptionField.PIT)) << 3);
+    if (this.movedByBatsStatus.get(player)) {
+      conditions |= TurnOutcome.MOVED_BY_BATS;
     }
-
-    return connectedComponents;
+    if (this.wumpusKilledStatus.get(player)) {
+      conditions |= TurnOutcome.WUMPUS_KILLED;
+    }
+    return conditions;
   }
 
-  private void addDoors(List<Door> doors) {
-    this.addEastWestDoors(doors);
-    this.addNorthSouthDoors(doors);
-    if (this.wrapping) {
-      this.addWrappingDoors(doors);
-    }
+  private int getArrowState(int direction, int player) {
+    return (this.layout.getCaveRank(this.getPlayerLocation(player)) << 2) + direction;
   }
 
-  private void addEastWestDoors(List<Door> doors) {
-    for (int row = 0; row < this.maze.size(); row++) {
-      List<Location> currRow = this.maze.get(row);
-      for (int col = 0; col < currRow.size() - 1; col++) {
-        Location westLocation = currRow.get(col);
-        Location eastLocation =  currRow.get(col + 1);
-        Door door = new MazeDoor(westLocation, eastLocation);
-        westLocation.setDoor(2, door);
-        eastLocation.setDoor(3, door);
-        doors.add(door);
-      }
-    }
+  private int getArrowCave(int state) {
+    return this.layout.getCaves()[state >> 2];
   }
 
-  private void addNorthSouthDoors(List<Door> doors) {
-    for (int col = 0; col < this.maze.get(0).size(); col++) {
-      for (int row = 0; row < this.maze.size() - 1; row++) {
-        Location northLocation = this.maze.get(row).get(col);
-        Location southLocation = this.maze.get(row + 1).get(col);
-        Door door = new MazeDoor(northLocation, southLocation);
-        northLocation.setDoor(1, door);
-        southLocation.setDoor(0, door);
-        doors.add(door);
+  private List<Integer> getHallwayEntry(int location) {
+    List<Integer> hallwayEntry = new ArrayList<>();
+    hallwayEntry.add(location);
+    int open = this.topology.getOpenDirections(location);
+    for (int direction = 0; direction < 4; direction++) {
+      if ((open & (1 << direction)) != 0) {
+        hallwayEntry.add(direction);
       }
     }
+    return hallwayEntry;
   }
 
-  private void addWrappingDoors(List<Door> doors) {
-    for (int row = 0; row < this.maze.size(); row++) {
-      List<Location> currRow = this.maze.get(row);
-      Location westMostLocation = currRow.get(0);
-      Location eastMostLocation = currRow.get(currRow.size() - 1);
-      Door door = new MazeDoor(westMostLocation, eastMostLocation);
-      westMostLocation.setDoor(3, door);
-      eastMostLocation.setDoor(2, door);
-      doors.add(door);
-    }
-
-    for (int col = 0; col < this.maze.get(0).size(); col++) {
-      Location northMostLocation = this.maze.get(0).get(col);
-      Location southMostLocation = this.maze.get(this.maze.size() - 1).get(col);
-      Door door = new MazeDoor(northMostLocation, southMostLocation);
-      northMostLocation.setDoor(0, door);
-      southMostLocation.setDoor(1, door);
-      doors.add(door);
-    }
+  private Location getLocationAt(int location) {
+    return this.maze.get(location / this.topology.getNumCols())
+            .get(location % this.topology.getNumCols());
   }
 
-  private List<Location> getAdjacentLocations(int player) {
-    List<Location> result = new ArrayList<>();
-    for (int dir : this.getValidPlayerMoves(player)) {
-      Arrow sensor = new MazeArrow(this.players.get(player).getLocation());
-      this.moveObject(sensor, dir, 1, new ArrayList<>());
-      result.add(sensor.getLocation());
-    }
-    return result;
+  private int getRandomNumber(int upperBound) {
+    return this.random.nextInt(upperBound);
   }
 
-  private List<Integer> getClosestCaveToLocation(int row, int col) {
-    double closestDistance = Double.POSITIVE_INFINITY;
-    List<Integer> closest = new ArrayList<>();
-    for (List<Integer> rowCol : this.getNonHallwayLocations()) {
-      int currRow = rowCol.get(0);
-      int currCol = rowCol.get(1);
-      double dist = Math.sqrt((currRow - row) * (currRow - row) + (currCol - col) *
-              (currCol - col));
-      if (dist < closestDistance) {
-        closestDistance = dist;
-        closest = rowCol;
-      }
-    }
-    return closest;
+  private int getClosestCaveToLocation(int row, int col) {
+    return this.layout.getCaveLocator().getClosestCave(row, col);
   }
 
   private int getDirectionOfLocation(int location, int player) {
-    for (int dir : this.getValidPlayerMoves(player)) {
-      Arrow sensor = new MazeArrow(this.players.get(player).getLocation());
-      this.moveObject(sensor, dir, 1, new ArrayList<>());
-      if (sensor.getLocation().getLocation() == location) {
-        return dir;
-      }
+    if (location < 0) {
+      return -1;
     }
-    return -1;
+    return this.caveGraph.getDirectionTo(this.getPlayerLocation(player), location);
   }
 
   private void validatePlayerExists(int player) {
@@ -524,25 +687,18 @@ abstract class MazeImpl implements Maze {
     }
   }
 
-  private void validateNumRemainingWalls(int numRemainingWalls, int numRows, int numCols) {
-    if (numRemainingWalls < 0 || numRemainingWalls >
-            (this.doors.size() - (numRows * numCols) + 1)) {
-      throw new IllegalArgumentException("numRemainingWalls is not valid");
+  private void validateLocation(int location) {
+    if (location < 0 || location >= this.topology.getNumLocations()) {
+      throw new IllegalArgumentException("not a valid location");
     }
   }
 
   private void validateDirectionToMove(int direction, int player) {
-    if (!this.getValidPlayerMoves(player).contains(direction)) {
+    if (!this.topology.isOpen(this.getPlayerLocation(player), direction)) {
       throw new IllegalArgumentException("this is not a valid direction");
     }
   }
 
-  private void validatePercentage(int percent, String error) {
-    if (percent < 0 || percent > 100) {
-      throw new IllegalArgumentException(error);
-    }
-  }
-
   private void validateCaves(int caves) {
     if (caves < 0) {
       throw new IllegalArgumentException("number of caves cannot be negative");
@@ -0,0 +1,388 @@
+package mazemodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The part of a maze that is generated from its parameters and seed and never changes while it is
+ * played: the locations and their doors, the wumpus, the pits and the bats, and the tables built
+ * from them for moving through the maze. A layout holds no players, so it can be shared by any
+ * number of games played on the same maze.
+ *
+ * <p>The layout also keeps the state the random number generator was in once the maze was
+ * generated, so every game played on it draws the same numbers as a game on a maze generated
+ * again from the same seed.
+ */
+final class MazeLayout {
+  private final List<List<Location>> maze;
+  private final List<Door> doors;
+  private final boolean wrapping;
+  private final MazeTopology topology;
+  private final CaveGraph caveGraph;
+  private final PerceptionField perceptions;
+  private final int[] caves;
+  private final long randomState;
+  private volatile CaveLocator caveLocator;
+  private volatile ArrowJumpTable arrowFlights;
+
+  /**
+   * Generate a MazeLayout object.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param shouldHaveNRWValue whether the number of walls remaining is given, or the maze is
+   *                           perfect
+   * @param numRemainingWalls the number of walls that should remain erected in the maze
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @param generator the engine used to decide which doors of the maze are opened
+   */
+  MazeLayout(int numRows, int numCols, boolean wrapping, int seed, boolean shouldHaveNRWValue,
+             int numRemainingWalls, int pitPercent, int batPercent, MazeGenerator generator) {
+    this.validateSize(numRows, numCols);
+    this.validatePercentage(pitPercent, "percentage of pits is not valid");
+    this.validatePercentage(batPercent, "percentage of bats is not valid");
+    if (generator == null) {
+      throw new IllegalArgumentException("generator cannot be null");
+    }
+
+    this.wrapping = wrapping;
+    MazeRandom random = seed >= 0 ? new MazeRandom(seed) : new MazeRandom();
+
+    this.maze = new ArrayList<>();
+    this.constructMaze(numRows, numCols);
+
+    this.doors = new ArrayList<>();
+    this.addDoors(this.doors);
+
+    if (!shouldHaveNRWValue) {
+      numRemainingWalls = this.doors.size() - (numRows * numCols) + 1;
+    }
+    this.validateNumRemainingWalls(numRemainingWalls, numRows, numCols);
+
+    BitSet openDoors = generator.generate(numRows, numCols, this.wrapping, numRemainingWalls,
+            random);
+    this.topology = this.openDoors(openDoors);
+    this.caveGraph = new CaveGraph(this.topology);
+    this.perceptions = new PerceptionField(this.caveGraph, numRows * numCols);
+    this.caves = this.indexCaves();
+
+    this.setWumpus(random);
+    this.setHazards(random, pitPercent, PerceptionField.PIT);
+    this.setHazards(random, batPercent, PerceptionField.BAT);
+    this.randomState = random.getState();
+  }
+
+  /**
+   * Rebuild a MazeLayout object from the doors and hazards of a maze that was generated before,
+   * without generating anything.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param openDoors the set of doors that are open
+   * @param wumpus the cave of the wumpus
+   * @param pits the set of caves that have pits
+   * @param bats the set of caves that have bats
+   * @param randomState the state of the random number generator once the maze was generated
+   * @throws IllegalArgumentException if a door is not in the maze or a hazard is not in a cave
+   */
+  MazeLayout(int numRows, int numCols, boolean wrapping, BitSet openDoors, int wumpus,
+             BitSet pits, BitSet bats, long randomState) {
+    this.validateSize(numRows, numCols);
+    this.wrapping = wrapping;
+    this.maze = new ArrayList<>();
+    this.constructMaze(numRows, numCols);
+    this.doors = new ArrayList<>();
+    this.addDoors(this.doors);
+    if (openDoors.length() > this.doors.size()) {
+      throw new IllegalArgumentException("door is not in the maze");
+    }
+
+    this.topology = this.openDoors(openDoors);
+    this.caveGraph = new CaveGraph(this.topology);
+    this.perceptions = new PerceptionField(this.caveGraph, numRows * numCols);
+    this.caves = this.indexCaves();
+
+    this.addHazard(wumpus, PerceptionField.WUMPUS);
+    for (int pit = pits.nextSetBit(0); pit >= 0; pit = pits.nextSetBit(pit + 1)) {
+      this.addHazard(pit, PerceptionField.PIT);
+    }
+    for (int bat = bats.nextSetBit(0); bat >= 0; bat = bats.nextSetBit(bat + 1)) {
+      this.addHazard(bat, PerceptionField.BAT);
+    }
+    this.randomState = randomState;
+  }
+
+  /**
+   * Get the locations of the maze, row by row.
+   * @return the rows of locations
+   */
+  List<List<Location>> getLocations() {
+    return this.maze;
+  }
+
+  /**
+   * Return whether or not the maze is wrapping.
+   * @return true if the maze is wrapping, false otherwise
+   */
+  boolean isWrapping() {
+    return this.wrapping;
+  }
+
+  /**
+   * Get the table of how the locations of the maze are connected.
+   * @return the topology of the maze
+   */
+  MazeTopology getTopology() {
+    return this.topology;
+  }
+
+  /**
+   * Get the graph of the caves of the maze.
+   * @return the cave graph
+   */
+  CaveGraph getCaveGraph() {
+    return this.caveGraph;
+  }
+
+  /**
+   * Get what can be perceived in each location of the maze.
+   * @return the perception field
+   */
+  PerceptionField getPerceptions() {
+    return this.perceptions;
+  }
+
+  /**
+   * Get every location that is not a hallway, in order row by row.
+   * @return the caves of the maze
+   */
+  int[] getCaves() {
+    return this.caves;
+  }
+
+  /**
+   * Get the state of the random number generator once the maze was generated.
+   * @return the state of the random number generator
+   */
+  long getRandomState() {
+    return this.randomState;
+  }
+
+  /**
+   * Get the index for finding the closest cave to a location, building it the first time it is
+   * needed. The lock of the layout is only taken while the index has not been built, so games
+   * sharing the layout read it without contending for the lock.
+   * @return the cave locator
+   */
+  CaveLocator getCaveLocator() {
+    CaveLocator result = this.caveLocator;
+    if (result == null) {
+      synchronized (this) {
+        result = this.caveLocator;
+        if (result == null) {
+          result = new CaveLocator(this.topology.getNumRows(), this.topology.getNumCols(),
+                  this.wrapping, this.caves);
+          this.caveLocator = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the jump table for arrows flying through the maze, building it the first time it is
+   * needed. Arrows only start and land in caves, so states are numbered by the rank of the cave
+   * rather than its location, and the table has no entries for hallways. As with the cave
+   * locator, the lock is only taken while the table has not been built.
+   * @return the arrow jump table
+   */
+  ArrowJumpTable getArrowFlights() {
+    ArrowJumpTable result = this.arrowFlights;
+    if (result == null) {
+      synchronized (this) {
+        result = this.arrowFlights;
+        if (result == null) {
+          int[] next = new int[this.caves.length * 4];
+          for (int state = 0; state < next.length; state++) {
+            int cave = this.caves[state >> 2];
+            int destination = this.caveGraph.getDestination(cave, state & 3);
+            next[state] = destination < 0 ? -1 : (this.getCaveRank(destination) << 2)
+                    + this.caveGraph.getExitDirection(cave, state & 3);
+          }
+          result = new ArrowJumpTable(next);
+          this.arrowFlights = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the rank of a cave among the caves of the maze, in order row by row.
+   * @param location the cave
+   * @return the rank of the cave
+   */
+  int getCaveRank(int location) {
+    return Arrays.binarySearch(this.caves, location);
+  }
+
+  /**
+   * Open the doors of the maze and freeze them into a table for moving through the maze.
+   */
+  private MazeTopology openDoors(BitSet openDoors) {
+    for (int door = openDoors.nextSetBit(0); door >= 0; door = openDoors.nextSetBit(door + 1)) {
+      this.doors.get(door).openDoor();
+    }
+    // the doors never change again, so the hallways can be contracted so that every move goes
+    // straight from cave to cave
+    return new MazeTopology(new DoorGrid(this.maze.size(), this.maze.get(0).size(),
+            this.wrapping), openDoors);
+  }
+
+  private void setWumpus(MazeRandom random) {
+    this.addHazard(this.caves[random.nextInt(this.caves.length)], PerceptionField.WUMPUS);
+  }
+
+  private void setHazards(MazeRandom random, int percent, int hazard) {
+    for (int cave : this.caves) {
+      if (random.nextInt(100) < percent) {
+        this.addHazard(cave, hazard);
+      }
+    }
+  }
+
+  private void addHazard(int cave, int hazard) {
+    if (cave < 0 || cave >= this.topology.getNumLocations() || this.topology.isHallway(cave)) {
+      throw new IllegalArgumentException("hazard is not in a cave");
+    }
+    Location location = this.getLocationAt(cave);
+    if (hazard == PerceptionField.WUMPUS) {
+      location.setWumpus();
+    } else if (hazard == PerceptionField.PIT) {
+      location.setPit();
+    } else {
+      location.setBat();
+    }
+    this.perceptions.addHazard(cave, hazard);
+  }
+
+  /**
+   * Index every location that is not a hallway, in order row by row.
+   */
+  private int[] indexCaves() {
+    int numCaves = 0;
+    for (int location = 0; location < this.topology.getNumLocations(); location++) {
+      if (!this.topology.isHallway(location)) {
+        numCaves += 1;
+      }
+    }
+
+    int[] result = new int[numCaves];
+    int next = 0;
+    for (int location = 0; location < this.topology.getNumLocations(); location++) {
+      if (!this.topology.isHallway(location)) {
+        result[next] = location;
+        next += 1;
+      }
+    }
+    return result;
+  }
+
+  private void constructMaze(int numRows, int numCols) {
+    for (int row = 0; row < numRows; row++) {
+      this.maze.add(new ArrayList<Location>());
+      for (int col = 0; col < numCols; col++) {
+        Location location = new MazeLocation(row, col, numCols);
+        this.maze.get(row).add(location);
+      }
+    }
+  }
+
+  private Location getLocationAt(int location) {
+    return this.maze.get(location / this.topology.getNumCols())
+            .get(location % this.topology.getNumCols());
+  }
+
+  private void addDoors(List<Door> doors) {
+    this.addEastWestDoors(doors);
+    this.addNorthSouthDoors(doors);
+    if (this.wrapping) {
+      this.addWrappingDoors(doors);
+    }
+  }
+
+  private void addEastWestDoors(List<Door> doors) {
+    for (int row = 0; row < this.maze.size(); row++) {
+      List<Location> currRow = this.maze.get(row);
+      for (int col = 0; col < currRow.size() - 1; col++) {
+        Location westLocation = currRow.get(col);
+        Location eastLocation =  currRow.get(col + 1);
+        Door door = new MazeDoor(westLocation, eastLocation);
+        westLocation.setDoor(2, door);
+        eastLocation.setDoor(3, door);
+        doors.add(door);
+      }
+    }
+  }
+
+  private void addNorthSouthDoors(List<Door> doors) {
+    for (int col = 0; col < this.maze.get(0).size(); col++) {
+      for (int row = 0; row < this.maze.size() - 1; row++) {
+        Location northLocation = this.maze.get(row).get(col);
+        Location southLocation = this.maze.get(row + 1).get(col);
+        Door door = new MazeDoor(northLocation, southLocation);
+        northLocation.setDoor(1, door);
+        southLocation.setDoor(0, door);
+        doors.add(door);
+      }
+    }
+  }
+
+  private void addWrappingDoors(List<Door> doors) {
+    for (int row = 0; row < this.maze.size(); row++) {
+      List<Location> currRow = this.maze.get(row);
+      Location westMostLocation = currRow.get(0);
+      Location eastMostLocation = currRow.get(currRow.size() - 1);
+      Door door = new MazeDoor(westMostLocation, eastMostLocation);
+      westMostLocation.setDoor(3, door);
+      eastMostLocation.setDoor(2, door);
+      doors.add(door);
+    }
+
+    for (int col = 0; col < this.maze.get(0).size(); col++) {
+      Location northMostLocation = this.maze.get(0).get(col);
+      Location southMostLocation = this.maze.get(this.maze.size() - 1).get(col);
+      Door door = new MazeDoor(northMostLocation, southMostLocation);
+      northMostLocation.setDoor(0, door);
+      southMostLocation.setDoor(1, door);
+      doors.add(door);
+    }
+  }
+
+  private void validateNumRemainingWalls(int numRemainingWalls, int numRows, int numCols) {
+    if (numRemainingWalls < 0 || numRemainingWalls >
+            (this.doors.size() - (numRows * numCols) + 1)) {
+      throw new IllegalArgumentException("numRemainingWalls is not valid");
+    }
+  }
+
+  private void validateSize(int numRows, int numCols) {
+    if (numRows <= 0) {
+      throw new IllegalArgumentException("number of rows must be positive");
+    }
+    if (numCols <= 0) {
+      throw new IllegalArgumentException("number of columns must be positive");
+    }
+  }
+
+  private void validatePercentage(int percent, String error) {
+    if (percent < 0 || percent > 100) {
+      throw new IllegalArgumentException(error);
+    }
+  }
+}
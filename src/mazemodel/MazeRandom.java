@@ -0,0 +1,61 @@
+package mazemodel;
+
+import java.util.Random;
+
+/**
+ * A random number generator that gives exactly the numbers of java.util.Random for the same seed,
+ * but whose state can be read and set, so that a game can be saved and carried on later with the
+ * numbers it would have drawn.
+ */
+final class MazeRandom extends Random {
+  private static final long serialVersionUID = 1L;
+  private static final long MULTIPLIER = 0x5DEECE66DL;
+  private static final long ADDEND = 0xBL;
+  private static final long MASK = (1L << 48) - 1;
+
+  private long state;
+
+  /**
+   * Construct a MazeRandom object with a seed.
+   * @param seed the seed
+   */
+  MazeRandom(long seed) {
+    super(seed);
+  }
+
+  /**
+   * Construct a MazeRandom object with a seed that is likely to differ from any other.
+   */
+  MazeRandom() {
+    super();
+  }
+
+  @Override
+  public synchronized void setSeed(long seed) {
+    super.setSeed(seed);
+    this.state = (seed ^ MULTIPLIER) & MASK;
+  }
+
+  @Override
+  protected int next(int bits) {
+    this.state = (this.state * MULTIPLIER + ADDEND) & MASK;
+    return (int) (this.state >>> (48 - bits));
+  }
+
+  /**
+   * Get the state of the generator.
+   * @return the state, which is 48 bits long
+   */
+  long getState() {
+    return this.state;
+  }
+
+  /**
+   * Set the state of the generator, so that it goes on to draw the numbers it drew after it was
+   * in that state before.
+   * @param state the state, as returned by getState
+   */
+  void setState(long state) {
+    this.state = state & MASK;
+  }
+}
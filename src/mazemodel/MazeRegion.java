@@ -0,0 +1,95 @@
+package mazemodel;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A square region of a ChunkedMaze. A region keeps the open doors of each of its cells, including
+ * the doors that lead out of it into the regions around it, along with its caves and the caves
+ * that have pits or bats. Cells are numbered row by row within the region. A region never changes
+ * once it is built, so it can be dropped and built again at any time.
+ */
+final class MazeRegion {
+  private final byte[] doors;
+  private final int[] caves;
+  private final long[] pits;
+  private final long[] bats;
+
+  /**
+   * Construct a MazeRegion object, placing pits and bats in its caves.
+   * @param doors the open doors of each cell, as a bit for each direction
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @param random the random number generator of the region
+   */
+  MazeRegion(byte[] doors, int pitPercent, int batPercent, Random random) {
+    this.doors = doors;
+
+    int[] caveList = new int[doors.length];
+    int numCaves = 0;
+    for (int cell = 0; cell < doors.length; cell++) {
+      if (Integer.bitCount(doors[cell]) != 2) {
+        caveList[numCaves] = cell;
+        numCaves += 1;
+      }
+    }
+    this.caves = Arrays.copyOf(caveList, numCaves);
+
+    this.pits = new long[(doors.length + 63) >>> 6];
+    this.bats = new long[(doors.length + 63) >>> 6];
+    this.setHazards(this.pits, pitPercent, random);
+    this.setHazards(this.bats, batPercent, random);
+  }
+
+  /**
+   * Get the open doors of a cell.
+   * @param cell the cell
+   * @return the bit mask of open directions
+   */
+  int getOpenDoors(int cell) {
+    return this.doors[cell];
+  }
+
+  /**
+   * Get the number of caves in the region.
+   * @return the number of caves
+   */
+  int getNumCaves() {
+    return this.caves.length;
+  }
+
+  /**
+   * Get a cave by its rank, where caves are ordered row by row.
+   * @param rank the rank of the cave
+   * @return the cell of the cave
+   */
+  int getCave(int rank) {
+    return this.caves[rank];
+  }
+
+  /**
+   * Get whether a cell has a pit.
+   * @param cell the cell
+   * @return true if the cell has a pit, false otherwise
+   */
+  boolean hasPit(int cell) {
+    return GridBits.get(this.pits, cell);
+  }
+
+  /**
+   * Get whether a cell has bats.
+   * @param cell the cell
+   * @return true if the cell has bats, false otherwise
+   */
+  boolean hasBats(int cell) {
+    return GridBits.get(this.bats, cell);
+  }
+
+  private void setHazards(long[] hazards, int percent, Random random) {
+    for (int cave : this.caves) {
+      if (random.nextInt(100) < percent) {
+        GridBits.set(hazards, cave);
+      }
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package mazemodel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+import mazeio.FileOutput;
+
+/**
+ * A writer and reader of snapshot files, which hold a game in progress so that it can be put away
+ * and gone on with later.
+ *
+ * <p>The file starts with a header of 40 bytes: a magic number, the format version, the number of
+ * rows and columns, whether the maze wraps, the location of the wumpus, the number of players, an
+ * unused int and the state of the random number generator. The open doors of each location
+ * follow, four bits to a location, and then the bits of the caves with pits and with bats, 64
+ * locations to a long, row by row. Last come the players, each one its location, its arrows and a
+ * byte of status flags: whether it killed the wumpus and whether bats moved it. Every number is
+ * big-endian.
+ */
+final class MazeSnapshot {
+  static final int MAGIC = 0x48545753;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 40;
+  static final int PLAYER_SIZE = 9;
+
+  private static final int WUMPUS_KILLED = 1;
+  private static final int MOVED_BY_BATS = 2;
+
+  private MazeSnapshot() {
+  }
+
+  /**
+   * Write a game to a snapshot file, creating the file or replacing what is in it.
+   * @param maze the game
+   * @param file the snapshot file
+   * @throws IOException if the file cannot be written
+   */
+  static void write(MazeImpl maze, Path file) throws IOException {
+    MazeLayout layout = maze.getLayout();
+    MazeTopology topology = layout.getTopology();
+    PerceptionField hazards = layout.getPerceptions();
+    int numLocations = topology.getNumLocations();
+    int wumpus = -1;
+    long[] pits = new long[getNumWords(numLocations)];
+    long[] bats = new long[pits.length];
+    for (int cave : layout.getCaves()) {
+      int hazard = hazards.getHazards(cave);
+      if ((hazard & PerceptionField.WUMPUS) != 0) {
+        wumpus = cave;
+      }
+      if ((hazard & PerceptionField.PIT) != 0) {
+        pits[cave >>> 6] |= 1L << cave;
+      }
+      if ((hazard & PerceptionField.BAT) != 0) {
+        bats[cave >>> 6] |= 1L << cave;
+      }
+    }
+
+    try (FileOutput output = new FileOutput(file)) {
+      output.reserve(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(topology.getNumRows())
+              .putInt(topology.getNumCols()).putInt(layout.isWrapping() ? 1 : 0).putInt(wumpus)
+              .putInt(maze.getNumPlayers()).putInt(0).putLong(maze.getRandomState());
+
+      for (int location = 0; location < numLocations; location += 2) {
+        int nibbles = topology.getOpenDirections(location);
+        if (location + 1 < numLocations) {
+          nibbles |= topology.getOpenDirections(location + 1) << 4;
+        }
+        output.reserve(1).put((byte) nibbles);
+      }
+      for (long[] bits : new long[][] {pits, bats}) {
+        for (long word : bits) {
+          output.reserve(8).putLong(word);
+        }
+      }
+      for (int player = 0; player < maze.getNumPlayers(); player++) {
+        output.reserve(PLAYER_SIZE).putInt(maze.getPlayerLocation(player))
+                .putInt(maze.getPlayerArrows(player))
+                .put((byte) ((maze.wumpusKilled(player) ? WUMPUS_KILLED : 0)
+                        | (maze.movedByBats(player) ? MOVED_BY_BATS : 0)));
+      }
+    }
+  }
+
+  /**
+   * Read a game from a snapshot file, rebuilding the maze from its doors and hazards.
+   * @param file the snapshot file
+   * @return the game
+   * @throws IOException if the file cannot be read or is not a snapshot
+   */
+  static NonPerfectMaze read(Path file) throws IOException {
+    ByteBuffer input;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("not a maze snapshot");
+      }
+      input = ByteBuffer.allocate((int) channel.size());
+      while (input.hasRemaining()) {
+        if (channel.read(input) < 0) {
+          throw new IOException("maze snapshot is damaged");
+        }
+      }
+      input.flip();
+    }
+
+    if (input.getInt() != MAGIC) {
+      throw new IOException("not a maze snapshot");
+    }
+    if (input.getInt() != VERSION) {
+      throw new IOException("maze snapshot was written by a different version");
+    }
+    int numRows = input.getInt();
+    int numCols = input.getInt();
+    boolean wrapping = input.getInt() != 0;
+    int wumpus = input.getInt();
+    int numPlayers = input.getInt();
+    input.getInt();
+    long randomState = input.getLong();
+    long numLocations = (long) numRows * numCols;
+    if (numRows <= 0 || numCols <= 0 || numLocations > Integer.MAX_VALUE || numPlayers < 0
+            || input.remaining() != (numLocations + 1) / 2
+            + getNumWords((int) numLocations) * 16L + (long) numPlayers * PLAYER_SIZE) {
+      throw new IOException("maze snapshot is damaged");
+    }
+
+    DoorGrid grid = new DoorGrid(numRows, numCols, wrapping);
+    byte[] nibbles = new byte[(int) (numLocations + 1) / 2];
+    input.get(nibbles);
+    BitSet openDoors = new BitSet(grid.getNumDoors());
+    for (int location = 0; location < numLocations; location++) {
+      int open = (nibbles[location >>> 1] >>> ((location & 1) << 2)) & 0xF;
+      for (int direction = 0; direction < 4; direction++) {
+        if ((open & (1 << direction)) != 0) {
+          int door = grid.getDoor(location, direction);
+          if (door < 0) {
+            throw new IOException("maze snapshot is damaged");
+          }
+          openDoors.set(door);
+        }
+      }
+    }
+    long[] pits = new long[getNumWords((int) numLocations)];
+    long[] bats = new long[pits.length];
+    input.asLongBuffer().get(pits);
+    input.position(input.position() + pits.length * 8);
+    input.asLongBuffer().get(bats);
+    input.position(input.position() + bats.length * 8);
+
+    NonPerfectMaze maze;
+    try {
+      MazeLayout layout = new MazeLayout(numRows, numCols, wrapping, openDoors, wumpus,
+              BitSet.valueOf(pits), BitSet.valueOf(bats), randomState);
+      for (int location = 0; location < numLocations; location++) {
+        if (layout.getTopology().getOpenDirections(location)
+                != ((nibbles[location >>> 1] >>> ((location & 1) << 2)) & 0xF)) {
+          throw new IOException("maze snapshot is damaged");
+        }
+      }
+      maze = new NonPerfectMaze(layout);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("maze snapshot is damaged", e);
+    }
+
+    for (int player = 0; player < numPlayers; player++) {
+      int location = input.getInt();
+      int arrows = input.getInt();
+      int status = input.get();
+      if (location < 0 || location >= numLocations || arrows < 0
+              || (status & ~(WUMPUS_KILLED | MOVED_BY_BATS)) != 0) {
+        throw new IOException("maze snapshot is damaged");
+      }
+      maze.restorePlayer(location, arrows, (status & WUMPUS_KILLED) != 0,
+              (status & MOVED_BY_BATS) != 0);
+    }
+    return maze;
+  }
+
+  private static int getNumWords(int numLocations) {
+    return (int) ((numLocations + 63L) >>> 6);
+  }
+}
@@ -0,0 +1,112 @@
+package mazemodel;
+
+import java.util.BitSet;
+
+/**
+ * An immutable table of how the locations of a generated maze are connected. For every location the
+ * table holds the neighbor behind each of its four doors and a bit mask of the doors that are open,
+ * so that moving through the maze never has to look at door objects once the maze is built.
+ */
+class MazeTopology {
+  private final int numRows;
+  private final int numCols;
+  private final int[] neighbors;
+  private final byte[] openDirections;
+
+  /**
+   * Construct a MazeTopology object.
+   * @param grid the doors of the maze
+   * @param openDoors the set of doors that are open
+   */
+  public MazeTopology(DoorGrid grid, BitSet openDoors) {
+    this.numRows = grid.getNumRows();
+    this.numCols = grid.getNumCols();
+    this.neighbors = new int[grid.getNumLocations() * 4];
+    this.openDirections = new byte[grid.getNumLocations()];
+
+    for (int i = 0; i < this.neighbors.length; i++) {
+      this.neighbors[i] = -1;
+    }
+
+    for (int door = openDoors.nextSetBit(0); door >= 0; door = openDoors.nextSetBit(door + 1)) {
+      int locationOne = grid.getLocationOne(door);
+      int locationTwo = grid.getLocationTwo(door);
+      int direction = grid.getDirectionOne(door);
+      this.connect(locationOne, direction, locationTwo);
+      this.connect(locationTwo, this.getOppositeDirection(direction), locationOne);
+    }
+  }
+
+  /**
+   * Get the number of rows in the maze.
+   * @return the number of rows in the maze
+   */
+  public int getNumRows() {
+    return this.numRows;
+  }
+
+  /**
+   * Get the number of columns in the maze.
+   * @return the number of columns in the maze
+   */
+  public int getNumCols() {
+    return this.numCols;
+  }
+
+  /**
+   * Get the number of locations in the maze.
+   * @return the number of locations in the maze
+   */
+  public int getNumLocations() {
+    return this.openDirections.length;
+  }
+
+  /**
+   * Get a bit mask of the directions that lead out of a location, where bit 0 is North, bit 1 is
+   * South, bit 2 is East and bit 3 is West.
+   * @param location the location
+   * @return the bit mask of open directions
+   */
+  public int getOpenDirections(int location) {
+    return this.openDirections[location];
+  }
+
+  /**
+   * Return whether or not a location has an open door in a direction.
+   * @param location the location
+   * @param direction the direction
+   * @return true if the door is open, false otherwise
+   */
+  public boolean isOpen(int location, int direction) {
+    return direction >= 0 && direction < 4
+            && (this.openDirections[location] & (1 << direction)) != 0;
+  }
+
+  /**
+   * Return whether or not a location is a hallway, meaning it has exactly two open doors.
+   * @param location the location
+   * @return true if the location is a hallway, false otherwise
+   */
+  public boolean isHallway(int location) {
+    return Integer.bitCount(this.openDirections[location]) == 2;
+  }
+
+  /**
+   * Get the location behind the door of a location in a direction.
+   * @param location the location
+   * @param direction the direction
+   * @return the location behind the door, or -1 if the door is not open
+   */
+  public int getNeighbor(int location, int direction) {
+    return this.neighbors[(location << 2) + direction];
+  }
+
+  private int getOppositeDirection(int direction) {
+    return direction ^ 1;
+  }
+
+  private void connect(int location, int direction, int neighbor) {
+    this.neighbors[(location << 2) + direction] = neighbor;
+    this.openDirections[location] |= (byte) (1 << direction);
+  }
+}
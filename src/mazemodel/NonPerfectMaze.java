@@ -1,5 +1,8 @@
 package mazemodel;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * This class represents a non-perfect maze. A non-perfect maze may have more than one path between
  * any two locations in the maze.
@@ -7,7 +10,7 @@ package mazemodel;
 public class NonPerfectMaze extends MazeImpl {
 
   /**
-   * Construct a NonPerfectMaze object.
+   * Construct a NonPerfectMaze object that is generated with Kruskal's algorithm.
    * @param numRows the number of rows in the maze
    * @param numCols the number of columns in the maze
    * @param wrapping a boolean representing whether or not the maze is wrapping
@@ -17,6 +20,51 @@ public class NonPerfectMaze extends MazeImpl {
    */
   public NonPerfectMaze(int numRows, int numCols, boolean wrapping, int seed, int numWallsRemaining,
                         int pitPercent, int batPercent) {
-    super(numRows, numCols, wrapping, seed, numWallsRemaining, pitPercent, batPercent);
+    this(numRows, numCols, wrapping, seed, numWallsRemaining, pitPercent, batPercent,
+            new KruskalGenerator());
+  }
+
+  /**
+   * Construct a NonPerfectMaze object that is generated with the given engine.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param numWallsRemaining the number of walls that should remain erected in the maze
+   * @param generator the engine used to decide which doors of the maze are opened
+   */
+  public NonPerfectMaze(int numRows, int numCols, boolean wrapping, int seed, int numWallsRemaining,
+                        int pitPercent, int batPercent, MazeGenerator generator) {
+    super(numRows, numCols, wrapping, seed, numWallsRemaining, pitPercent, batPercent, generator);
+  }
+
+  /**
+   * Construct a NonPerfectMaze object that is played on a maze that was already generated.
+   * @param layout the generated maze
+   */
+  NonPerfectMaze(MazeLayout layout) {
+    super(layout);
+  }
+
+  /**
+   * Load a game saved to a snapshot file, going on from where it was saved. The maze is rebuilt
+   * from the doors and hazards in the snapshot, without generating it again. A saved PerfectMaze
+   * is loaded as a NonPerfectMaze, which plays the same way.
+   * @param file the snapshot file
+   * @return the game
+   * @throws IOException if the file cannot be read or is not a snapshot
+   */
+  public static NonPerfectMaze load(Path file) throws IOException {
+    return MazeSnapshot.read(file);
+  }
+
+  private NonPerfectMaze(NonPerfectMaze source) {
+    super(source);
+  }
+
+  @Override
+  public NonPerfectMaze fork() {
+    return new NonPerfectMaze(this);
   }
 }
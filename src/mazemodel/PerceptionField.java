@@ -0,0 +1,102 @@
+package mazemodel;
+
+/**
+ * A table of what a player senses in each cave of a maze. A player smells a wumpus if a move out of
+ * the cave would end in the wumpus's cave, feels a draft if a move would end in a cave with a pit,
+ * and hears bats if the cave itself has bats.
+ *
+ * <p>The table is kept up to date as hazards are added to caves. Each hazard only touches the caves
+ * that have a move into its cave, so a perception is always a single array read.
+ */
+class PerceptionField {
+  static final int WUMPUS = 1;
+  static final int PIT = 2;
+  static final int BAT = 4;
+
+  static final int STENCH = 1;
+  static final int DRAFT = 2;
+
+  private final byte[] perceptions;
+  private final byte[] hazards;
+  private final int[] sourceStarts;
+  private final int[] sources;
+
+  /**
+   * Construct a PerceptionField object for a maze with no hazards.
+   * @param graph the caves of the maze and the moves between them
+   * @param numLocations the number of locations in the maze
+   */
+  public PerceptionField(CaveGraph graph, int numLocations) {
+    this.perceptions = new byte[numLocations];
+    this.hazards = new byte[numLocations];
+
+    // index every move by the cave it ends in, so that a change to a cave can be pushed to the
+    // caves that sense it
+    this.sourceStarts = new int[numLocations + 1];
+    for (int cave = 0; cave < numLocations; cave++) {
+      for (int direction = 0; direction < 4; direction++) {
+        int destination = graph.getDestination(cave, direction);
+        if (destination >= 0) {
+          this.sourceStarts[destination + 1] += 1;
+        }
+      }
+    }
+    for (int location = 0; location < numLocations; location++) {
+      this.sourceStarts[location + 1] += this.sourceStarts[location];
+    }
+
+    this.sources = new int[this.sourceStarts[numLocations]];
+    int[] next = new int[numLocations];
+    for (int cave = 0; cave < numLocations; cave++) {
+      for (int direction = 0; direction < 4; direction++) {
+        int destination = graph.getDestination(cave, direction);
+        if (destination >= 0) {
+          this.sources[this.sourceStarts[destination] + next[destination]] = cave;
+          next[destination] += 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Get what a player senses in a cave, as a bit mask of STENCH, DRAFT and BAT.
+   * @param location the cave
+   * @return the bit mask of perceptions
+   */
+  public int getPerceptions(int location) {
+    return this.perceptions[location];
+  }
+
+  /**
+   * Get the hazards in a cave, as a bit mask of WUMPUS, PIT and BAT.
+   * @param location the cave
+   * @return the bit mask of hazards
+   */
+  public int getHazards(int location) {
+    return this.hazards[location];
+  }
+
+  /**
+   * Add a hazard to a cave. Adding a hazard that is already in the cave has no effect.
+   * @param location the cave
+   * @param hazard the hazard, one of WUMPUS, PIT and BAT
+   */
+  public void addHazard(int location, int hazard) {
+    if ((this.hazards[location] & hazard) == 0) {
+      this.hazards[location] |= (byte) hazard;
+      this.updateSources(location, hazard);
+    }
+  }
+
+  private void updateSources(int location, int hazard) {
+    if (hazard == BAT) {
+      this.perceptions[location] |= (byte) BAT;
+      return;
+    }
+
+    int perception = hazard == WUMPUS ? STENCH : DRAFT;
+    for (int i = this.sourceStarts[location]; i < this.sourceStarts[location + 1]; i++) {
+      this.perceptions[this.sources[i]] |= (byte) perception;
+    }
+  }
+}
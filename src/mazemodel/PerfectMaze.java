@@ -7,7 +7,7 @@ package mazemodel;
 public class PerfectMaze extends MazeImpl {
 
   /**
-   * Construct a PerfectMaze object.
+   * Construct a PerfectMaze object that is generated with Kruskal's algorithm.
    * @param numRows the number of rows in the maze
    * @param numCols the number of columns in the maze
    * @param wrapping a boolean representing whether or not the maze is wrapping
@@ -16,6 +16,29 @@ public class PerfectMaze extends MazeImpl {
    */
   public PerfectMaze(int numRows, int numCols, boolean wrapping, int seed,
                      int pitPercent, int batPercent) {
-    super(numRows, numCols, wrapping, seed, pitPercent, batPercent);
+    this(numRows, numCols, wrapping, seed, pitPercent, batPercent, new KruskalGenerator());
+  }
+
+  /**
+   * Construct a PerfectMaze object that is generated with the given engine.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param generator the engine used to decide which doors of the maze are opened
+   */
+  public PerfectMaze(int numRows, int numCols, boolean wrapping, int seed,
+                     int pitPercent, int batPercent, MazeGenerator generator) {
+    super(numRows, numCols, wrapping, seed, pitPercent, batPercent, generator);
+  }
+
+  private PerfectMaze(PerfectMaze source) {
+    super(source);
+  }
+
+  @Override
+  public PerfectMaze fork() {
+    return new PerfectMaze(this);
   }
 }
@@ -0,0 +1,59 @@
+package mazemodel;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * An abstract implementation of the MazeGenerator interface for engines that first carve a
+ * spanning tree through the maze. Once the tree is carved, doors that are still closed (including
+ * the doors that wrap around the maze) are opened at random until the requested number of walls
+ * remains. The doors to open are chosen in a single pass with selection sampling, so this step
+ * needs no working memory of its own.
+ */
+abstract class SpanningTreeGenerator implements MazeGenerator {
+
+  @Override
+  public BitSet generate(int numRows, int numCols, boolean wrapping, int numRemainingWalls,
+                         Random random) {
+    DoorGrid grid = new DoorGrid(numRows, numCols, wrapping);
+    BitSet result = new BitSet(grid.getNumDoors());
+    this.buildSpanningTree(grid, result, random);
+
+    int closed = grid.getNumDoors() - result.cardinality();
+    int toOpen = closed - numRemainingWalls;
+    for (int door = result.nextClearBit(0); toOpen > 0 && door < grid.getNumDoors();
+         door = result.nextClearBit(door + 1)) {
+      if (random.nextInt(closed) < toOpen) {
+        result.set(door);
+        toOpen -= 1;
+      }
+      closed -= 1;
+    }
+
+    return result;
+  }
+
+  /**
+   * Open the doors of a spanning tree of the maze, so that there is exactly one path between any
+   * two locations.
+   * @param grid the doors of the maze
+   * @param openDoors the set of open doors to add the tree's doors to
+   * @param random the random number generator to use
+   */
+  protected abstract void buildSpanningTree(DoorGrid grid, BitSet openDoors, Random random);
+
+  /**
+   * Get the location on the other side of a door.
+   * @param grid the doors of the maze
+   * @param door the door
+   * @param location the location on one side of the door
+   * @return the location on the other side of the door
+   */
+  protected int getOtherSide(DoorGrid grid, int door, int location) {
+    int locationOne = grid.getLocationOne(door);
+    if (locationOne == location) {
+      return grid.getLocationTwo(door);
+    }
+    return locationOne;
+  }
+}
@@ -0,0 +1,89 @@
+package mazemodel;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of generated mazes, so that a game can be started again on a maze, or on a maze played
+ * a little earlier, without generating it again. The cache keeps what was generated from the
+ * parameters and seed of each maze, which never changes while it is played, and every maze it
+ * hands out starts a new game on it: no players, and the random number generator where it was once
+ * the maze was generated, so the game goes exactly as on a newly generated maze.
+ *
+ * <p>Only a fixed number of mazes are kept, and the maze that was asked for longest ago is dropped
+ * to make room for a new one. Mazes without a seed are generated again every time, since they are
+ * meant to be different every time.
+ */
+public final class TopologyCache {
+  private final Map<List<Integer>, MazeLayout> layouts;
+  private long numLayoutsBuilt;
+
+  /**
+   * Construct a TopologyCache object.
+   * @param maxMazes the largest number of generated mazes to keep at once
+   * @throws IllegalArgumentException if the number of mazes to keep is not positive
+   */
+  public TopologyCache(int maxMazes) {
+    if (maxMazes <= 0) {
+      throw new IllegalArgumentException("number of mazes to keep must be positive");
+    }
+    this.layouts = new LinkedHashMap<List<Integer>, MazeLayout>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<Integer>, MazeLayout> eldest) {
+        return this.size() > maxMazes;
+      }
+    };
+  }
+
+  /**
+   * Start a new game on a non-perfect maze generated with Kruskal's algorithm, generating the maze
+   * only if it is not kept.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed a seed to set so that the same "random" maze is generated each time, pass in -1
+   *             if setting a seed is not desired
+   * @param numWallsRemaining the number of walls that should remain erected in the maze
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @return a maze with no players, the same as a NonPerfectMaze built with the same parameters
+   */
+  public synchronized NonPerfectMaze getNonPerfectMaze(int numRows, int numCols, boolean wrapping,
+                                                       int seed, int numWallsRemaining,
+                                                       int pitPercent, int batPercent) {
+    if (seed < 0) {
+      return new NonPerfectMaze(numRows, numCols, wrapping, seed, numWallsRemaining, pitPercent,
+              batPercent);
+    }
+
+    List<Integer> key = Arrays.asList(numRows, numCols, wrapping ? 1 : 0, seed,
+            numWallsRemaining, pitPercent, batPercent);
+    MazeLayout layout = this.layouts.get(key);
+    if (layout == null) {
+      layout = new MazeLayout(numRows, numCols, wrapping, seed, true, numWallsRemaining,
+              pitPercent, batPercent, new KruskalGenerator());
+      this.numLayoutsBuilt += 1;
+      this.layouts.put(key, layout);
+    }
+    return new NonPerfectMaze(layout);
+  }
+
+  /**
+   * Get the number of generated mazes that are kept at the moment.
+   * @return the number of mazes kept
+   */
+  public synchronized int getNumMazesKept() {
+    return this.layouts.size();
+  }
+
+  /**
+   * Get the number of times a maze with a seed was generated, counting a maze again each time it
+   * is generated after being dropped.
+   * @return the number of mazes generated
+   */
+  public synchronized long getNumMazesBuilt() {
+    return this.numLayoutsBuilt;
+  }
+}
@@ -0,0 +1,146 @@
+package mazemodel;
+
+/**
+ * A journal of the turns taken in a game, kept so that turns can be undone and redone. For every
+ * turn the journal holds the player who took it and that player's location, arrows and status,
+ * together with the state of the random number generator, both before and after the turn. The
+ * records are kept in a ring of primitive arrays, so recording a turn allocates nothing and once
+ * the ring is full each new turn takes the place of the oldest one.
+ *
+ * <p>Turns that were undone can be redone until a new turn is recorded, which drops them.
+ */
+final class TurnJournal {
+  static final int BEFORE = 0;
+  static final int AFTER = 1;
+
+  private final int[] players;
+  private final int[] locations;
+  private final int[] arrows;
+  private final byte[] statuses;
+  private final long[] randomStates;
+  private int oldest;
+  private int numUndoable;
+  private int numRecorded;
+  private int startPlayer;
+  private int startLocation;
+  private int startArrows;
+  private int startStatus;
+  private long startRandomState;
+
+  /**
+   * Construct a TurnJournal object.
+   * @param capacity the largest number of turns to keep
+   */
+  TurnJournal(int capacity) {
+    this.players = new int[capacity];
+    this.locations = new int[capacity * 2];
+    this.arrows = new int[capacity * 2];
+    this.statuses = new byte[capacity * 2];
+    this.randomStates = new long[capacity * 2];
+  }
+
+  /**
+   * Remember the state of a player as a turn starts. Nothing is recorded until the turn ends, so
+   * a turn that fails part way leaves the journal as it was.
+   * @param player the player taking the turn
+   * @param location the location of the player
+   * @param arrows the arrows of the player
+   * @param status the status flags of the player
+   * @param randomState the state of the random number generator
+   */
+  void startTurn(int player, int location, int arrows, int status, long randomState) {
+    this.startPlayer = player;
+    this.startLocation = location;
+    this.startArrows = arrows;
+    this.startStatus = status;
+    this.startRandomState = randomState;
+  }
+
+  /**
+   * Record the turn that started last with the state of its player as it ends, dropping the
+   * turns that could be redone and, if the journal is full, the oldest turn.
+   * @param location the location of the player
+   * @param arrows the arrows of the player
+   * @param status the status flags of the player
+   * @param randomState the state of the random number generator
+   */
+  void endTurn(int location, int arrows, int status, long randomState) {
+    if (this.numUndoable == this.players.length) {
+      this.oldest = this.getSlot(1);
+      this.numUndoable -= 1;
+    }
+    int slot = this.getSlot(this.numUndoable);
+    this.players[slot] = this.startPlayer;
+    this.set(slot, BEFORE, this.startLocation, this.startArrows, this.startStatus,
+            this.startRandomState);
+    this.set(slot, AFTER, location, arrows, status, randomState);
+    this.numUndoable += 1;
+    this.numRecorded = this.numUndoable;
+  }
+
+  /**
+   * Step back over the last turn that was not undone.
+   * @return the slot of the turn to undo, or -1 if there is none
+   */
+  int undo() {
+    if (this.numUndoable == 0) {
+      return -1;
+    }
+    this.numUndoable -= 1;
+    return this.getSlot(this.numUndoable);
+  }
+
+  /**
+   * Step forward over the first turn that was undone.
+   * @return the slot of the turn to redo, or -1 if there is none
+   */
+  int redo() {
+    if (this.numUndoable == this.numRecorded) {
+      return -1;
+    }
+    this.numUndoable += 1;
+    return this.getSlot(this.numUndoable - 1);
+  }
+
+  /**
+   * Drop every turn.
+   */
+  void clear() {
+    this.oldest = 0;
+    this.numUndoable = 0;
+    this.numRecorded = 0;
+  }
+
+  int getPlayer(int slot) {
+    return this.players[slot];
+  }
+
+  int getLocation(int slot, int side) {
+    return this.locations[(slot << 1) + side];
+  }
+
+  int getArrows(int slot, int side) {
+    return this.arrows[(slot << 1) + side];
+  }
+
+  int getStatus(int slot, int side) {
+    return this.statuses[(slot << 1) + side];
+  }
+
+  long getRandomState(int slot, int side) {
+    return this.randomStates[(slot << 1) + side];
+  }
+
+  private void set(int slot, int side, int location, int arrows, int status, long randomState) {
+    int index = (slot << 1) + side;
+    this.locations[index] = location;
+    this.arrows[index] = arrows;
+    this.statuses[index] = (byte) status;
+    this.randomStates[index] = randomState;
+  }
+
+  private int getSlot(int turn) {
+    int slot = this.oldest + turn;
+    return slot < this.players.length ? slot : slot - this.players.length;
+  }
+}
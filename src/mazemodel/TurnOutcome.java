@@ -0,0 +1,169 @@
+package mazemodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable report of where a player stands after a turn: the player's location, arrows and
+ * valid moves, what the player senses, what happened to the player, and the hallways passed on the
+ * way. The report is filled in once by the maze, so reading it never goes back to the maze, and it
+ * can be kept and read again after later turns have been taken.
+ *
+ * <p>The conditions of the player are kept in a single bit mask made of the constants of this
+ * class.
+ */
+public final class TurnOutcome {
+  public static final int SMELL_WUMPUS = 1;
+  public static final int FEEL_DRAFT = 2;
+  public static final int ON_BAT = 4;
+  public static final int EATEN = 8;
+  public static final int FALLEN = 16;
+  public static final int MOVED_BY_BATS = 32;
+  public static final int WUMPUS_KILLED = 64;
+
+  private final int location;
+  private final int arrows;
+  private final int validMoves;
+  private final int conditions;
+  private final List<List<Integer>> hallwaysTraveled;
+
+  /**
+   * Construct a TurnOutcome object.
+   * @param location the location of the player
+   * @param arrows the number of arrows the player has
+   * @param validMoves a bit mask of the directions the player can move in, where bit 0 is North,
+   *                   bit 1 is South, bit 2 is East and bit 3 is West
+   * @param conditions a bit mask of the conditions of the player
+   * @param hallwaysTraveled the hallways passed during the turn
+   */
+  public TurnOutcome(int location, int arrows, int validMoves, int conditions,
+                     List<List<Integer>> hallwaysTraveled) {
+    this.location = location;
+    this.arrows = arrows;
+    this.validMoves = validMoves;
+    this.conditions = conditions;
+    this.hallwaysTraveled = Collections.unmodifiableList(new ArrayList<>(hallwaysTraveled));
+  }
+
+  /**
+   * Get the location of the player.
+   * @return the location of the player
+   */
+  public int getLocation() {
+    return this.location;
+  }
+
+  /**
+   * Get the number of arrows the player has.
+   * @return the number of arrows the player has
+   */
+  public int getArrows() {
+    return this.arrows;
+  }
+
+  /**
+   * Get a bit mask of the directions the player can move in, where bit 0 is North, bit 1 is South,
+   * bit 2 is East and bit 3 is West.
+   * @return the bit mask of valid moves
+   */
+  public int getValidMoveMask() {
+    return this.validMoves;
+  }
+
+  /**
+   * Get the directions the player can move in.
+   * @return a list of the directions the player can move in
+   */
+  public List<Integer> getValidMoves() {
+    List<Integer> result = new ArrayList<>();
+    for (int direction = 0; direction < 4; direction++) {
+      if ((this.validMoves & (1 << direction)) != 0) {
+        result.add(direction);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the bit mask of the conditions of the player.
+   * @return the bit mask of conditions
+   */
+  public int getConditions() {
+    return this.conditions;
+  }
+
+  /**
+   * Get the hallways passed during the turn, each given as its location followed by its open
+   * directions.
+   * @return the hallways passed during the turn
+   */
+  public List<List<Integer>> getHallwaysTraveled() {
+    return this.hallwaysTraveled;
+  }
+
+  /**
+   * Return whether or not the player can smell a wumpus.
+   * @return true if the player can smell a wumpus, false otherwise
+   */
+  public boolean smellWumpus() {
+    return (this.conditions & SMELL_WUMPUS) != 0;
+  }
+
+  /**
+   * Return whether or not the player can feel a draft.
+   * @return true if the player can feel a draft, false otherwise
+   */
+  public boolean feelDraft() {
+    return (this.conditions & FEEL_DRAFT) != 0;
+  }
+
+  /**
+   * Return whether or not the player is in a cave with bats.
+   * @return true if the player is in a cave with bats, false otherwise
+   */
+  public boolean playerOnBat() {
+    return (this.conditions & ON_BAT) != 0;
+  }
+
+  /**
+   * Return whether or not the player has been eaten by the wumpus.
+   * @return true if the player has been eaten, false otherwise
+   */
+  public boolean playerEaten() {
+    return (this.conditions & EATEN) != 0;
+  }
+
+  /**
+   * Return whether or not the player has fallen into a pit.
+   * @return true if the player has fallen into a pit, false otherwise
+   */
+  public boolean playerFallen() {
+    return (this.conditions & FALLEN) != 0;
+  }
+
+  /**
+   * Return whether or not the player was carried away by bats.
+   * @return true if the player was carried away by bats, false otherwise
+   */
+  public boolean movedByBats() {
+    return (this.conditions & MOVED_BY_BATS) != 0;
+  }
+
+  /**
+   * Return whether or not the player has killed the wumpus.
+   * @return true if the player has killed the wumpus, false otherwise
+   */
+  public boolean wumpusKilled() {
+    return (this.conditions & WUMPUS_KILLED) != 0;
+  }
+
+  /**
+   * Return whether or not the player has lost the game, by being eaten, falling into a pit or
+   * running out of arrows.
+   * @return true if the player has lost, false otherwise
+   */
+  public boolean gameLost() {
+    return this.playerEaten() || this.playerFallen() || this.arrows == 0;
+  }
+}
@@ -0,0 +1,54 @@
+package mazemodel;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * A maze generation engine based on Wilson's algorithm. Starting from a single location,
+ * loop-erased random walks are added to the maze until every location is part of it. Every
+ * possible spanning tree of the maze (including trees that use the doors of a wrapping maze) is
+ * equally likely.
+ *
+ * <p>This engine produces the most even-handed mazes, but its random walks can wander for a long
+ * time before they reach the maze, so its running time varies more than that of the other engines.
+ * It keeps one integer per location.
+ */
+public class WilsonGenerator extends SpanningTreeGenerator {
+
+  @Override
+  protected void buildSpanningTree(DoorGrid grid, BitSet openDoors, Random random) {
+    int numLocations = grid.getNumLocations();
+    BitSet inTree = new BitSet(numLocations);
+    int[] exitDoors = new int[numLocations];
+    int[] candidates = new int[4];
+
+    inTree.set(random.nextInt(numLocations));
+
+    for (int start = inTree.nextClearBit(0); start < numLocations;
+         start = inTree.nextClearBit(start + 1)) {
+
+      // walk until the maze is reached, remembering only the last door taken out of each location,
+      // which erases any loops in the walk
+      int location = start;
+      while (!inTree.get(location)) {
+        int numCandidates = 0;
+        for (int direction = 0; direction < 4; direction++) {
+          int door = grid.getDoor(location, direction);
+          if (door >= 0) {
+            candidates[numCandidates] = door;
+            numCandidates += 1;
+          }
+        }
+        exitDoors[location] = candidates[random.nextInt(numCandidates)];
+        location = this.getOtherSide(grid, exitDoors[location], location);
+      }
+
+      location = start;
+      while (!inTree.get(location)) {
+        inTree.set(location);
+        openDoors.set(exitDoors[location]);
+        location = this.getOtherSide(grid, exitDoors[location], location);
+      }
+    }
+  }
+}
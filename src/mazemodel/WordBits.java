@@ -0,0 +1,32 @@
+package mazemodel;
+
+/**
+ * A class of helper operations on the bits of a 64-bit word.
+ */
+final class WordBits {
+
+  private WordBits() {
+  }
+
+  /**
+   * Get the position of the set bit at an index within a word, narrowing down by halves first.
+   * @param word the word
+   * @param index the index of the set bit, counting from the lowest set bit
+   * @return the position of the set bit within the word
+   */
+  static int select(long word, int index) {
+    int offset = 0;
+    for (int width = 32; width >= 8; width >>= 1) {
+      int low = Long.bitCount(word & ((1L << width) - 1));
+      if (index >= low) {
+        index -= low;
+        word >>>= width;
+        offset += width;
+      }
+    }
+    for (; index > 0; index--) {
+      word &= word - 1;
+    }
+    return offset + Long.numberOfTrailingZeros(word);
+  }
+}
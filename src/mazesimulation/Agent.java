@@ -0,0 +1,21 @@
+package mazesimulation;
+
+import java.util.Random;
+
+import mazemodel.Maze;
+
+/**
+ * A player that takes turns in a game of Hunt the Wumpus without a person at the keyboard. Each
+ * game gets its own agent, so an agent can remember what it has seen during the game.
+ */
+public interface Agent {
+
+  /**
+   * Take one turn for a player, either by moving the player or by shooting an arrow.
+   * @param maze the maze the game is played in
+   * @param player the player to take the turn for
+   * @param random the random number generator of the game, to be used for every random choice so
+   *               that the game can be played again
+   */
+  void takeTurn(Maze maze, int player, Random random);
+}
@@ -0,0 +1,176 @@
+package mazesimulation;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import mazeio.FileOutput;
+import mazemodel.TurnOutcome;
+
+/**
+ * A writer of game journals, which record a game played on a NonPerfectMaze closely enough for
+ * a JournalReplayer to play it again and check that every turn ends the same way.
+ *
+ * <p>The journal starts with a header of nine ints: a magic number, the format version, and the
+ * number of rows and columns, whether the maze wraps, the seed, the number of walls remaining and
+ * the percentages of pits and bats that the maze was generated with. Every command of the game
+ * follows, in the order it was taken. A command starts with a byte that holds its kind in the
+ * high bits, its player in the middle bits and its direction in the low bits. A shot then holds
+ * the number of caves, and a new player holds its row, column and arrows. Every command ends with
+ * the location the player was left in and the conditions the player was left with. Numbers after
+ * the header are written seven bits to a byte, lowest first, so most commands take four bytes.
+ */
+public class GameJournalWriter implements Closeable, Flushable {
+  static final int MAGIC = 0x4854574A;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 36;
+  static final int MOVE = 0;
+  static final int SHOT = 1;
+  static final int ADD_PLAYER = 2;
+  static final int MAX_PLAYERS = 16;
+
+  private static final int MAX_COMMAND_SIZE = 1 + 5 * 4 + 1;
+
+  private final FileOutput output;
+  private long numCommands;
+  private boolean closed;
+
+  /**
+   * Construct a GameJournalWriter object, creating the file or replacing what is in it.
+   * @param file the journal file
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param seed the seed the maze was generated with
+   * @param numWallsRemaining the number of walls that remain erected in the maze
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @throws IOException if the file cannot be opened or written
+   * @throws IllegalArgumentException if the maze has no seed
+   */
+  public GameJournalWriter(Path file, int numRows, int numCols, boolean wrapping, int seed,
+                           int numWallsRemaining, int pitPercent, int batPercent)
+          throws IOException {
+    if (seed < 0) {
+      throw new IllegalArgumentException("a game can only be journaled on a maze with a seed");
+    }
+    this.output = new FileOutput(file);
+    this.output.reserve(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(numRows).putInt(numCols)
+            .putInt(wrapping ? 1 : 0).putInt(seed).putInt(numWallsRemaining).putInt(pitPercent)
+            .putInt(batPercent);
+  }
+
+  /**
+   * Record that a player was added to the game.
+   * @param player the player that was added
+   * @param row the row the player was added at
+   * @param col the column the player was added at
+   * @param arrows the arrows the player was given
+   * @param outcome the outcome of the player once added
+   * @throws IOException if the journal cannot be written
+   */
+  public void recordAddPlayer(int player, int row, int col, int arrows, TurnOutcome outcome)
+          throws IOException {
+    ByteBuffer buffer = this.startCommand(ADD_PLAYER, player, 0);
+    putNumber(buffer, row);
+    putNumber(buffer, col);
+    putNumber(buffer, arrows);
+    this.endCommand(buffer, outcome);
+  }
+
+  /**
+   * Record a move.
+   * @param player the player that moved
+   * @param direction the direction of the move
+   * @param outcome the outcome of the move
+   * @throws IOException if the journal cannot be written
+   */
+  public void recordMove(int player, int direction, TurnOutcome outcome) throws IOException {
+    ByteBuffer buffer = this.startCommand(MOVE, player, direction);
+    this.endCommand(buffer, outcome);
+  }
+
+  /**
+   * Record a shot.
+   * @param player the player that shot
+   * @param direction the direction of the shot
+   * @param caves the number of caves the arrow was shot through
+   * @param outcome the outcome of the shot
+   * @throws IOException if the journal cannot be written
+   */
+  public void recordShot(int player, int direction, int caves, TurnOutcome outcome)
+          throws IOException {
+    ByteBuffer buffer = this.startCommand(SHOT, player, direction);
+    putNumber(buffer, caves);
+    this.endCommand(buffer, outcome);
+  }
+
+  /**
+   * Get the number of commands recorded so far.
+   * @return the number of commands
+   */
+  public long getNumCommands() {
+    return this.numCommands;
+  }
+
+  /**
+   * Write the commands recorded so far to the file, so that they are kept even if the game stops
+   * without the journal being closed.
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void flush() throws IOException {
+    if (this.closed) {
+      throw new IllegalStateException("writer is closed");
+    }
+    this.output.flush();
+  }
+
+  /**
+   * Write the commands that are left and close the file.
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.output.close();
+  }
+
+  private ByteBuffer startCommand(int kind, int player, int direction) throws IOException {
+    if (this.closed) {
+      throw new IllegalStateException("writer is closed");
+    }
+    if (player < 0 || player >= MAX_PLAYERS) {
+      throw new IllegalArgumentException("only " + MAX_PLAYERS + " players can be journaled");
+    }
+    ByteBuffer buffer = this.output.reserve(MAX_COMMAND_SIZE);
+    buffer.put((byte) ((kind << 6) | (player << 2) | direction));
+    return buffer;
+  }
+
+  private void endCommand(ByteBuffer buffer, TurnOutcome outcome) {
+    putNumber(buffer, outcome.getLocation());
+    buffer.put((byte) outcome.getConditions());
+    this.numCommands += 1;
+  }
+
+  /**
+   * Put a number that is not negative, seven bits to a byte, with the high bit of each byte set
+   * when more bytes follow.
+   */
+  private static void putNumber(ByteBuffer buffer, int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("journaled numbers cannot be negative");
+    }
+    while (value >= 0x80) {
+      buffer.put((byte) (value | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+}
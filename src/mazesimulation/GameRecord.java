@@ -0,0 +1,69 @@
+package mazesimulation;
+
+/**
+ * The record of a single simulated game: the seed it was played with, how it ended, how many
+ * turns it took, how many arrows were shot and how many times bats carried the player away.
+ */
+public class GameRecord {
+  private final int seed;
+  private final GameResult result;
+  private final int turns;
+  private final int arrowsUsed;
+  private final int batTransports;
+
+  /**
+   * Construct a GameRecord object.
+   * @param seed the seed the game was played with
+   * @param result how the game ended
+   * @param turns the number of turns taken
+   * @param arrowsUsed the number of arrows shot
+   * @param batTransports the number of times bats carried the player away
+   */
+  public GameRecord(int seed, GameResult result, int turns, int arrowsUsed, int batTransports) {
+    this.seed = seed;
+    this.result = result;
+    this.turns = turns;
+    this.arrowsUsed = arrowsUsed;
+    this.batTransports = batTransports;
+  }
+
+  /**
+   * Get the seed the game was played with.
+   * @return the seed of the game
+   */
+  public int getSeed() {
+    return this.seed;
+  }
+
+  /**
+   * Get how the game ended.
+   * @return the result of the game
+   */
+  public GameResult getResult() {
+    return this.result;
+  }
+
+  /**
+   * Get the number of turns taken.
+   * @return the number of turns taken
+   */
+  public int getTurns() {
+    return this.turns;
+  }
+
+  /**
+   * Get the number of arrows shot.
+   * @return the number of arrows shot
+   */
+  public int getArrowsUsed() {
+    return this.arrowsUsed;
+  }
+
+  /**
+   * Get the number of times bats carried the player away.
+   * @return the number of bat transports
+   */
+  public int getBatTransports() {
+    return this.batTransports;
+  }
+}
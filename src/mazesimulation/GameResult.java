@@ -0,0 +1,12 @@
+package mazesimulation;
+
+/**
+ * The ways a simulated game of Hunt the Wumpus can end.
+ */
+public enum GameResult {
+  WON,
+  EATEN,
+  FALLEN,
+  OUT_OF_ARROWS,
+  UNFINISHED
+}
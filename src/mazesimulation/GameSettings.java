@@ -0,0 +1,135 @@
+package mazesimulation;
+
+/**
+ * The settings shared by every game of a simulation: the shape of the maze, how many of its caves
+ * hold pits and bats, how many arrows the player starts with, and how many turns a game may last.
+ */
+public class GameSettings {
+  private final int numRows;
+  private final int numCols;
+  private final boolean wrapping;
+  private final int numWalls;
+  private final int pitPercent;
+  private final int batPercent;
+  private final int arrows;
+  private final int maxTurns;
+
+  /**
+   * Construct a GameSettings object.
+   * @param numRows the number of rows in the maze
+   * @param numCols the number of columns in the maze
+   * @param wrapping a boolean representing whether or not the maze is wrapping
+   * @param numWalls the number of walls that should remain erected in the maze
+   * @param pitPercent the percentage of caves that have pits
+   * @param batPercent the percentage of caves that have bats
+   * @param arrows the number of arrows the player starts with
+   * @param maxTurns the number of turns after which a game is stopped as unfinished
+   */
+  public GameSettings(int numRows, int numCols, boolean wrapping, int numWalls, int pitPercent,
+                      int batPercent, int arrows, int maxTurns) {
+    if (arrows < 0) {
+      throw new IllegalArgumentException("number of arrows cannot be negative");
+    }
+    if (maxTurns < 1) {
+      throw new IllegalArgumentException("maximum number of turns must be positive");
+    }
+    this.numRows = numRows;
+    this.numCols = numCols;
+    this.wrapping = wrapping;
+    this.numWalls = numWalls;
+    this.pitPercent = pitPercent;
+    this.batPercent = batPercent;
+    this.arrows = arrows;
+    this.maxTurns = maxTurns;
+  }
+
+  /**
+   * Get the number of rows in the maze.
+   * @return the number of rows in the maze
+   */
+  public int getNumRows() {
+    return this.numRows;
+  }
+
+  /**
+   * Get the number of columns in the maze.
+   * @return the number of columns in the maze
+   */
+  public int getNumCols() {
+    return this.numCols;
+  }
+
+  /**
+   * Return whether or not the maze is wrapping.
+   * @return true if the maze is wrapping, false otherwise
+   */
+  public boolean isWrapping() {
+    return this.wrapping;
+  }
+
+  /**
+   * Get the number of walls that remain erected in the maze.
+   * @return the number of walls that remain erected in the maze
+   */
+  public int getNumWalls() {
+    return this.numWalls;
+  }
+
+  /**
+   * Get the percentage of caves that have pits.
+   * @return the percentage of caves that have pits
+   */
+  public int getPitPercent() {
+    return this.pitPercent;
+  }
+
+  /**
+   * Get the percentage of caves that have bats.
+   * @return the percentage of caves that have bats
+   */
+  public int getBatPercent() {
+    return this.batPercent;
+  }
+
+  /**
+   * Get the number of arrows the player starts with.
+   * @return the number of arrows the player starts with
+   */
+  public int getArrows() {
+    return this.arrows;
+  }
+
+  /**
+   * Get the number of turns after which a game is stopped as unfinished.
+   * @return the maximum number of turns in a game
+   */
+  public int getMaxTurns() {
+    return this.maxTurns;
+  }
+
+  /**
+   * Write the settings as a line of values separated by spaces.
+   * @return the settings as a line of text
+   */
+  String toRecord() {
+    return this.numRows + " " + this.numCols + " " + this.wrapping + " " + this.numWalls + " "
+            + this.pitPercent + " " + this.batPercent + " " + this.arrows + " " + this.maxTurns;
+  }
+
+  /**
+   * Read settings that were written by toRecord.
+   * @param record the settings as a line of text
+   * @return the settings
+   * @throws IllegalArgumentException if the line is not a valid record
+   */
+  static GameSettings fromRecord(String record) {
+    String[] fields = record.trim().split(" ");
+    if (fields.length != 8 || !(fields[2].equals("true") || fields[2].equals("false"))) {
+      throw new IllegalArgumentException("not a valid record");
+    }
+    return new GameSettings(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+            Boolean.parseBoolean(fields[2]), Integer.parseInt(fields[3]),
+            Integer.parseInt(fields[4]), Integer.parseInt(fields[5]), Integer.parseInt(fields[6]),
+            Integer.parseInt(fields[7]));
+  }
+}
@@ -0,0 +1,179 @@
+package mazesimulation;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import mazemodel.NonPerfectMaze;
+
+/**
+ * A replayer of the game journals written by GameJournalWriter. A journal is played again on a
+ * maze generated from the seed and parameters in its header, without a view, and every command is
+ * checked against the location and conditions the journal says it ended with. Commands are played
+ * through the primitive methods of the maze, so a journal plays as fast as the maze can take
+ * turns.
+ *
+ * <p>A directory of journals can be checked at once, one journal per task on a work-stealing pool,
+ * so a directory of journals from earlier games can be used to check that a change to the maze
+ * still plays every game the same way.
+ */
+public class JournalReplayer {
+  private final int parallelism;
+
+  /**
+   * Construct a JournalReplayer object.
+   * @param parallelism the number of threads to play journals on
+   */
+  public JournalReplayer(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Play a journal again and check every command.
+   * @param journal the journal file
+   * @return the result of playing the journal
+   * @throws IOException if the file cannot be read or is not a journal
+   */
+  public ReplayResult replay(Path journal) throws IOException {
+    return this.replay(ByteBuffer.wrap(Files.readAllBytes(journal)));
+  }
+
+  /**
+   * Play every journal in a directory again, on the threads of the replayer.
+   * @param directory the directory, in which every regular file is taken as a journal
+   * @return the result of each journal, by path
+   * @throws IOException if the directory cannot be listed
+   */
+  public SortedMap<Path, ReplayResult> verify(Path directory) throws IOException {
+    List<Path> journals;
+    try (Stream<Path> files = Files.list(directory)) {
+      journals = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+
+    List<Callable<ReplayResult>> tasks = new ArrayList<>();
+    for (Path journal : journals) {
+      tasks.add(() -> {
+        try {
+          return this.replay(journal);
+        } catch (IOException e) {
+          return new ReplayResult(0, -1, e.getMessage());
+        }
+      });
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    SortedMap<Path, ReplayResult> results = new TreeMap<>();
+    try {
+      List<Future<ReplayResult>> played = pool.invokeAll(tasks);
+      for (int i = 0; i < journals.size(); i++) {
+        results.put(journals.get(i), played.get(i).get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("verification was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("journal could not be played", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+    return results;
+  }
+
+  private ReplayResult replay(ByteBuffer input) throws IOException {
+    if (input.remaining() < GameJournalWriter.HEADER_SIZE
+            || input.getInt() != GameJournalWriter.MAGIC) {
+      throw new IOException("not a game journal");
+    }
+    if (input.getInt() != GameJournalWriter.VERSION) {
+      throw new IOException("game journal was written by a different version");
+    }
+    int numRows = input.getInt();
+    int numCols = input.getInt();
+    boolean wrapping = input.getInt() != 0;
+    int seed = input.getInt();
+    int numWalls = input.getInt();
+    int pitPercent = input.getInt();
+    int batPercent = input.getInt();
+
+    NonPerfectMaze maze;
+    try {
+      maze = new NonPerfectMaze(numRows, numCols, wrapping, seed, numWalls, pitPercent,
+              batPercent);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("game journal is damaged", e);
+    }
+
+    long command = 0;
+    int numPlayers = 0;
+    try {
+      while (input.hasRemaining()) {
+        int code = input.get() & 0xFF;
+        int player = (code >>> 2) & (GameJournalWriter.MAX_PLAYERS - 1);
+        int direction = code & 3;
+        try {
+          switch (code >>> 6) {
+            case GameJournalWriter.MOVE:
+              maze.movePlayer(direction, player, null);
+              break;
+            case GameJournalWriter.SHOT:
+              maze.shootArrow(direction, getNumber(input), player);
+              break;
+            case GameJournalWriter.ADD_PLAYER:
+              // players are added in order, so a new player always takes the next index
+              if (player != numPlayers) {
+                throw new IOException("game journal is damaged");
+              }
+              maze.addPlayer(getNumber(input), getNumber(input), getNumber(input));
+              numPlayers += 1;
+              break;
+            default:
+              throw new IOException("game journal is damaged");
+          }
+
+          int location = getNumber(input);
+          int conditions = input.get();
+          if (maze.getPlayerLocation(player) != location
+                  || maze.getConditionMask(player) != conditions) {
+            return new ReplayResult(command, command, null);
+          }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          return new ReplayResult(command, command, null);
+        }
+        command += 1;
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IOException("game journal is damaged");
+    }
+    return new ReplayResult(command, -1, null);
+  }
+
+  /**
+   * Get a number written seven bits to a byte, lowest first.
+   */
+  private static int getNumber(ByteBuffer input) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int next = input.get();
+      value |= (next & 0x7F) << shift;
+      if (next >= 0) {
+        return value;
+      }
+    }
+    throw new IOException("game journal is damaged");
+  }
+}
@@ -0,0 +1,95 @@
+package mazesimulation;
+
+import java.util.Arrays;
+
+/**
+ * A grid of game settings made of every combination of a list of values for each maze parameter.
+ * The combinations are numbered with the number of rows changing slowest and the number of arrows
+ * changing fastest.
+ */
+public class ParameterGrid {
+  private final int[] rows;
+  private final int[] cols;
+  private final int[] walls;
+  private final int[] pitPercents;
+  private final int[] batPercents;
+  private final boolean[] wrapping;
+  private final int[] arrows;
+  private final int maxTurns;
+
+  /**
+   * Construct a ParameterGrid object.
+   * @param rows the numbers of rows to try
+   * @param cols the numbers of columns to try
+   * @param walls the numbers of remaining walls to try
+   * @param pitPercents the percentages of caves with pits to try
+   * @param batPercents the percentages of caves with bats to try
+   * @param wrapping whether or not the maze wraps, to try
+   * @param arrows the numbers of arrows to try
+   * @param maxTurns the number of turns after which every game is stopped as unfinished
+   */
+  public ParameterGrid(int[] rows, int[] cols, int[] walls, int[] pitPercents, int[] batPercents,
+                       boolean[] wrapping, int[] arrows, int maxTurns) {
+    this.rows = this.copyValues(rows);
+    this.cols = this.copyValues(cols);
+    this.walls = this.copyValues(walls);
+    this.pitPercents = this.copyValues(pitPercents);
+    this.batPercents = this.copyValues(batPercents);
+    if (wrapping == null || wrapping.length == 0) {
+      throw new IllegalArgumentException("every parameter needs at least one value");
+    }
+    this.wrapping = Arrays.copyOf(wrapping, wrapping.length);
+    this.arrows = this.copyValues(arrows);
+    this.maxTurns = maxTurns;
+  }
+
+  /**
+   * Get the number of combinations in the grid.
+   * @return the number of combinations
+   */
+  public int getNumConfigurations() {
+    return this.rows.length * this.cols.length * this.walls.length * this.pitPercents.length
+            * this.batPercents.length * this.wrapping.length * this.arrows.length;
+  }
+
+  /**
+   * Get the settings of one combination in the grid.
+   * @param index the number of the combination
+   * @return the settings of the combination
+   */
+  public GameSettings getSettings(int index) {
+    if (index < 0 || index >= this.getNumConfigurations()) {
+      throw new IllegalArgumentException("not a valid configuration");
+    }
+    int arrows = this.arrows[index % this.arrows.length];
+    index /= this.arrows.length;
+    boolean wrapping = this.wrapping[index % this.wrapping.length];
+    index /= this.wrapping.length;
+    int bats = this.batPercents[index % this.batPercents.length];
+    index /= this.batPercents.length;
+    int pits = this.pitPercents[index % this.pitPercents.length];
+    index /= this.pitPercents.length;
+    int walls = this.walls[index % this.walls.length];
+    index /= this.walls.length;
+    int cols = this.cols[index % this.cols.length];
+    index /= this.cols.length;
+    int rows = this.rows[index];
+    return new GameSettings(rows, cols, wrapping, walls, pits, bats, arrows, this.maxTurns);
+  }
+
+  @Override
+  public String toString() {
+    return "rows=" + Arrays.toString(this.rows) + " cols=" + Arrays.toString(this.cols)
+            + " walls=" + Arrays.toString(this.walls) + " pits=" + Arrays.toString(this.pitPercents)
+            + " bats=" + Arrays.toString(this.batPercents)
+            + " wrapping=" + Arrays.toString(this.wrapping) + " arrows="
+            + Arrays.toString(this.arrows) + " turns=" + this.maxTurns;
+  }
+
+  private int[] copyValues(int[] values) {
+    if (values == null || values.length == 0) {
+      throw new IllegalArgumentException("every parameter needs at least one value");
+    }
+    return Arrays.copyOf(values, values.length);
+  }
+}
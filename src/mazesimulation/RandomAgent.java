@@ -0,0 +1,32 @@
+package mazesimulation;
+
+import java.util.Random;
+
+import mazemodel.Maze;
+import mazemodel.TurnOutcome;
+
+/**
+ * An agent that wanders through the maze at random. When it smells the wumpus it shoots an arrow
+ * through a single cave in a random direction, and otherwise it moves in a random direction.
+ */
+public class RandomAgent implements Agent {
+
+  @Override
+  public void takeTurn(Maze maze, int player, Random random) {
+    int validMoves = maze.getValidMoveMask(player);
+    int choice = random.nextInt(Integer.bitCount(validMoves));
+    int direction = -1;
+    while (choice >= 0) {
+      direction += 1;
+      if ((validMoves & (1 << direction)) != 0) {
+        choice -= 1;
+      }
+    }
+
+    if ((maze.getConditionMask(player) & TurnOutcome.SMELL_WUMPUS) != 0) {
+      maze.shootArrow(direction, 1, player);
+    } else {
+      maze.movePlayer(direction, player, null);
+    }
+  }
+}
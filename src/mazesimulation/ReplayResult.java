@@ -0,0 +1,67 @@
+package mazesimulation;
+
+/**
+ * The result of playing a game journal again: how many of its commands were played, and the first
+ * command that did not end the way the journal says, if any.
+ */
+public class ReplayResult {
+  private final long numCommands;
+  private final long firstMismatch;
+  private final String problem;
+
+  /**
+   * Construct a ReplayResult object.
+   * @param numCommands the number of commands played
+   * @param firstMismatch the index of the first command that did not end the way the journal
+   *                      says, or -1 if every command did
+   * @param problem why the journal could not be played, or null if it could
+   */
+  public ReplayResult(long numCommands, long firstMismatch, String problem) {
+    this.numCommands = numCommands;
+    this.firstMismatch = firstMismatch;
+    this.problem = problem;
+  }
+
+  /**
+   * Get the number of commands played, which stops at the first command that did not end the way
+   * the journal says.
+   * @return the number of commands played
+   */
+  public long getNumCommands() {
+    return this.numCommands;
+  }
+
+  /**
+   * Get the index of the first command that did not end the way the journal says.
+   * @return the index of the command, or -1 if every command did
+   */
+  public long getFirstMismatch() {
+    return this.firstMismatch;
+  }
+
+  /**
+   * Get why the journal could not be played.
+   * @return the problem, or null if the journal could be played
+   */
+  public String getProblem() {
+    return this.problem;
+  }
+
+  /**
+   * Return whether every command of the journal was played and ended the way the journal says.
+   * @return true if the journal was verified, false otherwise
+   */
+  public boolean isVerified() {
+    return this.firstMismatch < 0 && this.problem == null;
+  }
+
+  @Override
+  public String toString() {
+    if (this.problem != null) {
+      return "could not be played: " + this.problem;
+    } else if (this.firstMismatch >= 0) {
+      return "command " + this.firstMismatch + " did not match";
+    }
+    return this.numCommands + " commands verified";
+  }
+}
@@ -0,0 +1,61 @@
+package mazesimulation;
+
+/**
+ * The columns of a result file, one for each number kept about a game, in the order they are
+ * stored.
+ */
+public enum ResultColumn {
+  SEED,
+  NUM_ROWS,
+  NUM_COLS,
+  WRAPPING,
+  NUM_WALLS,
+  PIT_PERCENT,
+  BAT_PERCENT,
+  ARROWS,
+  MAX_TURNS,
+  RESULT,
+  TURNS,
+  ARROWS_USED,
+  BAT_TRANSPORTS;
+
+  /**
+   * Get the value of the column for a game. A boolean is stored as 0 or 1 and a result as the
+   * position of its constant in GameResult.
+   * @param settings the settings the game was played with
+   * @param record the record of the game
+   * @return the value of the column
+   */
+  int getValue(GameSettings settings, GameRecord record) {
+    switch (this) {
+      case SEED:
+        return record.getSeed();
+      case NUM_ROWS:
+        return settings.getNumRows();
+      case NUM_COLS:
+        return settings.getNumCols();
+      case WRAPPING:
+        return settings.isWrapping() ? 1 : 0;
+      case NUM_WALLS:
+        return settings.getNumWalls();
+      case PIT_PERCENT:
+        return settings.getPitPercent();
+      case BAT_PERCENT:
+        return settings.getBatPercent();
+      case ARROWS:
+        return settings.getArrows();
+      case MAX_TURNS:
+        return settings.getMaxTurns();
+      case RESULT:
+        return record.getResult().ordinal();
+      case TURNS:
+        return record.getTurns();
+      case ARROWS_USED:
+        return record.getArrowsUsed();
+      case BAT_TRANSPORTS:
+        return record.getBatTransports();
+      default:
+        throw new IllegalStateException("unknown column");
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package mazesimulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A reader of the result files written by ResultFileWriter. Only the footer is read when the file
+ * is opened, and each column of each block is read and unpacked only when it is asked for, so
+ * adding up one column of a file never touches the bytes of the other columns.
+ */
+public class ResultFileReader implements Closeable {
+  private static final ResultColumn[] COLUMNS = ResultColumn.values();
+
+  private final FileChannel channel;
+  private final int numBlocks;
+  private final int[] blockSizes;
+  private final long[] chunkOffsets;
+  private final int[] chunkLengths;
+  private ByteBuffer input;
+  private long numRecords;
+
+  /**
+   * Construct a ResultFileReader object.
+   * @param file the result file
+   * @throws IOException if the file cannot be read or is not a result file
+   */
+  public ResultFileReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = this.channel.size();
+      if (size < ResultFileWriter.HEADER_SIZE + ResultFileWriter.TRAILER_SIZE) {
+        throw new IOException("not a result file");
+      }
+      ByteBuffer header = this.read(0, ResultFileWriter.HEADER_SIZE);
+      if (header.getInt() != ResultFileWriter.MAGIC) {
+        throw new IOException("not a result file");
+      }
+      if (header.getInt() != ResultFileWriter.VERSION || header.getInt() != COLUMNS.length) {
+        throw new IOException("result file was written by a different version");
+      }
+
+      ByteBuffer trailer = this.read(size - ResultFileWriter.TRAILER_SIZE,
+              ResultFileWriter.TRAILER_SIZE);
+      this.numBlocks = trailer.getInt();
+      long footerOffset = trailer.getLong();
+      int footerEntry = 4 + ResultFileWriter.FOOTER_ENTRY_SIZE * COLUMNS.length;
+      if (trailer.getInt() != ResultFileWriter.MAGIC || this.numBlocks < 0
+              || footerOffset + (long) this.numBlocks * footerEntry
+              != size - ResultFileWriter.TRAILER_SIZE) {
+        throw new IOException("result file is damaged");
+      }
+
+      this.blockSizes = new int[this.numBlocks];
+      this.chunkOffsets = new long[this.numBlocks * COLUMNS.length];
+      this.chunkLengths = new int[this.numBlocks * COLUMNS.length];
+      ByteBuffer footer = this.read(footerOffset, this.numBlocks * footerEntry);
+      for (int block = 0; block < this.numBlocks; block++) {
+        this.blockSizes[block] = footer.getInt();
+        this.numRecords += this.blockSizes[block];
+        for (int i = 0; i < COLUMNS.length; i++) {
+          this.chunkOffsets[block * COLUMNS.length + i] = footer.getLong();
+          this.chunkLengths[block * COLUMNS.length + i] = footer.getInt();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      this.channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Get the number of records in the file.
+   * @return the number of records
+   */
+  public long getNumRecords() {
+    return this.numRecords;
+  }
+
+  /**
+   * Get the number of blocks the records are stored in.
+   * @return the number of blocks
+   */
+  public int getNumBlocks() {
+    return this.numBlocks;
+  }
+
+  /**
+   * Read the values of one column for the records of one block.
+   * @param block the block
+   * @param column the column
+   * @return the values of the column, in the order the records were written
+   * @throws IOException if the file cannot be read or is damaged
+   */
+  public int[] readColumn(int block, ResultColumn column) throws IOException {
+    if (block < 0 || block >= this.numBlocks) {
+      throw new IllegalArgumentException("not a valid block");
+    }
+    int numValues = this.blockSizes[block];
+    int chunk = block * COLUMNS.length + column.ordinal();
+    ByteBuffer chunkBytes = this.read(this.chunkOffsets[chunk], this.chunkLengths[chunk]);
+    long min = chunkBytes.getInt();
+    int bits = chunkBytes.get();
+    if (bits < 0 || bits > 32 || this.chunkLengths[chunk] != ResultFileWriter.CHUNK_HEADER_SIZE
+            + ResultFileWriter.getNumWords(numValues, bits) * 8) {
+      throw new IOException("result file is damaged");
+    }
+
+    // take each value from the lowest bits of the longs that are left, reading the next long
+    // when the bits that are left run out in the middle of a value
+    int[] values = new int[numValues];
+    long mask = (1L << bits) - 1;
+    long word = 0;
+    int available = 0;
+    for (int i = 0; i < numValues; i++) {
+      long difference;
+      if (available >= bits) {
+        difference = word & mask;
+        word >>>= bits;
+        available -= bits;
+      } else {
+        long next = chunkBytes.getLong();
+        difference = (word | (next << available)) & mask;
+        word = next >>> (bits - available);
+        available += 64 - bits;
+      }
+      values[i] = (int) (min + difference);
+    }
+    return values;
+  }
+
+  /**
+   * Add up a column over every record.
+   * @param column the column
+   * @return the sum of the column
+   * @throws IOException if the file cannot be read or is damaged
+   */
+  public long sum(ResultColumn column) throws IOException {
+    long total = 0;
+    for (int block = 0; block < this.numBlocks; block++) {
+      for (int value : this.readColumn(block, column)) {
+        total += value;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Count how the games ended for each value of a column, reading only that column and the
+   * results.
+   * @param key the column to group the games by
+   * @return for each value of the column, in increasing order, the number of games that ended
+   *         each way, indexed by the position of the constant in GameResult
+   * @throws IOException if the file cannot be read or is damaged
+   */
+  public SortedMap<Integer, long[]> countResults(ResultColumn key) throws IOException {
+    SortedMap<Integer, long[]> counts = new TreeMap<>();
+    int numResults = GameResult.values().length;
+    for (int block = 0; block < this.numBlocks; block++) {
+      int[] keys = this.readColumn(block, key);
+      int[] results = this.readColumn(block, ResultColumn.RESULT);
+      for (int i = 0; i < keys.length; i++) {
+        long[] keyCounts = counts.get(keys[i]);
+        if (keyCounts == null) {
+          keyCounts = new long[numResults];
+          counts.put(keys[i], keyCounts);
+        }
+        keyCounts[results[i]] += 1;
+      }
+    }
+    return counts;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * Read part of the file into a direct buffer that is reused from read to read.
+   */
+  private ByteBuffer read(long offset, int length) throws IOException {
+    if (this.input == null || this.input.capacity() < length) {
+      this.input = ByteBuffer.allocateDirect(Math.max(length, 1 << 16));
+    }
+    this.input.clear().limit(length);
+    while (this.input.hasRemaining()) {
+      if (this.channel.read(this.input, offset + this.input.position()) < 0) {
+        throw new IOException("result file is damaged");
+      }
+    }
+    this.input.flip();
+    return this.input;
+  }
+}
@@ -0,0 +1,185 @@
+package mazesimulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import mazeio.FileOutput;
+
+/**
+ * A writer of game records to a binary result file that is laid out by column. Records are
+ * gathered into blocks, and each column of a block is compressed on its own, so that a reader can
+ * go through one column of every game without reading or decoding the others.
+ *
+ * <p>A column of a block is compressed by storing the smallest value of the block once and every
+ * value as its difference from the smallest value, packed into just as many bits as the largest
+ * difference needs. Every value of the column then takes the same number of bits, so the column
+ * is still fixed width, and a column that holds the same value for every record of a block, as
+ * the settings usually do, takes no bits per value at all.
+ *
+ * <p>The file starts with a header of three ints: a magic number, the format version and the
+ * number of columns. The columns of each block follow, block after block, each one being its
+ * smallest value, its number of bits per value and then its packed values in longs. A footer then
+ * lists, for every block, its number of records and the offset and length of each of its columns.
+ * The file ends with the number of blocks, the offset of the footer and the magic number again,
+ * so the footer is found from the end of the file.
+ */
+public class ResultFileWriter implements Closeable {
+  static final int MAGIC = 0x48545752;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 12;
+  static final int TRAILER_SIZE = 16;
+  static final int FOOTER_ENTRY_SIZE = 12;
+  static final int CHUNK_HEADER_SIZE = 5;
+  static final int RECORDS_PER_BLOCK = 1 << 16;
+
+  private static final ResultColumn[] COLUMNS = ResultColumn.values();
+
+  private final FileOutput output;
+  private final int[][] columns;
+  private int blockSize;
+  private int numBlocks;
+  private int[] blockSizes;
+  private long[] chunkOffsets;
+  private int[] chunkLengths;
+  private long numRecords;
+  private boolean closed;
+
+  /**
+   * Construct a ResultFileWriter object, creating the file or replacing what is in it.
+   * @param file the result file
+   * @throws IOException if the file cannot be opened or written
+   */
+  public ResultFileWriter(Path file) throws IOException {
+    this.output = new FileOutput(file);
+    this.columns = new int[COLUMNS.length][RECORDS_PER_BLOCK];
+    this.blockSizes = new int[16];
+    this.chunkOffsets = new long[16 * COLUMNS.length];
+    this.chunkLengths = new int[16 * COLUMNS.length];
+
+    this.output.reserve(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(COLUMNS.length);
+    this.output.flush();
+  }
+
+  /**
+   * Add the record of a game.
+   * @param settings the settings the game was played with
+   * @param record the record of the game
+   * @throws IOException if a full block cannot be written
+   * @throws IllegalStateException if the writer is closed
+   */
+  public void add(GameSettings settings, GameRecord record) throws IOException {
+    if (this.closed) {
+      throw new IllegalStateException("writer is closed");
+    }
+    for (int i = 0; i < COLUMNS.length; i++) {
+      this.columns[i][this.blockSize] = COLUMNS[i].getValue(settings, record);
+    }
+    this.blockSize += 1;
+    this.numRecords += 1;
+    if (this.blockSize == RECORDS_PER_BLOCK) {
+      this.writeBlock();
+    }
+  }
+
+  /**
+   * Get the number of records added so far.
+   * @return the number of records
+   */
+  public long getNumRecords() {
+    return this.numRecords;
+  }
+
+  /**
+   * Write the records that are left and the footer, and close the file.
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    try {
+      if (this.blockSize > 0) {
+        this.writeBlock();
+      }
+
+      long footerOffset = this.output.getPosition();
+      for (int block = 0; block < this.numBlocks; block++) {
+        this.output.reserve(4).putInt(this.blockSizes[block]);
+        for (int i = 0; i < COLUMNS.length; i++) {
+          int chunk = block * COLUMNS.length + i;
+          this.output.reserve(FOOTER_ENTRY_SIZE).putLong(this.chunkOffsets[chunk])
+                  .putInt(this.chunkLengths[chunk]);
+        }
+      }
+      this.output.reserve(TRAILER_SIZE).putInt(this.numBlocks).putLong(footerOffset)
+              .putInt(MAGIC);
+    } finally {
+      this.output.close();
+    }
+  }
+
+  /**
+   * Pack and write each column of the block that is being gathered, and start a new block.
+   */
+  private void writeBlock() throws IOException {
+    if (this.numBlocks == this.blockSizes.length) {
+      this.blockSizes = Arrays.copyOf(this.blockSizes, this.numBlocks * 2);
+      this.chunkOffsets = Arrays.copyOf(this.chunkOffsets, this.chunkOffsets.length * 2);
+      this.chunkLengths = Arrays.copyOf(this.chunkLengths, this.chunkLengths.length * 2);
+    }
+    this.blockSizes[this.numBlocks] = this.blockSize;
+
+    for (int i = 0; i < COLUMNS.length; i++) {
+      int[] values = this.columns[i];
+      int min = values[0];
+      int max = values[0];
+      for (int value = 1; value < this.blockSize; value++) {
+        min = Math.min(min, values[value]);
+        max = Math.max(max, values[value]);
+      }
+      int bits = 64 - Long.numberOfLeadingZeros((long) max - min);
+
+      int chunk = this.numBlocks * COLUMNS.length + i;
+      this.chunkOffsets[chunk] = this.output.getPosition();
+      this.chunkLengths[chunk] = CHUNK_HEADER_SIZE + getNumWords(this.blockSize, bits) * 8;
+      this.output.reserve(CHUNK_HEADER_SIZE).putInt(min).put((byte) bits);
+      if (bits == 0) {
+        continue;
+      }
+
+      // fill each long from its lowest bit up, carrying the high bits of a value that does not
+      // fit into the next long
+      long word = 0;
+      int filled = 0;
+      for (int value = 0; value < this.blockSize; value++) {
+        long difference = (long) values[value] - min;
+        word |= difference << filled;
+        filled += bits;
+        if (filled >= 64) {
+          this.output.reserve(8).putLong(word);
+          filled -= 64;
+          word = filled == 0 ? 0 : difference >>> (bits - filled);
+        }
+      }
+      if (filled > 0) {
+        this.output.reserve(8).putLong(word);
+      }
+    }
+    this.numBlocks += 1;
+    this.blockSize = 0;
+  }
+
+  /**
+   * Get the number of longs that a number of values take when packed.
+   * @param numValues the number of values
+   * @param bits the number of bits of each value
+   * @return the number of longs
+   */
+  static int getNumWords(int numValues, int bits) {
+    return (int) (((long) numValues * bits + 63) / 64);
+  }
+}
@@ -0,0 +1,333 @@
+package mazesimulation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A runner that plays many games in separate worker processes, so that each process has a heap
+ * and a garbage collector of its own. The seeds are cut into leases, and each worker is handed
+ * one lease at a time over its standard input and answers with the totals of the lease over its
+ * standard output, as described by SimulationWorker.
+ *
+ * <p>When a worker stops before answering, or does not answer a lease in time and is killed, its
+ * lease is handed out again and the worker is replaced. A lease that has been lost by several
+ * workers in a row stops the simulation. Since every game depends only on its seed, the totals
+ * are the same as those of a SimulationRunner over the same seeds, however the leases were spread
+ * over the workers.
+ */
+public class SimulationCoordinator {
+  private static final int MAX_ATTEMPTS = 3;
+  private static final long STOP_TIMEOUT_SECONDS = 5;
+  private static final long DEFAULT_LEASE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  private final GameSettings settings;
+  private final int numWorkers;
+  private final int gamesPerLease;
+  private final WorkerLauncher launcher;
+  private final long leaseTimeoutMillis;
+
+  /**
+   * Construct a SimulationCoordinator object that gives a worker ten minutes to answer a lease.
+   * @param settings the settings shared by every game
+   * @param numWorkers the number of worker processes to run at once
+   * @param gamesPerLease the largest number of games handed to a worker at a time
+   * @param launcher the way of starting worker processes
+   */
+  public SimulationCoordinator(GameSettings settings, int numWorkers, int gamesPerLease,
+                               WorkerLauncher launcher) {
+    this(settings, numWorkers, gamesPerLease, launcher, DEFAULT_LEASE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Construct a SimulationCoordinator object.
+   * @param settings the settings shared by every game
+   * @param numWorkers the number of worker processes to run at once
+   * @param gamesPerLease the largest number of games handed to a worker at a time
+   * @param launcher the way of starting worker processes
+   * @param leaseTimeoutMillis the time a worker has to answer a lease before it is killed
+   */
+  public SimulationCoordinator(GameSettings settings, int numWorkers, int gamesPerLease,
+                               WorkerLauncher launcher, long leaseTimeoutMillis) {
+    if (settings == null || launcher == null) {
+      throw new IllegalArgumentException("settings and launcher cannot be null");
+    }
+    if (numWorkers < 1) {
+      throw new IllegalArgumentException("number of workers must be positive");
+    }
+    if (gamesPerLease < 1) {
+      throw new IllegalArgumentException("number of games per lease must be positive");
+    }
+    if (leaseTimeoutMillis < 1) {
+      throw new IllegalArgumentException("lease timeout must be positive");
+    }
+    this.settings = settings;
+    this.numWorkers = numWorkers;
+    this.gamesPerLease = gamesPerLease;
+    this.launcher = launcher;
+    this.leaseTimeoutMillis = leaseTimeoutMillis;
+  }
+
+  /**
+   * Play one game for every seed in a range on the workers and add up the results.
+   * @param firstSeed the seed of the first game
+   * @param numGames the number of games to play
+   * @return the totals of the games
+   * @throws IOException if a worker cannot be started
+   * @throws IllegalStateException if a lease was lost by too many workers
+   */
+  public SimulationResult run(int firstSeed, int numGames) throws IOException {
+    if (firstSeed < 0 || numGames < 0 || (long) firstSeed + numGames > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("seed range is not valid");
+    }
+
+    long start = System.nanoTime();
+    LeaseBook book = new LeaseBook();
+    for (int seed = firstSeed; seed < firstSeed + numGames; seed += this.gamesPerLease) {
+      book.add(new Lease(seed, Math.min(this.gamesPerLease, firstSeed + numGames - seed)));
+    }
+
+    int numThreads = Math.max(1, Math.min(this.numWorkers, book.getNumLeases()));
+    ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+    ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+    try {
+      List<Future<?>> workers = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        workers.add(pool.submit(() -> {
+          this.serveLeases(book, watchdog);
+          return null;
+        }));
+      }
+
+      for (Future<?> worker : workers) {
+        try {
+          worker.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+          }
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          }
+          throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("simulation was interrupted");
+        }
+      }
+    } finally {
+      book.abort();
+      pool.shutdownNow();
+      watchdog.shutdownNow();
+    }
+
+    SimulationResult result = book.getTotals();
+    result.setElapsedNanos(System.nanoTime() - start);
+    return result;
+  }
+
+  /**
+   * Hand leases to one worker process until there are none left, replacing the process whenever
+   * it stops or is killed for taking too long.
+   */
+  private void serveLeases(LeaseBook book, ScheduledExecutorService watchdog)
+          throws IOException {
+    WorkerConnection worker = null;
+    try {
+      Lease lease;
+      while ((lease = book.take()) != null) {
+        if (worker == null) {
+          worker = new WorkerConnection(this.launcher.launch());
+        }
+        SimulationResult result;
+        try {
+          result = worker.play(lease, watchdog);
+        } catch (IOException e) {
+          worker.kill();
+          worker = null;
+          book.giveBack(lease);
+          continue;
+        }
+        book.finish(result);
+      }
+    } catch (IOException | RuntimeException e) {
+      book.abort();
+      throw e;
+    } finally {
+      if (worker != null) {
+        worker.stop();
+      }
+    }
+  }
+
+  /**
+   * A range of seeds handed to a worker, and the number of workers that have lost it so far.
+   */
+  private static class Lease {
+    private final int firstSeed;
+    private final int numGames;
+    private int attempts;
+
+    Lease(int firstSeed, int numGames) {
+      this.firstSeed = firstSeed;
+      this.numGames = numGames;
+    }
+  }
+
+  /**
+   * The leases waiting to be handed out and the totals of the leases that are done, shared by
+   * the threads that talk to the workers.
+   */
+  private static class LeaseBook {
+    private final Deque<Lease> waiting = new ArrayDeque<>();
+    private final SimulationResult totals = new SimulationResult();
+    private int numLeases;
+    private int unfinished;
+    private boolean aborted;
+
+    synchronized void add(Lease lease) {
+      this.waiting.addLast(lease);
+      this.numLeases += 1;
+      this.unfinished += 1;
+    }
+
+    synchronized int getNumLeases() {
+      return this.numLeases;
+    }
+
+    /**
+     * Take the next lease, waiting while every unfinished lease is with a worker in case one of
+     * them is given back.
+     * @return the lease, or null if every lease is done or the simulation has stopped
+     */
+    synchronized Lease take() {
+      while (this.waiting.isEmpty() && this.unfinished > 0 && !this.aborted) {
+        try {
+          this.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return null;
+        }
+      }
+      return this.aborted ? null : this.waiting.pollFirst();
+    }
+
+    synchronized void giveBack(Lease lease) {
+      lease.attempts += 1;
+      if (lease.attempts >= MAX_ATTEMPTS) {
+        throw new IllegalStateException("seeds " + lease.firstSeed + " to "
+                + (lease.firstSeed + lease.numGames - 1) + " were lost by " + MAX_ATTEMPTS
+                + " workers");
+      }
+      this.waiting.addFirst(lease);
+      this.notifyAll();
+    }
+
+    synchronized void finish(SimulationResult result) {
+      this.totals.merge(result);
+      this.unfinished -= 1;
+      if (this.unfinished == 0) {
+        this.notifyAll();
+      }
+    }
+
+    synchronized void abort() {
+      this.aborted = true;
+      this.notifyAll();
+    }
+
+    synchronized SimulationResult getTotals() {
+      return this.totals;
+    }
+  }
+
+  /**
+   * The pipes to a running worker process.
+   */
+  private class WorkerConnection {
+    private final Process process;
+    private final BufferedWriter requests;
+    private final BufferedReader answers;
+
+    WorkerConnection(Process process) throws IOException {
+      this.process = process;
+      this.requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(),
+              StandardCharsets.UTF_8));
+      this.answers = new BufferedReader(new InputStreamReader(process.getInputStream(),
+              StandardCharsets.UTF_8));
+      this.requests.write(SimulationWorker.SETTINGS + " " + settings.toRecord() + "\n");
+    }
+
+    /**
+     * Have the worker play a lease and read back its totals, killing the worker if the totals do
+     * not come back in time so that the read ends.
+     * @throws IOException if the worker stopped, was killed or sent something other than the
+     *         totals
+     */
+    SimulationResult play(Lease lease, ScheduledExecutorService watchdog) throws IOException {
+      String prefix = SimulationWorker.RESULT + " " + lease.firstSeed + " " + lease.numGames + " ";
+      this.requests.write(SimulationWorker.LEASE + " " + lease.firstSeed + " " + lease.numGames
+              + "\n");
+      this.requests.flush();
+
+      ScheduledFuture<?> deadline = watchdog.schedule(this::kill, leaseTimeoutMillis,
+              TimeUnit.MILLISECONDS);
+      String answer;
+      try {
+        answer = this.answers.readLine();
+      } finally {
+        deadline.cancel(false);
+      }
+      if (answer == null) {
+        throw new IOException("worker stopped");
+      }
+      if (!answer.startsWith(prefix)) {
+        throw new IOException("worker sent a result for the wrong lease");
+      }
+      try {
+        SimulationResult result = SimulationResult.fromRecord(answer.substring(prefix.length()));
+        if (result.getNumGames() != lease.numGames) {
+          throw new IOException("worker sent a result for the wrong lease");
+        }
+        return result;
+      } catch (IllegalArgumentException e) {
+        throw new IOException("worker sent a result that is not valid", e);
+      }
+    }
+
+    /**
+     * Close the worker's input so that it stops by itself, and kill it if it does not.
+     */
+    void stop() {
+      try {
+        this.requests.close();
+        if (!this.process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          this.kill();
+        }
+      } catch (IOException e) {
+        this.kill();
+      } catch (InterruptedException e) {
+        this.kill();
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    void kill() {
+      this.process.destroyForcibly();
+    }
+  }
+}
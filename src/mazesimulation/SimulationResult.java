@@ -0,0 +1,180 @@
+package mazesimulation;
+
+/**
+ * The totals of a simulation: how many games ended each way, the turns, arrows and bat transports
+ * summed over every game, and how long the simulation took. Results of parts of a simulation are
+ * merged into one, and since merging only adds totals, the result of a range of seeds does not
+ * depend on how the range was split.
+ */
+public class SimulationResult {
+  private final long[] counts;
+  private long numGames;
+  private long totalTurns;
+  private long totalArrowsUsed;
+  private long totalBatTransports;
+  private long elapsedNanos;
+
+  /**
+   * Construct a SimulationResult object with no games.
+   */
+  public SimulationResult() {
+    this.counts = new long[GameResult.values().length];
+  }
+
+  /**
+   * Add a game to the totals.
+   * @param record the record of the game
+   */
+  void add(GameRecord record) {
+    this.counts[record.getResult().ordinal()] += 1;
+    this.numGames += 1;
+    this.totalTurns += record.getTurns();
+    this.totalArrowsUsed += record.getArrowsUsed();
+    this.totalBatTransports += record.getBatTransports();
+  }
+
+  /**
+   * Add the games of another result to the totals.
+   * @param other the other result
+   */
+  void merge(SimulationResult other) {
+    for (int i = 0; i < this.counts.length; i++) {
+      this.counts[i] += other.counts[i];
+    }
+    this.numGames += other.numGames;
+    this.totalTurns += other.totalTurns;
+    this.totalArrowsUsed += other.totalArrowsUsed;
+    this.totalBatTransports += other.totalBatTransports;
+  }
+
+  /**
+   * Write the totals, leaving out the time taken, as a line of numbers separated by spaces.
+   * @return the totals as a line of text
+   */
+  String toRecord() {
+    StringBuilder record = new StringBuilder();
+    for (long count : this.counts) {
+      record.append(count).append(' ');
+    }
+    record.append(this.totalTurns).append(' ').append(this.totalArrowsUsed).append(' ')
+            .append(this.totalBatTransports);
+    return record.toString();
+  }
+
+  /**
+   * Read totals that were written by toRecord.
+   * @param record the totals as a line of text
+   * @return the totals
+   * @throws IllegalArgumentException if the line is not a valid record
+   */
+  static SimulationResult fromRecord(String record) {
+    String[] fields = record.trim().split(" ");
+    SimulationResult result = new SimulationResult();
+    if (fields.length != result.counts.length + 3) {
+      throw new IllegalArgumentException("not a valid record");
+    }
+    for (int i = 0; i < result.counts.length; i++) {
+      result.counts[i] = Long.parseLong(fields[i]);
+      result.numGames += result.counts[i];
+    }
+    result.totalTurns = Long.parseLong(fields[result.counts.length]);
+    result.totalArrowsUsed = Long.parseLong(fields[result.counts.length + 1]);
+    result.totalBatTransports = Long.parseLong(fields[result.counts.length + 2]);
+    return result;
+  }
+
+  /**
+   * Set how long the simulation took.
+   * @param elapsedNanos the time the simulation took, in nanoseconds
+   */
+  void setElapsedNanos(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Get the number of games played.
+   * @return the number of games played
+   */
+  public long getNumGames() {
+    return this.numGames;
+  }
+
+  /**
+   * Get the number of games that ended a certain way.
+   * @param result the way the games ended
+   * @return the number of games that ended that way
+   */
+  public long getCount(GameResult result) {
+    return this.counts[result.ordinal()];
+  }
+
+  /**
+   * Get the fraction of games that ended a certain way.
+   * @param result the way the games ended
+   * @return the fraction of games that ended that way, or 0 if no games were played
+   */
+  public double getRate(GameResult result) {
+    if (this.numGames == 0) {
+      return 0;
+    }
+    return (double) this.getCount(result) / this.numGames;
+  }
+
+  /**
+   * Get the number of turns taken over every game.
+   * @return the total number of turns
+   */
+  public long getTotalTurns() {
+    return this.totalTurns;
+  }
+
+  /**
+   * Get the number of arrows shot over every game.
+   * @return the total number of arrows shot
+   */
+  public long getTotalArrowsUsed() {
+    return this.totalArrowsUsed;
+  }
+
+  /**
+   * Get the number of times bats carried a player away over every game.
+   * @return the total number of bat transports
+   */
+  public long getTotalBatTransports() {
+    return this.totalBatTransports;
+  }
+
+  /**
+   * Get how long the simulation took.
+   * @return the time the simulation took, in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  /**
+   * Get the number of games played per second.
+   * @return the number of games played per second, or 0 if no time was recorded
+   */
+  public double getGamesPerSecond() {
+    if (this.elapsedNanos == 0) {
+      return 0;
+    }
+    return this.numGames * 1e9 / this.elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    result.append("games: ").append(this.numGames).append("\n");
+    for (GameResult gameResult : GameResult.values()) {
+      result.append(String.format("%s: %d (%.4f)\n", gameResult.name().toLowerCase(),
+              this.getCount(gameResult), this.getRate(gameResult)));
+    }
+    result.append("turns: ").append(this.totalTurns).append("\n");
+    result.append("arrows used: ").append(this.totalArrowsUsed).append("\n");
+    result.append("bat transports: ").append(this.totalBatTransports).append("\n");
+    result.append(String.format("games/sec: %.1f\n", this.getGamesPerSecond()));
+    return result.toString();
+  }
+}
@@ -0,0 +1,217 @@
+package mazesimulation;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import mazemodel.CellHeatmap;
+import mazemodel.Maze;
+import mazemodel.NonPerfectMaze;
+import mazemodel.TurnOutcome;
+
+/**
+ * A runner that plays many single player games of Hunt the Wumpus without a view, one game per
+ * seed, and adds up how they ended. Games are spread over the threads of a work-stealing pool.
+ *
+ * <p>Each game builds its maze from its seed and gives its agent a random number generator seeded
+ * from the same seed, so a game plays out the same way on whichever thread runs it, and a range
+ * of seeds always gives the same result.
+ */
+public class SimulationRunner {
+  private static final int GAMES_PER_TASK = 64;
+  private static final long AGENT_SEED_MIX = 0x9E3779B97F4A7C15L;
+
+  private final GameSettings settings;
+  private final Supplier<Agent> agents;
+  private final int parallelism;
+
+  /**
+   * Construct a SimulationRunner object.
+   * @param settings the settings shared by every game
+   * @param agents a source of agents, asked for a new agent for every game
+   * @param parallelism the number of threads to play games on
+   */
+  public SimulationRunner(GameSettings settings, Supplier<Agent> agents, int parallelism) {
+    if (settings == null) {
+      throw new IllegalArgumentException("settings cannot be null");
+    }
+    if (agents == null) {
+      throw new IllegalArgumentException("agents cannot be null");
+    }
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+    this.settings = settings;
+    this.agents = agents;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Play one game for every seed in a range and add up the results.
+   * @param firstSeed the seed of the first game
+   * @param numGames the number of games to play
+   * @return the totals of the games
+   */
+  public SimulationResult run(int firstSeed, int numGames) {
+    return this.run(firstSeed, numGames, null);
+  }
+
+  /**
+   * Play one game for every seed in a range, add up the results and hand the record of every game
+   * to a consumer. The records are handed over one at a time but not in order of seed.
+   * @param firstSeed the seed of the first game
+   * @param numGames the number of games to play
+   * @param records the consumer of the records, or null if the records are not needed
+   * @return the totals of the games
+   */
+  public SimulationResult run(int firstSeed, int numGames, Consumer<GameRecord> records) {
+    return this.run(firstSeed, numGames, -1, null, records);
+  }
+
+  /**
+   * Play one game for every seed in a range, all of them in the maze of a single seed, and count
+   * what happens in each cell of that maze in a heatmap. The seed of each game then only decides
+   * the choices of its agent.
+   * @param mazeSeed the seed of the maze
+   * @param firstSeed the seed of the first game
+   * @param numGames the number of games to play
+   * @param heatmap the heatmap to count in, which must be the size of the maze
+   * @return the totals of the games
+   */
+  public SimulationResult runOnMaze(int mazeSeed, int firstSeed, int numGames,
+                                    CellHeatmap heatmap) {
+    if (mazeSeed < 0) {
+      throw new IllegalArgumentException("seed of the maze cannot be negative");
+    }
+    if (heatmap == null) {
+      throw new IllegalArgumentException("heatmap cannot be null");
+    }
+    return this.run(firstSeed, numGames, mazeSeed, heatmap, null);
+  }
+
+  private SimulationResult run(int firstSeed, int numGames, int mazeSeed, CellHeatmap heatmap,
+                               Consumer<GameRecord> records) {
+    if (firstSeed < 0 || numGames < 0 || (long) firstSeed + numGames > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("seed range is not valid");
+    }
+
+    long start = System.nanoTime();
+    ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    SimulationResult result;
+    try {
+      result = pool.invoke(new GameRange(firstSeed, firstSeed + numGames, mazeSeed, heatmap,
+              records));
+    } finally {
+      pool.shutdown();
+    }
+    result.setElapsedNanos(System.nanoTime() - start);
+    return result;
+  }
+
+  /**
+   * Play a single game.
+   * @param seed the seed of the game
+   * @return the record of the game
+   */
+  public GameRecord playGame(int seed) {
+    return this.playGame(seed, seed, null);
+  }
+
+  private GameRecord playGame(int mazeSeed, int seed, CellHeatmap heatmap) {
+    NonPerfectMaze maze = new NonPerfectMaze(this.settings.getNumRows(),
+            this.settings.getNumCols(), this.settings.isWrapping(), mazeSeed,
+            this.settings.getNumWalls(), this.settings.getPitPercent(),
+            this.settings.getBatPercent());
+    maze.setHeatmap(heatmap);
+    maze.addPlayer(0, 0, this.settings.getArrows());
+    Agent agent = this.agents.get();
+    Random random = new Random(seed * AGENT_SEED_MIX);
+
+    int turns = 0;
+    int batTransports = 0;
+    GameResult result = this.getResult(maze);
+    while (result == GameResult.UNFINISHED && turns < this.settings.getMaxTurns()
+            && maze.getValidMoveMask(0) != 0) {
+      int arrows = maze.getPlayerArrows(0);
+      agent.takeTurn(maze, 0, random);
+      turns += 1;
+      // bats only carry a player away during a move, and a shot leaves the last move's status
+      if (maze.getPlayerArrows(0) == arrows && maze.movedByBats(0)) {
+        batTransports += 1;
+      }
+      result = this.getResult(maze);
+    }
+
+    return new GameRecord(seed, result, turns,
+            this.settings.getArrows() - maze.getPlayerArrows(0), batTransports);
+  }
+
+  private GameResult getResult(Maze maze) {
+    int conditions = maze.getConditionMask(0);
+    if ((conditions & TurnOutcome.WUMPUS_KILLED) != 0) {
+      return GameResult.WON;
+    } else if ((conditions & TurnOutcome.EATEN) != 0) {
+      return GameResult.EATEN;
+    } else if ((conditions & TurnOutcome.FALLEN) != 0) {
+      return GameResult.FALLEN;
+    } else if (maze.getPlayerArrows(0) == 0) {
+      return GameResult.OUT_OF_ARROWS;
+    }
+    return GameResult.UNFINISHED;
+  }
+
+  /**
+   * A task that plays the games of a range of seeds, splitting the range in half until it is
+   * small enough to play directly. Tasks are only ever run in this process, never serialized.
+   */
+  @SuppressWarnings("serial")
+  private class GameRange extends RecursiveTask<SimulationResult> {
+    private final int firstSeed;
+    private final int endSeed;
+    private final int mazeSeed;
+    private final CellHeatmap heatmap;
+    private final Consumer<GameRecord> records;
+
+    GameRange(int firstSeed, int endSeed, int mazeSeed, CellHeatmap heatmap,
+              Consumer<GameRecord> records) {
+      this.firstSeed = firstSeed;
+      this.endSeed = endSeed;
+      this.mazeSeed = mazeSeed;
+      this.heatmap = heatmap;
+      this.records = records;
+    }
+
+    @Override
+    protected SimulationResult compute() {
+      if (this.endSeed - this.firstSeed <= GAMES_PER_TASK) {
+        SimulationResult result = new SimulationResult();
+        GameRecord[] played = new GameRecord[this.endSeed - this.firstSeed];
+        for (int seed = this.firstSeed; seed < this.endSeed; seed++) {
+          played[seed - this.firstSeed] = playGame(this.mazeSeed < 0 ? seed : this.mazeSeed,
+                  seed, this.heatmap);
+          result.add(played[seed - this.firstSeed]);
+        }
+        if (this.records != null) {
+          // hand over the whole range at once so that the consumer is locked once per task
+          synchronized (this.records) {
+            for (GameRecord record : played) {
+              this.records.accept(record);
+            }
+          }
+        }
+        return result;
+      }
+
+      int middle = (this.firstSeed + this.endSeed) >>> 1;
+      GameRange left = new GameRange(this.firstSeed, middle, this.mazeSeed, this.heatmap,
+              this.records);
+      left.fork();
+      SimulationResult result = new GameRange(middle, this.endSeed, this.mazeSeed, this.heatmap,
+              this.records).compute();
+      result.merge(left.join());
+      return result;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package mazesimulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Supplier;
+
+/**
+ * The worker side of a simulation spread over several processes. A worker reads requests from a
+ * coordinator one line at a time and answers each lease of seeds with a single line holding the
+ * totals of those games, so only a few numbers cross the process boundary per lease.
+ *
+ * <p>The requests are a line {@code settings <settings>} giving the settings of every game,
+ * followed by any number of lines {@code lease <first seed> <number of games>}. The answer to a
+ * lease is {@code result <first seed> <number of games> <totals>}. The worker stops when its
+ * input ends.
+ */
+public class SimulationWorker {
+  static final String SETTINGS = "settings";
+  static final String LEASE = "lease";
+  static final String RESULT = "result";
+
+  private final Supplier<Agent> agents;
+
+  /**
+   * Construct a SimulationWorker object.
+   * @param agents a source of agents, asked for a new agent for every game
+   */
+  public SimulationWorker(Supplier<Agent> agents) {
+    if (agents == null) {
+      throw new IllegalArgumentException("agents cannot be null");
+    }
+    this.agents = agents;
+  }
+
+  /**
+   * Answer requests until the input ends.
+   * @param in the requests of the coordinator
+   * @param out where the answers are written
+   * @throws IOException if the requests cannot be read or the answers cannot be written
+   * @throws IllegalArgumentException if a request is not valid
+   */
+  public void serve(BufferedReader in, Writer out) throws IOException {
+    SimulationRunner runner = null;
+    String line;
+    while ((line = in.readLine()) != null) {
+      String[] fields = line.split(" ", 2);
+      if (fields.length == 2 && fields[0].equals(SETTINGS)) {
+        runner = new SimulationRunner(GameSettings.fromRecord(fields[1]), this.agents, 1);
+      } else if (fields.length == 2 && fields[0].equals(LEASE) && runner != null) {
+        String[] lease = fields[1].split(" ");
+        if (lease.length != 2) {
+          throw new IllegalArgumentException("not a valid request: " + line);
+        }
+        int firstSeed = Integer.parseInt(lease[0]);
+        int numGames = Integer.parseInt(lease[1]);
+        SimulationResult result = new SimulationResult();
+        for (int seed = firstSeed; seed < firstSeed + numGames; seed++) {
+          result.add(runner.playGame(seed));
+        }
+        out.write(RESULT + " " + firstSeed + " " + numGames + " " + result.toRecord() + "\n");
+        out.flush();
+      } else {
+        throw new IllegalArgumentException("not a valid request: " + line);
+      }
+    }
+  }
+}
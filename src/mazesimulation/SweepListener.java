@@ -0,0 +1,19 @@
+package mazesimulation;
+
+/**
+ * A listener that is told about the progress of a parameter sweep as work units finish.
+ */
+public interface SweepListener {
+
+  /**
+   * Called after a work unit finishes, with the totals so far of the configuration the unit
+   * belongs to. Calls are made one at a time, from whichever thread finished the unit.
+   * @param configuration the number of the configuration in the parameter grid
+   * @param settings the settings of the configuration
+   * @param totals a copy of the totals of the configuration so far
+   * @param unitsDone the number of work units of the whole sweep that are done
+   * @param numUnits the number of work units in the whole sweep
+   */
+  void unitFinished(int configuration, GameSettings settings, SimulationResult totals,
+                    int unitsDone, int numUnits);
+}
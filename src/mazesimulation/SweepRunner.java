@@ -0,0 +1,240 @@
+package mazesimulation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A runner that plays every configuration of a parameter grid over the same range of seeds. The
+ * seeds of each configuration are cut into blocks, and each block of each configuration is a work
+ * unit that is played on one of a pool of threads.
+ *
+ * <p>Every finished unit is appended to a checkpoint file as soon as it is done. When a sweep is
+ * started with a checkpoint file that already holds units of the same sweep, those units are read
+ * back instead of being played again, so an interrupted sweep picks up where it stopped. A line
+ * left half written by the interruption is ignored and its unit is played again. The checkpoint
+ * names the class of the agents, and a sweep refuses to carry on a checkpoint of another agent.
+ */
+public class SweepRunner {
+  private static final String HEADER = "htw sweep 2";
+
+  private final ParameterGrid grid;
+  private final Supplier<Agent> agents;
+  private final int parallelism;
+  private final int firstSeed;
+  private final int gamesPerUnit;
+  private final int unitsPerConfiguration;
+  private final Path checkpoint;
+  private final String agentName;
+
+  /**
+   * Construct a SweepRunner object.
+   * @param grid the configurations to play
+   * @param agents a source of agents, asked for a new agent for every game
+   * @param parallelism the number of threads to play units on
+   * @param firstSeed the seed of the first game of every configuration
+   * @param gamesPerUnit the number of games in a work unit
+   * @param unitsPerConfiguration the number of work units of every configuration
+   * @param checkpoint the file that finished units are recorded in
+   */
+  public SweepRunner(ParameterGrid grid, Supplier<Agent> agents, int parallelism, int firstSeed,
+                     int gamesPerUnit, int unitsPerConfiguration, Path checkpoint) {
+    if (grid == null || agents == null || checkpoint == null) {
+      throw new IllegalArgumentException("grid, agents and checkpoint cannot be null");
+    }
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+    if (firstSeed < 0 || gamesPerUnit < 1 || unitsPerConfiguration < 1
+            || firstSeed + (long) gamesPerUnit * unitsPerConfiguration > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("seed range is not valid");
+    }
+    this.grid = grid;
+    this.agents = agents;
+    this.parallelism = parallelism;
+    this.firstSeed = firstSeed;
+    this.gamesPerUnit = gamesPerUnit;
+    this.unitsPerConfiguration = unitsPerConfiguration;
+    this.checkpoint = checkpoint;
+    this.agentName = agents.get().getClass().getName();
+  }
+
+  /**
+   * Get the number of work units in the sweep.
+   * @return the number of work units
+   */
+  public int getNumUnits() {
+    return this.grid.getNumConfigurations() * this.unitsPerConfiguration;
+  }
+
+  /**
+   * Play every unit of the sweep that is not in the checkpoint file yet.
+   * @param listener the listener to tell about finished units, or null if none is needed
+   * @return the totals of every configuration, in the order of the parameter grid
+   * @throws IOException if the checkpoint file cannot be read or written
+   * @throws IllegalStateException if the checkpoint file belongs to a different sweep, or was
+   *         played by a different agent
+   */
+  public SimulationResult[] run(SweepListener listener) throws IOException {
+    SimulationResult[] totals = new SimulationResult[this.grid.getNumConfigurations()];
+    for (int i = 0; i < totals.length; i++) {
+      totals[i] = new SimulationResult();
+    }
+    BitSet done = this.readCheckpoint(totals);
+
+    ExecutorService pool = Executors.newFixedThreadPool(this.parallelism);
+    try (BufferedWriter writer = Files.newBufferedWriter(this.checkpoint,
+            StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      if (done.isEmpty() && Files.size(this.checkpoint) == 0) {
+        writer.write(this.getHeader());
+        writer.newLine();
+        writer.flush();
+      }
+
+      Progress progress = new Progress(totals, done.cardinality(), writer, listener);
+      List<Future<?>> units = new ArrayList<>();
+      for (int unit = done.nextClearBit(0); unit < this.getNumUnits();
+           unit = done.nextClearBit(unit + 1)) {
+        int unitToPlay = unit;
+        units.add(pool.submit(() -> progress.finish(unitToPlay, this.playUnit(unitToPlay))));
+      }
+
+      for (Future<?> unit : units) {
+        try {
+          unit.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) e.getCause()).getCause();
+          }
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          }
+          throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("sweep was interrupted");
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return totals;
+  }
+
+  private SimulationResult playUnit(int unit) {
+    GameSettings settings = this.grid.getSettings(unit / this.unitsPerConfiguration);
+    SimulationRunner runner = new SimulationRunner(settings, this.agents, 1);
+    int unitFirstSeed = this.firstSeed + (unit % this.unitsPerConfiguration) * this.gamesPerUnit;
+    SimulationResult result = new SimulationResult();
+    for (int seed = unitFirstSeed; seed < unitFirstSeed + this.gamesPerUnit; seed++) {
+      result.add(runner.playGame(seed));
+    }
+    return result;
+  }
+
+  /**
+   * Read the units that are already finished from the checkpoint file, adding them to the totals.
+   */
+  private BitSet readCheckpoint(SimulationResult[] totals) throws IOException {
+    BitSet done = new BitSet(this.getNumUnits());
+    if (!Files.exists(this.checkpoint) || Files.size(this.checkpoint) == 0) {
+      return done;
+    }
+
+    byte[] content = Files.readAllBytes(this.checkpoint);
+    List<String> lines = new ArrayList<>(Arrays.asList(
+            new String(content, StandardCharsets.UTF_8).split("\r?\n")));
+    // a last line that does not end in a newline was cut short when the sweep was interrupted,
+    // even if what is left of it still reads as a record, so its unit is played again
+    boolean cutShort = content[content.length - 1] != '\n';
+    if (cutShort && lines.size() > 1) {
+      lines.remove(lines.size() - 1);
+    }
+    if (lines.isEmpty() || !lines.get(0).startsWith(this.getSweepHeader() + " agent=")) {
+      throw new IllegalStateException("checkpoint belongs to a different sweep");
+    }
+    if (!lines.get(0).equals(this.getHeader())) {
+      throw new IllegalStateException("checkpoint was played by a different agent");
+    }
+    for (String line : lines.subList(1, lines.size())) {
+      int space = line.indexOf(' ');
+      try {
+        int unit = Integer.parseInt(line.substring(0, Math.max(space, 0)));
+        SimulationResult result = SimulationResult.fromRecord(line.substring(space + 1));
+        if (unit >= 0 && unit < this.getNumUnits() && !done.get(unit)
+                && result.getNumGames() == this.gamesPerUnit) {
+          done.set(unit);
+          totals[unit / this.unitsPerConfiguration].merge(result);
+        }
+      } catch (IllegalArgumentException e) {
+        // a line that is not a record, so its unit is played again
+      }
+    }
+
+    // make sure new units start on a line of their own after a line that was cut short
+    if (cutShort) {
+      Files.write(this.checkpoint, new byte[] {'\n'}, StandardOpenOption.APPEND);
+    }
+    return done;
+  }
+
+  private String getHeader() {
+    return this.getSweepHeader() + " agent=" + this.agentName;
+  }
+
+  private String getSweepHeader() {
+    return HEADER + " " + this.grid + " seeds=" + this.firstSeed + " games=" + this.gamesPerUnit
+            + " units=" + this.unitsPerConfiguration;
+  }
+
+  /**
+   * The shared state of a running sweep, which finished units are recorded in one at a time.
+   */
+  private class Progress {
+    private final SimulationResult[] totals;
+    private final BufferedWriter writer;
+    private final SweepListener listener;
+    private int unitsDone;
+
+    Progress(SimulationResult[] totals, int unitsDone, BufferedWriter writer,
+             SweepListener listener) {
+      this.totals = totals;
+      this.unitsDone = unitsDone;
+      this.writer = writer;
+      this.listener = listener;
+    }
+
+    synchronized void finish(int unit, SimulationResult result) {
+      try {
+        this.writer.write(unit + " " + result.toRecord());
+        this.writer.newLine();
+        this.writer.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      int configuration = unit / unitsPerConfiguration;
+      this.totals[configuration].merge(result);
+      this.unitsDone += 1;
+      if (this.listener != null) {
+        SimulationResult snapshot = new SimulationResult();
+        snapshot.merge(this.totals[configuration]);
+        this.listener.unitFinished(configuration, grid.getSettings(configuration), snapshot,
+                this.unitsDone, getNumUnits());
+      }
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package mazesimulation;
+
+import java.io.IOException;
+
+/**
+ * A way of starting the worker processes of a SimulationCoordinator.
+ */
+public interface WorkerLauncher {
+
+  /**
+   * Start a worker process that serves a SimulationWorker over its standard input and output.
+   * Called once for every worker, and again to replace a worker that has stopped.
+   * @return the started process
+   * @throws IOException if the process cannot be started
+   */
+  Process launch() throws IOException;
+}
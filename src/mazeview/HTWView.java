@@ -15,6 +15,8 @@ import mazecontroller.MazeFeatures;
  * The main view class for the HTW GUI game.
  */
 public class HTWView extends JFrame implements MazeView {
+  private static final String[] TILE_KEYS = createTileKeys();
+
   private GameView game;
   private MenuView menu;
   private KeyListener keyListener;
@@ -72,6 +74,11 @@ public class HTWView extends JFrame implements MazeView {
     return key.toString();
   }
 
+  @Override
+  public String getTileKey(int directionMask) {
+    return TILE_KEYS[directionMask & 15];
+  }
+
   @Override
   public void setMenuFeatures(MazeFeatures features) {
     this.menu.setMenuFeatures(features);
@@ -147,4 +154,18 @@ public class HTWView extends JFrame implements MazeView {
     };
     this.addKeyListener(this.keyListener);
   }
+
+  private static String[] createTileKeys() {
+    String[] keys = new String[16];
+    for (int mask = 0; mask < keys.length; mask++) {
+      StringBuilder key = new StringBuilder();
+      for (int direction = 0; direction < 4; direction++) {
+        if ((mask & (1 << direction)) != 0) {
+          key.append(direction);
+        }
+      }
+      keys[mask] = key.toString();
+    }
+    return keys;
+  }
 }
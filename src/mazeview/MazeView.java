@@ -26,6 +26,14 @@ public interface MazeView {
    */
   String getTileKey(List<Integer> directions);
 
+  /**
+   * Get the tile key associated with a bit mask of directions, where bit 0 is North, bit 1 is
+   * South, bit 2 is East and bit 3 is West.
+   * @param directionMask the bit mask of directions
+   * @return the tile key
+   */
+  String getTileKey(int directionMask);
+
   /**
    * Display the maze view.
    * @param numRows the number of rows in the maze
@@ -0,0 +1,108 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import mazemodel.CellEvent;
+import mazemodel.CellHeatmap;
+import mazemodel.NonPerfectMaze;
+import mazesimulation.GameResult;
+import mazesimulation.GameSettings;
+import mazesimulation.RandomAgent;
+import mazesimulation.SimulationResult;
+import mazesimulation.SimulationRunner;
+
+/**
+ * A class to test the CellHeatmap class and the counting of cell events by mazes.
+ */
+public class CellHeatmapTest {
+  private final GameSettings settings = new GameSettings(6, 7, true, 12, 10, 20, 3, 300);
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testMoveCountsHallwaysAndCave() {
+    NonPerfectMaze maze = new NonPerfectMaze(6, 7, true, 4, 12, 0, 0);
+    CellHeatmap heatmap = new CellHeatmap(6, 7);
+    maze.setHeatmap(heatmap);
+    maze.addPlayer(0, 0, 3);
+    int start = maze.getPlayerLocation(0);
+    assertEquals(1, heatmap.getCount(CellEvent.VISIT, start));
+
+    int direction = Integer.numberOfTrailingZeros(maze.getValidMoveMask(0));
+    int[] hallways = new int[42];
+    int length = maze.movePlayer(direction, 0, hallways);
+    long[][] visits = heatmap.toGrid(CellEvent.VISIT);
+    long total = 0;
+    for (long[] row : visits) {
+      for (long count : row) {
+        total += count;
+      }
+    }
+    assertEquals(length + 2, total);
+    for (int i = 0; i < length; i++) {
+      assertTrue(visits[hallways[i] / 7][hallways[i] % 7] > 0);
+    }
+    int end = maze.getPlayerLocation(0);
+    assertTrue(heatmap.getCount(CellEvent.VISIT, end) > 0);
+  }
+
+  @Test
+  public void testArrowLandingIsCounted() {
+    NonPerfectMaze maze = new NonPerfectMaze(6, 7, true, 4, 12, 0, 0);
+    CellHeatmap heatmap = new CellHeatmap(6, 7);
+    maze.setHeatmap(heatmap);
+    maze.addPlayer(0, 0, 3);
+
+    int direction = Integer.numberOfTrailingZeros(maze.getValidMoveMask(0));
+    int destination = maze.getArrowDestination(direction, 2, 0);
+    maze.shootArrow(direction, 2, 0);
+    if (destination >= 0) {
+      assertEquals(1, heatmap.getCount(CellEvent.ARROW_LANDING, destination));
+    }
+    long landings = 0;
+    for (long[] row : heatmap.toGrid(CellEvent.ARROW_LANDING)) {
+      for (long count : row) {
+        landings += count;
+      }
+    }
+    assertEquals(1, landings);
+  }
+
+  @Test
+  public void testSameCountsOnAnyNumberOfThreads() {
+    CellHeatmap single = new CellHeatmap(6, 7, 1);
+    SimulationResult result = new SimulationRunner(this.settings, RandomAgent::new, 1)
+            .runOnMaze(3, 0, 400, single);
+    CellHeatmap many = new CellHeatmap(6, 7, 4);
+    new SimulationRunner(this.settings, RandomAgent::new, 4).runOnMaze(3, 0, 400, many);
+
+    for (CellEvent event : CellEvent.values()) {
+      long[][] expected = single.toGrid(event);
+      long[][] actual = many.toGrid(event);
+      for (int row = 0; row < expected.length; row++) {
+        assertArrayEquals(expected[row], actual[row]);
+      }
+    }
+
+    long deaths = 0;
+    long grabs = 0;
+    for (int location = 0; location < 42; location++) {
+      deaths += single.getCount(CellEvent.DEATH, location);
+      grabs += single.getCount(CellEvent.BAT_GRAB, location);
+    }
+    assertEquals(result.getCount(GameResult.EATEN) + result.getCount(GameResult.FALLEN), deaths);
+    assertTrue(grabs >= result.getTotalBatTransports());
+  }
+
+  @Test
+  public void testHeatmapOfDifferentSize() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("heatmap does not fit the maze");
+    new NonPerfectMaze(6, 7, true, 4, 12, 0, 0).setHeatmap(new CellHeatmap(7, 6));
+  }
+}
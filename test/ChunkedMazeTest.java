@@ -0,0 +1,126 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import mazemodel.ChunkedMaze;
+
+/**
+ * A class to test the ChunkedMaze class.
+ */
+public class ChunkedMazeTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testDroppedRegionsAreBuiltAgainTheSame() {
+    ChunkedMaze kept = new ChunkedMaze(3, 4, 8, 5, 10, 20, 12);
+    ChunkedMaze dropped = new ChunkedMaze(3, 4, 8, 5, 10, 20, 1);
+    for (int pass = 0; pass < 2; pass++) {
+      for (int location = 0; location < 24 * 32; location++) {
+        assertEquals(kept.getDoorMask(location), dropped.getDoorMask(location));
+      }
+    }
+    assertEquals(12, kept.getNumRegionsBuilt());
+    assertTrue(dropped.getNumRegionsBuilt() > 24);
+    assertEquals(1, dropped.getNumRegionsKept());
+
+    for (int player = 0; player < 100; player++) {
+      kept.addPlayer(player % 24, player * 7 % 32, 3);
+      dropped.addPlayer(player % 24, player * 7 % 32, 3);
+      assertEquals(kept.getPlayerLocation(player), dropped.getPlayerLocation(player));
+      assertEquals(kept.getConditionMask(player), dropped.getConditionMask(player));
+      int direction = Integer.numberOfTrailingZeros(kept.getValidMoveMask(player));
+      assertEquals(kept.getArrowDestination(direction, 3, player),
+              dropped.getArrowDestination(direction, 3, player));
+      assertArrayEquals(kept.traceArrow(direction, 3, player),
+              dropped.traceArrow(direction, 3, player));
+    }
+  }
+
+  @Test
+  public void testRegionsAreStitchedIntoOneMaze() {
+    ChunkedMaze maze = new ChunkedMaze(3, 2, 6, 9, 0, 0, 2);
+    int numRows = 18;
+    int numCols = 12;
+    int[][] offsets = {{-1, 0}, {1, 0}, {0, 1}, {0, -1}};
+    boolean[] reached = new boolean[numRows * numCols];
+    Deque<Integer> queue = new ArrayDeque<>();
+    queue.add(0);
+    reached[0] = true;
+    while (!queue.isEmpty()) {
+      int location = queue.poll();
+      int open = maze.getDoorMask(location);
+      for (int direction = 0; direction < 4; direction++) {
+        if ((open & (1 << direction)) == 0) {
+          continue;
+        }
+        int row = Math.floorMod(location / numCols + offsets[direction][0], numRows);
+        int col = Math.floorMod(location % numCols + offsets[direction][1], numCols);
+        int neighbor = row * numCols + col;
+        assertTrue((maze.getDoorMask(neighbor) & (1 << (direction ^ 1))) != 0);
+        if (!reached[neighbor]) {
+          reached[neighbor] = true;
+          queue.add(neighbor);
+        }
+      }
+    }
+    for (boolean locationReached : reached) {
+      assertTrue(locationReached);
+    }
+  }
+
+  @Test
+  public void testKeptRegionsStayBounded() {
+    ChunkedMaze maze = new ChunkedMaze(1000, 1000, 32, 3, 0, 0, 8);
+    maze.addPlayer(16000, 16000, 1);
+    Random random = new Random(3);
+    for (int turn = 0; turn < 20000; turn++) {
+      int moves = maze.getValidMoveMask(0);
+      int direction;
+      do {
+        direction = random.nextInt(4);
+      } while ((moves & (1 << direction)) == 0);
+      maze.movePlayer(direction, 0, null);
+      assertTrue(maze.getNumRegionsKept() <= 8);
+    }
+    assertTrue(maze.getNumRegionsBuilt() > 1);
+  }
+
+  @Test(timeout = 10000)
+  public void testArrowsFlyingForeverLand() {
+    ChunkedMaze maze = new ChunkedMaze(2, 2, 6, 5, 0, 0, 4);
+    int numLooping = 0;
+    for (int player = 0; player < 144; player++) {
+      maze.addPlayer(player / 12, player % 12, 4);
+      int moves = maze.getValidMoveMask(player);
+      for (int direction = 0; direction < 4; direction++) {
+        if ((moves & (1 << direction)) == 0) {
+          continue;
+        }
+        int destination = maze.getArrowDestination(direction, Integer.MAX_VALUE, player);
+        if (destination >= 0) {
+          numLooping += 1;
+          assertTrue(Integer.bitCount(maze.getDoorMask(destination)) != 2);
+        }
+        assertTrue(maze.traceArrow(direction, Integer.MAX_VALUE, player).length <= 4 * 144);
+        maze.shootArrow(direction, Integer.MAX_VALUE, player);
+      }
+    }
+    assertTrue(numLooping > 0);
+  }
+
+  @Test
+  public void testTooLarge() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("maze is too large");
+    new ChunkedMaze(2000, 2000, 32, 3, 0, 0, 8);
+  }
+}
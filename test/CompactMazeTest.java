@@ -0,0 +1,117 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import mazemodel.CompactMaze;
+import mazemodel.HazardPlacement;
+import mazemodel.KruskalGenerator;
+import mazemodel.Maze;
+import mazemodel.NonPerfectMaze;
+
+/**
+ * A class to test the CompactMaze class. It runs every test of the maze model against a
+ * CompactMaze, and checks that it plays the same games as a NonPerfectMaze.
+ */
+public class CompactMazeTest extends MazeModelTest {
+
+  @Override
+  protected Maze createMaze(int numRows, int numCols, boolean wrapping, int seed, int numWalls,
+                            int percentPits, int percentBats) {
+    return new CompactMaze(numRows, numCols, wrapping, seed, numWalls, percentPits, percentBats);
+  }
+
+  @Test
+  public void testSameGameAsNonPerfectMaze() {
+    for (int seed = 0; seed < 30; seed++) {
+      int rows = 2 + seed % 7;
+      int cols = 9 - seed % 5;
+      boolean wrapping = seed % 2 == 0;
+      Maze compact = new CompactMaze(rows, cols, wrapping, seed, seed % 4, 20, 30);
+      Maze nonPerfect = new NonPerfectMaze(rows, cols, wrapping, seed, seed % 4, 20, 30);
+      compact.addPlayer(0, 0, 5);
+      nonPerfect.addPlayer(0, 0, 5);
+      compact.addPlayer(rows - 1, cols - 1, 5);
+      nonPerfect.addPlayer(rows - 1, cols - 1, 5);
+      MazeGames.assertSameGame(nonPerfect, compact, 2, new Random(seed), 30, 3);
+    }
+  }
+
+  @Test
+  public void testPerceptionsInEveryCave() {
+    int[][] shapes = {{4, 70}, {9, 9}, {13, 17}, {2, 33}, {1, 65}};
+    for (int[] shape : shapes) {
+      for (HazardPlacement placement : HazardPlacement.values()) {
+        for (int wrapping = 0; wrapping < 2; wrapping++) {
+          int numWalls = Math.min(3, shape[0] - 1);
+          Maze maze = new CompactMaze(shape[0], shape[1], wrapping == 0, shape[1], numWalls, 30,
+                  0, new KruskalGenerator(), placement);
+          this.assertPerceptionsFollowMoves(maze, shape[0], shape[1]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSkipSamplingPlacesShareOfCaves() {
+    int[] percents = {0, 20, 100};
+    for (int percent : percents) {
+      Maze maze = new CompactMaze(100, 100, true, 7, 0, percent, 0, new KruskalGenerator(),
+              HazardPlacement.SKIP_SAMPLING);
+      this.assertPerceptionsFollowMoves(maze, 100, 100);
+      int fallen = 0;
+      for (int player = 0; player < 10000; player++) {
+        if (maze.playerFallen(player)) {
+          fallen += 1;
+        }
+      }
+      assertTrue(Math.abs(fallen - percent * 100) <= percent * 10);
+    }
+  }
+
+  @Test
+  public void testExactCountPlacesRoundedShareOfCaves() {
+    int[] percents = {0, 1, 15, 100};
+    for (int seed = 0; seed < 5; seed++) {
+      for (int percent : percents) {
+        Maze maze = new CompactMaze(30, 30, true, seed, 0, percent, 0, new KruskalGenerator(),
+                HazardPlacement.EXACT_COUNT);
+        int fallen = 0;
+        for (int location = 0; location < 900; location++) {
+          maze.addPlayer(location / 30, location % 30, 1);
+          if (maze.playerFallen(location)) {
+            fallen += 1;
+          }
+        }
+        assertEquals(Math.round(percent * 9.0), fallen);
+      }
+    }
+  }
+
+  /**
+   * Check that a player in each cave of a maze without bats smells the wumpus and feels a draft
+   * exactly when one move leads to the wumpus or a pit. A player is added at every location, in
+   * order, so the maze must not have any players yet.
+   */
+  private void assertPerceptionsFollowMoves(Maze maze, int rows, int cols) {
+    int[] playerAt = new int[rows * cols];
+    for (int player = 0; player < rows * cols; player++) {
+      maze.addPlayer(player / cols, player % cols, 1);
+      playerAt[maze.getPlayerLocation(player)] = player;
+    }
+
+    for (int player = 0; player < rows * cols; player++) {
+      boolean smell = false;
+      boolean draft = false;
+      for (int direction : maze.getValidPlayerMoves(player)) {
+        int destination = maze.getArrowDestination(direction, 1, player);
+        smell |= maze.playerEaten(playerAt[destination]);
+        draft |= maze.playerFallen(playerAt[destination]);
+      }
+      assertEquals(smell, maze.smellWumpus(player));
+      assertEquals(draft, maze.feelDraft(player));
+    }
+  }
+}
@@ -0,0 +1,150 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SortedMap;
+
+import mazecontroller.HTWConsoleController;
+import mazemodel.NonPerfectMaze;
+import mazesimulation.GameJournalWriter;
+import mazesimulation.JournalReplayer;
+import mazesimulation.ReplayResult;
+
+/**
+ * A class to test the GameJournalWriter and JournalReplayer classes, with journals recorded by the
+ * HTWConsoleController class.
+ */
+public class GameJournalTest {
+  private static final String[] COMMANDS = {"M", "M", "M", "S", "X"};
+  private static final String[] DIRECTIONS = {"N", "S", "E", "W", "Q"};
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRecordedGamePlaysAgain() throws IOException {
+    for (int seed = 0; seed < 10; seed++) {
+      Path journal = this.folder.newFile().toPath();
+      long numCommands = this.record(journal, seed, seed % 2 == 0);
+      ReplayResult result = new JournalReplayer(1).replay(journal);
+      assertTrue(result.isVerified());
+      assertEquals(numCommands, result.getNumCommands());
+      assertTrue(numCommands > 2);
+    }
+  }
+
+  @Test
+  public void testChangedOutcomeIsFound() throws IOException {
+    Path journal = this.folder.newFile().toPath();
+    this.record(journal, 3, false);
+    byte[] bytes = Files.readAllBytes(journal);
+    bytes[bytes.length - 1] ^= 1;
+    Files.write(journal, bytes);
+
+    ReplayResult result = new JournalReplayer(1).replay(journal);
+    assertFalse(result.isVerified());
+    assertEquals(result.getNumCommands(), result.getFirstMismatch());
+  }
+
+  @Test
+  public void testVerifyDirectory() throws IOException {
+    Path directory = this.folder.newFolder().toPath();
+    long numCommands = 0;
+    for (int seed = 0; seed < 6; seed++) {
+      numCommands += this.record(directory.resolve("game" + seed), seed, true);
+    }
+    byte[] bytes = Files.readAllBytes(directory.resolve("game2"));
+    Files.write(directory.resolve("truncated"), Arrays.copyOf(bytes, bytes.length - 1));
+    Files.write(directory.resolve("notes.txt"), "not a journal".getBytes("UTF-8"));
+
+    SortedMap<Path, ReplayResult> results = new JournalReplayer(3).verify(directory);
+    assertEquals(8, results.size());
+    long played = 0;
+    for (int seed = 0; seed < 6; seed++) {
+      ReplayResult result = results.get(directory.resolve("game" + seed));
+      assertTrue(result.isVerified());
+      played += result.getNumCommands();
+    }
+    assertEquals(numCommands, played);
+    assertEquals("game journal is damaged", results.get(directory.resolve("truncated"))
+            .getProblem());
+    assertEquals("not a game journal", results.get(directory.resolve("notes.txt")).getProblem());
+  }
+
+  @Test
+  public void testDamagedPlayerIsReported() throws IOException {
+    Path directory = this.folder.newFolder().toPath();
+    this.record(directory.resolve("game"), 4, false);
+    byte[] bytes = Files.readAllBytes(directory.resolve("game"));
+    // make the first player be added as player 5
+    bytes[36] |= 5 << 2;
+    Files.write(directory.resolve("damaged"), bytes);
+
+    SortedMap<Path, ReplayResult> results = new JournalReplayer(2).verify(directory);
+    assertTrue(results.get(directory.resolve("game")).isVerified());
+    assertEquals("game journal is damaged", results.get(directory.resolve("damaged"))
+            .getProblem());
+  }
+
+  @Test
+  public void testFlushedCommandsPlayAgainBeforeClose() throws IOException {
+    Path journal = this.folder.newFile().toPath();
+    NonPerfectMaze maze = new NonPerfectMaze(6, 7, true, 8, 12, 5, 30);
+    try (GameJournalWriter writer = new GameJournalWriter(journal, 6, 7, true, 8, 12, 5, 30)) {
+      maze.addPlayer(0, 0, 3);
+      writer.recordAddPlayer(0, 0, 0, 3, maze.getTurnOutcome(0));
+      int direction = Integer.numberOfTrailingZeros(maze.getValidMoveMask(0));
+      writer.recordMove(0, direction, maze.takeMove(direction, 0));
+      writer.flush();
+
+      ReplayResult result = new JournalReplayer(1).replay(journal);
+      assertTrue(result.isVerified());
+      assertEquals(2, result.getNumCommands());
+    }
+  }
+
+  @Test
+  public void testNoSeed() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("a game can only be journaled on a maze with a seed");
+    new GameJournalWriter(this.folder.newFile().toPath(), 5, 5, true, -1, 3, 10, 10);
+  }
+
+  /**
+   * Play a console game of random commands, some of them not valid, and record it in a journal.
+   */
+  private long record(Path journal, int seed, boolean twoPlayers) throws IOException {
+    Random random = new Random(seed);
+    StringBuilder in = new StringBuilder();
+    for (int i = 0; i < 300; i++) {
+      String command = COMMANDS[random.nextInt(COMMANDS.length)];
+      in.append(command).append(' ').append(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+      if (command.equals("S")) {
+        in.append(' ').append(random.nextInt(6));
+      }
+      in.append(' ');
+    }
+    in.append("q");
+
+    try (GameJournalWriter writer = new GameJournalWriter(journal, 6, 7, true, seed, 12, 5,
+            30)) {
+      new HTWConsoleController(new StringReader(in.toString()), new StringBuilder(), writer)
+              .start(new NonPerfectMaze(6, 7, true, seed, 12, 5, 30), 6, 7, 20, twoPlayers);
+      return writer.getNumCommands();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import mazemodel.CompactMaze;
+import mazemodel.MappedMaze;
+import mazemodel.Maze;
+import mazemodel.MazeFileWriter;
+
+/**
+ * A class to test the MappedMaze and MazeFileWriter classes. It runs every test of the maze model
+ * against a maze written to a file and mapped back, and checks that it plays the same games as a
+ * CompactMaze.
+ */
+public class MappedMazeTest extends MazeModelTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Override
+  protected Maze createMaze(int numRows, int numCols, boolean wrapping, int seed, int numWalls,
+                            int percentPits, int percentBats) {
+    try {
+      Path file = this.folder.newFile().toPath();
+      MazeFileWriter.write(file, numRows, numCols, wrapping, seed, numWalls, percentPits,
+              percentBats);
+      return new MappedMaze(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Test
+  public void testSameGameAsCompactMaze() {
+    for (int seed = 0; seed < 30; seed++) {
+      int rows = 2 + seed % 7;
+      int cols = 9 - seed % 5;
+      boolean wrapping = seed % 2 == 0;
+      Maze mapped = this.createMaze(rows, cols, wrapping, seed, seed % 4, 20, 30);
+      Maze compact = new CompactMaze(rows, cols, wrapping, seed, seed % 4, 20, 30);
+      for (int location = 0; location < rows * cols; location++) {
+        assertEquals(compact.getDoorMask(location), mapped.getDoorMask(location));
+      }
+      for (int player = 0; player < rows * cols; player++) {
+        compact.addPlayer(player / cols, player % cols, 5);
+        mapped.addPlayer(player / cols, player % cols, 5);
+      }
+      MazeGames.assertSameGame(compact, mapped, rows * cols, new Random(seed), 60, 50);
+    }
+  }
+
+  @Test
+  public void testNotAMazeFile() throws IOException {
+    Path file = this.folder.newFile().toPath();
+    Files.write(file, new byte[100]);
+
+    thrown.expect(IOException.class);
+    thrown.expectMessage("not a maze file");
+    new MappedMaze(file);
+  }
+
+  @Test
+  public void testTruncatedMazeFile() throws IOException {
+    Path file = this.folder.newFile().toPath();
+    MazeFileWriter.write(file, 20, 30, true, 4, 10, 20, 20);
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+
+    thrown.expect(IOException.class);
+    thrown.expectMessage("maze file is damaged");
+    new MappedMaze(file);
+  }
+}
@@ -0,0 +1,104 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mazemodel.Maze;
+import mazemodel.NonPerfectMaze;
+import mazemodel.PerfectMaze;
+
+/**
+ * A class to test forking the games of NonPerfectMaze and PerfectMaze.
+ */
+public class MazeForkTest {
+
+  @Test
+  public void testForkGoesOnLikeTheGame() {
+    NonPerfectMaze maze = new NonPerfectMaze(8, 9, true, 21, 10, 20, 40);
+    this.addPlayers(maze, 8, 9);
+    MazeGames.play(maze, 72, new Random(1), 30, 10);
+
+    Maze fork = maze.fork();
+    MazeGames.assertSameGame(maze, fork, 72, new Random(2), 100, 10);
+  }
+
+  @Test
+  public void testForkLeavesTheGameAlone() {
+    PerfectMaze maze = new PerfectMaze(6, 6, false, 4, 0, 0);
+    maze.addPlayer(0, 0, 2);
+    int location = maze.getPlayerLocation(0);
+    int direction = maze.getValidPlayerMoves(0).get(0);
+
+    Maze fork = maze.fork();
+    fork.shootArrow(direction, 1, 0);
+    fork.movePlayerInDirection(direction, 0);
+    fork.addPlayer(5, 5, 1);
+    assertEquals(2, maze.getPlayerArrows(0));
+    assertEquals(location, maze.getPlayerLocation(0));
+    assertEquals(1, fork.getPlayerArrows(0));
+    assertTrue(location != fork.getPlayerLocation(0));
+  }
+
+  @Test
+  public void testLookAheadForTheWumpus() {
+    NonPerfectMaze maze = new NonPerfectMaze(5, 5, true, 7, 6, 0, 0);
+    maze.addPlayer(0, 0, 1);
+    int killingDirection = -1;
+    int killingCaves = -1;
+    for (int direction : maze.getValidPlayerMoves(0)) {
+      for (int caves = 1; caves <= 25 && killingDirection < 0; caves++) {
+        Maze fork = maze.fork();
+        fork.shootArrow(direction, caves, 0);
+        if (fork.wumpusKilled(0)) {
+          killingDirection = direction;
+          killingCaves = caves;
+        }
+      }
+    }
+    assertTrue(killingDirection >= 0);
+    assertEquals(1, maze.getPlayerArrows(0));
+    assertFalse(maze.wumpusKilled(0));
+
+    Maze fork = maze.fork();
+    maze.shootArrow(killingDirection, killingCaves, 0);
+    assertTrue(maze.wumpusKilled(0));
+    assertTrue(maze.fork().wumpusKilled(0));
+    assertFalse(fork.wumpusKilled(0));
+  }
+
+  @Test
+  public void testForksPlayedOnThreadsAtOnce() throws Exception {
+    NonPerfectMaze maze = new NonPerfectMaze(12, 12, true, 6, 20, 10, 30);
+    this.addPlayers(maze, 12, 12);
+    long[] expected = MazeGames.play(maze.fork(), 144, new Random(7), 500, 10);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<long[]>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        Maze fork = maze.fork();
+        results.add(executor.submit(() -> MazeGames.play(fork, 144, new Random(7), 500, 10)));
+      }
+      for (Future<long[]> result : results) {
+        assertArrayEquals(expected, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void addPlayers(Maze maze, int rows, int cols) {
+    for (int player = 0; player < rows * cols; player++) {
+      maze.addPlayer(player / cols, player % cols, 5);
+    }
+  }
+}
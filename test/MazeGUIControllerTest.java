@@ -51,6 +51,19 @@ public class MazeGUIControllerTest {
     assertTrue(this.viewLog.toString().contains("setCurrentPlayer called with player: 1"));
   }
 
+  @Test
+  public void testMoveThroughLongHallway() {
+    // the wumpus eats the first player at the West end, leaving the second player to walk there
+    this.controller.startGame(1, 40, false, 5, 0, 0, 0, 3, true);
+    this.controller.moveInDirection(3);
+    String log = this.viewLog.toString();
+    for (int location = 1; location < 39; location++) {
+      assertTrue(log.contains("setPictureAtLocation called with location: " + location
+              + " and key: 23"));
+    }
+    assertTrue(log.contains("setPictureAtLocation called with location: 0 and key: player1"));
+  }
+
   @Test
   public void testShootArrow() {
     this.controller.shootArrow(0, 1);
@@ -0,0 +1,112 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import mazemodel.Maze;
+import mazemodel.TurnOutcome;
+
+/**
+ * A class of random games played on mazes, shared by the tests that check that two mazes, or two
+ * copies of a game, play the same way.
+ */
+final class MazeGames {
+  private MazeGames() {
+  }
+
+  /**
+   * Take a random move or shot through up to five caves for the first player that has not lost.
+   * @param maze the maze to take the turn on
+   * @param random the source of the turn
+   * @return the outcome of the turn
+   */
+  static TurnOutcome takeTurn(Maze maze, Random random) {
+    return takeTurn(maze, maze.gameLost(0) ? 1 : 0, random, 5);
+  }
+
+  /**
+   * Take a random turn for a player, which is a shot one time in four while the player has arrows
+   * left and otherwise a move.
+   * @param maze the maze to take the turn on
+   * @param player the player
+   * @param random the source of the turn
+   * @param maxCaves the largest number of caves to shoot through
+   * @return the outcome of the turn
+   */
+  static TurnOutcome takeTurn(Maze maze, int player, Random random, int maxCaves) {
+    List<Integer> moves = maze.getValidPlayerMoves(player);
+    int direction = moves.get(random.nextInt(moves.size()));
+    if (random.nextInt(4) == 0 && maze.getPlayerArrows(player) > 0) {
+      return maze.takeShot(direction, 1 + random.nextInt(maxCaves), player);
+    }
+    return maze.takeMove(direction, player);
+  }
+
+  /**
+   * Take random turns for each player in turn, skipping players that have lost, and record where
+   * each turn left its player.
+   * @param maze the maze to play on
+   * @param numPlayers the number of players in the maze
+   * @param random the source of the turns
+   * @param turns the number of turns to play
+   * @param maxCaves the largest number of caves to shoot through
+   * @return the location, arrows and conditions each turn ended with, packed into a number, or 0
+   *         for a turn that was skipped
+   */
+  static long[] play(Maze maze, int numPlayers, Random random, int turns, int maxCaves) {
+    long[] result = new long[turns];
+    for (int turn = 0; turn < turns; turn++) {
+      int player = turn % numPlayers;
+      if (maze.gameLost(player)) {
+        continue;
+      }
+      TurnOutcome outcome = takeTurn(maze, player, random, maxCaves);
+      result[turn] = ((long) outcome.getLocation() << 32) | ((long) outcome.getArrows() << 8)
+              | outcome.getConditions();
+    }
+    return result;
+  }
+
+  /**
+   * Take the same random turns on two mazes, for each player in turn, and check that every player
+   * is in the same state on both before each turn, that arrows shot from there would fly the same
+   * way, and that the turn ends the same way, bats and all. Players that have lost are skipped.
+   * @param expected the maze that plays the game as it should be played
+   * @param actual the maze to check
+   * @param numPlayers the number of players in both mazes
+   * @param random the source of the turns
+   * @param turns the number of turns to play
+   * @param maxCaves the largest number of caves to shoot through
+   */
+  static void assertSameGame(Maze expected, Maze actual, int numPlayers, Random random, int turns,
+                             int maxCaves) {
+    for (int turn = 0; turn < turns; turn++) {
+      int player = turn % numPlayers;
+      assertSameOutcome(expected.getTurnOutcome(player), actual.getTurnOutcome(player));
+      if (expected.gameLost(player)) {
+        continue;
+      }
+      for (int direction : expected.getValidPlayerMoves(player)) {
+        assertArrayEquals(expected.traceArrow(direction, maxCaves, player),
+                actual.traceArrow(direction, maxCaves, player));
+      }
+      long seed = random.nextLong();
+      assertSameOutcome(takeTurn(expected, player, new Random(seed), maxCaves),
+              takeTurn(actual, player, new Random(seed), maxCaves));
+    }
+  }
+
+  /**
+   * Check that two turns ended the same way.
+   * @param expected the outcome the turn should have
+   * @param actual the outcome to check
+   */
+  static void assertSameOutcome(TurnOutcome expected, TurnOutcome actual) {
+    assertEquals(expected.getLocation(), actual.getLocation());
+    assertEquals(expected.getArrows(), actual.getArrows());
+    assertEquals(expected.getValidMoveMask(), actual.getValidMoveMask());
+    assertEquals(expected.getConditions(), actual.getConditions());
+    assertEquals(expected.getHallwaysTraveled(), actual.getHallwaysTraveled());
+  }
+}
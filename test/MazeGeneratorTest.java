@@ -0,0 +1,178 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import mazemodel.BacktrackerGenerator;
+import mazemodel.EllerGenerator;
+import mazemodel.KruskalGenerator;
+import mazemodel.Maze;
+import mazemodel.MazeGenerator;
+import mazemodel.NonPerfectMaze;
+import mazemodel.PerfectMaze;
+import mazemodel.WilsonGenerator;
+
+/**
+ * A class to test the maze generation engines.
+ */
+public class MazeGeneratorTest {
+  private final MazeGenerator[] generators = {new KruskalGenerator(), new EllerGenerator(),
+      new WilsonGenerator(), new BacktrackerGenerator()};
+
+  @Test
+  public void testPerfectMazeLeavesOnlyTreeDoorsOpen() {
+    for (MazeGenerator generator : this.generators) {
+      BitSet open = generator.generate(6, 7, false, this.getMaxWalls(6, 7, false),
+              new Random(3));
+      assertEquals(6 * 7 - 1, open.cardinality());
+    }
+  }
+
+  @Test
+  public void testPerfectMazeIsATree() {
+    for (MazeGenerator generator : this.generators) {
+      for (int seed = 0; seed < 20; seed++) {
+        boolean wrapping = seed % 2 == 0;
+        BitSet open = generator.generate(7, 9, wrapping, this.getMaxWalls(7, 9, wrapping),
+                new Random(seed));
+        int[] parents = this.createParents(7 * 9);
+        for (int door = open.nextSetBit(0); door >= 0; door = open.nextSetBit(door + 1)) {
+          int[] locations = this.getLocations(7, 9, wrapping, door);
+          assertTrue(this.union(parents, locations[0], locations[1]));
+        }
+        this.assertConnected(parents);
+      }
+    }
+  }
+
+  @Test
+  public void testNonPerfectMazeIsConnected() {
+    for (MazeGenerator generator : this.generators) {
+      for (int walls = 0; walls <= this.getMaxWalls(6, 8, true); walls += 5) {
+        BitSet open = generator.generate(6, 8, true, walls, new Random(walls));
+        int[] parents = this.createParents(6 * 8);
+        for (int door = open.nextSetBit(0); door >= 0; door = open.nextSetBit(door + 1)) {
+          int[] locations = this.getLocations(6, 8, true, door);
+          this.union(parents, locations[0], locations[1]);
+        }
+        this.assertConnected(parents);
+      }
+    }
+  }
+
+  @Test
+  public void testNumRemainingWallsIsHonored() {
+    for (MazeGenerator generator : this.generators) {
+      for (int walls = 0; walls <= this.getMaxWalls(5, 4, true); walls++) {
+        BitSet open = generator.generate(5, 4, true, walls, new Random(walls));
+        assertEquals(this.getNumDoors(5, 4, true) - walls, open.cardinality());
+      }
+    }
+  }
+
+  @Test
+  public void testWrappingDoorsCanBeOpened() {
+    for (MazeGenerator generator : this.generators) {
+      BitSet open = generator.generate(4, 4, true, 0, new Random(1));
+      int numDoors = this.getNumDoors(4, 4, true);
+      assertEquals(numDoors, open.cardinality());
+      assertEquals(numDoors - 1, open.previousSetBit(numDoors - 1));
+    }
+  }
+
+  @Test
+  public void testSameSeedGivesSameMaze() {
+    for (MazeGenerator generator : this.generators) {
+      assertEquals(generator.generate(9, 8, true, 10, new Random(42)),
+              generator.generate(9, 8, true, 10, new Random(42)));
+    }
+  }
+
+  @Test
+  public void testMazesAcceptGenerators() {
+    for (MazeGenerator generator : this.generators) {
+      Maze perfect = new PerfectMaze(5, 5, false, 7, 0, 0, generator);
+      perfect.addPlayer(0, 0, 1);
+      assertFalse(perfect.getValidPlayerMoves(0).isEmpty());
+
+      Maze nonPerfect = new NonPerfectMaze(5, 5, true, 7, 5, 0, 0, generator);
+      nonPerfect.addPlayer(4, 4, 1);
+      assertFalse(nonPerfect.getValidPlayerMoves(0).isEmpty());
+    }
+  }
+
+  /**
+   * Get the two locations a door joins, numbering the doors the way the mazes do: the East-West
+   * doors row by row, then the North-South doors column by column, then the wrapping doors of
+   * each row and of each column.
+   */
+  private int[] getLocations(int rows, int cols, boolean wrapping, int door) {
+    int eastWest = rows * (cols - 1);
+    int northSouth = (rows - 1) * cols;
+    if (door < eastWest) {
+      int location = (door / (cols - 1)) * cols + door % (cols - 1);
+      return new int[] {location, location + 1};
+    }
+    door -= eastWest;
+    if (door < northSouth) {
+      int location = (door % (rows - 1)) * cols + door / (rows - 1);
+      return new int[] {location, location + cols};
+    }
+    door -= northSouth;
+    assertTrue(wrapping);
+    if (door < rows) {
+      return new int[] {door * cols, door * cols + cols - 1};
+    }
+    door -= rows;
+    assertTrue(door < cols);
+    return new int[] {door, (rows - 1) * cols + door};
+  }
+
+  private int[] createParents(int numLocations) {
+    int[] parents = new int[numLocations];
+    for (int i = 0; i < numLocations; i++) {
+      parents[i] = i;
+    }
+    return parents;
+  }
+
+  private int find(int[] parents, int location) {
+    while (parents[location] != location) {
+      location = parents[location];
+    }
+    return location;
+  }
+
+  /**
+   * Join the components of two locations, returning false if they were already joined.
+   */
+  private boolean union(int[] parents, int one, int two) {
+    int rootOne = this.find(parents, one);
+    int rootTwo = this.find(parents, two);
+    parents[rootOne] = rootTwo;
+    return rootOne != rootTwo;
+  }
+
+  private void assertConnected(int[] parents) {
+    int root = this.find(parents, 0);
+    for (int location = 1; location < parents.length; location++) {
+      assertEquals(root, this.find(parents, location));
+    }
+  }
+
+  private int getNumDoors(int rows, int cols, boolean wrapping) {
+    int result = rows * (cols - 1) + (rows - 1) * cols;
+    if (wrapping) {
+      result += rows + cols;
+    }
+    return result;
+  }
+
+  private int getMaxWalls(int rows, int cols, boolean wrapping) {
+    return this.getNumDoors(rows, cols, wrapping) - (rows * cols) + 1;
+  }
+}
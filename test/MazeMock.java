@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 
 import mazemodel.Maze;
+import mazemodel.TurnOutcome;
 
 /**
  * A class that mocks the Maze interface. It can be used to test a maze console controller.
@@ -169,4 +170,105 @@ class MazeMock implements Maze {
             " for player: " + player + "\n");
     this.arrows.set(player, this.arrows.get(player) - 1);
   }
+
+  @Override
+  public int getArrowDestination(int direction, int caves, int player) {
+    log.append("getArrowDestination called with direction: " + direction + ", caves: " + caves
+            + " for player: " + player + "\n");
+    return this.locations.get(player);
+  }
+
+  @Override
+  public int[] traceArrow(int direction, int caves, int player) {
+    log.append("traceArrow called with direction: " + direction + ", caves: " + caves
+            + " for player: " + player + "\n");
+    return new int[0];
+  }
+
+  @Override
+  public TurnOutcome getTurnOutcome(int player) {
+    log.append("getTurnOutcome called for player " + player + "\n");
+    return this.createTurnOutcome(player);
+  }
+
+  @Override
+  public TurnOutcome takeMove(int direction, int player) {
+    this.movePlayerInDirection(direction, player);
+    return this.createTurnOutcome(player);
+  }
+
+  @Override
+  public TurnOutcome takeMoveToLocation(int location, int player) {
+    this.movePlayerToLocation(location, player);
+    return this.createTurnOutcome(player);
+  }
+
+  @Override
+  public TurnOutcome takeShot(int direction, int caves, int player) {
+    this.shootArrow(direction, caves, player);
+    return this.createTurnOutcome(player);
+  }
+
+  @Override
+  public int getValidMoveMask(int player) {
+    log.append("getValidMoveMask called for player " + player + "\n");
+    return 7;
+  }
+
+  @Override
+  public int getDoorMask(int location) {
+    log.append("getDoorMask called for location " + location + "\n");
+    return 7;
+  }
+
+  @Override
+  public int getConditionMask(int player) {
+    log.append("getConditionMask called for player " + player + "\n");
+    return this.createTurnOutcome(player).getConditions();
+  }
+
+  @Override
+  public int getHallwayLength(int direction, int player) {
+    log.append("getHallwayLength called with direction: " + direction + " for player: " + player
+            + "\n");
+    return 0;
+  }
+
+  @Override
+  public int movePlayer(int direction, int player, int[] hallways) {
+    this.movePlayerInDirection(direction, player);
+    return 0;
+  }
+
+  private TurnOutcome createTurnOutcome(int player) {
+    int validMoves = 0;
+    for (int direction : this.getValidPlayerMoves(player)) {
+      validMoves |= 1 << direction;
+    }
+
+    int conditions = 0;
+    if (this.smellWumpus(player)) {
+      conditions |= TurnOutcome.SMELL_WUMPUS;
+    }
+    if (this.feelDraft(player)) {
+      conditions |= TurnOutcome.FEEL_DRAFT;
+    }
+    if (this.playerOnBat(player)) {
+      conditions |= TurnOutcome.ON_BAT;
+    }
+    if (this.playerEaten(player)) {
+      conditions |= TurnOutcome.EATEN;
+    }
+    if (this.playerFallen(player)) {
+      conditions |= TurnOutcome.FALLEN;
+    }
+    if (this.movedByBats(player)) {
+      conditions |= TurnOutcome.MOVED_BY_BATS;
+    }
+    if (this.wumpusKilled(player)) {
+      conditions |= TurnOutcome.WUMPUS_KILLED;
+    }
+    return new TurnOutcome(this.locations.get(player), this.arrows.get(player), validMoves,
+            conditions, this.getHallwaysTraveled());
+  }
 }
@@ -12,6 +12,7 @@ import java.util.List;
 
 import mazemodel.Maze;
 import mazemodel.NonPerfectMaze;
+import mazemodel.TurnOutcome;
 
 /**
  * A class to test the model of the Hunt the Wumpus MVC game.
@@ -48,10 +49,20 @@ public class MazeModelTest {
    */
   @Before
   public void setUp() throws Exception {
-    this.maze = new NonPerfectMaze(3, 3, true, 10,
+    this.maze = this.createMaze(3, 3, true, 10,
             5, 30, 30);
   }
 
+  /**
+   * Create the maze that is tested. Subclasses can override this method to run these tests
+   * against another implementation of the Maze interface.
+   */
+  protected Maze createMaze(int numRows, int numCols, boolean wrapping, int seed, int numWalls,
+                            int percentPits, int percentBats) {
+    return new NonPerfectMaze(numRows, numCols, wrapping, seed, numWalls, percentPits,
+            percentBats);
+  }
+
   @Test
   public void testGetValidPlayerMoves() {
     this.maze.addPlayer(0, 0, 3);
@@ -154,12 +165,155 @@ public class MazeModelTest {
     assertTrue(this.maze.playerEaten(1));
   }
 
+  @Test
+  public void testTakeMoveReportsPlayer() {
+    this.maze.addPlayer(0, 0, 3);
+    TurnOutcome outcome = this.maze.takeMoveToLocation(6, 0);
+
+    assertEquals(this.maze.getPlayerLocation(0), outcome.getLocation());
+    assertEquals(this.maze.getPlayerArrows(0), outcome.getArrows());
+    assertEquals(this.maze.getValidPlayerMoves(0), outcome.getValidMoves());
+    assertEquals(this.maze.getHallwaysTraveled(), outcome.getHallwaysTraveled());
+    assertEquals(this.maze.smellWumpus(0), outcome.smellWumpus());
+    assertEquals(this.maze.feelDraft(0), outcome.feelDraft());
+    assertEquals(this.maze.playerOnBat(0), outcome.playerOnBat());
+    assertEquals(this.maze.movedByBats(0), outcome.movedByBats());
+    assertEquals(this.maze.playerEaten(0), outcome.playerEaten());
+    assertEquals(this.maze.playerFallen(0), outcome.playerFallen());
+    assertEquals(this.maze.gameLost(0), outcome.gameLost());
+    assertEquals(1, outcome.getHallwaysTraveled().size());
+  }
+
+  @Test
+  public void testTakeShotReportsPlayer() {
+    this.maze.addPlayer(0, 0, 3);
+    TurnOutcome before = this.maze.getTurnOutcome(0);
+    TurnOutcome outcome = this.maze.takeShot(3, 1, 0);
+
+    assertEquals(3, before.getArrows());
+    assertFalse(before.wumpusKilled());
+    assertEquals(2, outcome.getArrows());
+    assertTrue(outcome.wumpusKilled());
+    assertEquals(0, outcome.getLocation());
+    assertEquals(14, outcome.getValidMoveMask());
+    assertEquals(0, outcome.getHallwaysTraveled().size());
+  }
+
+  @Test
+  public void testMovePlayerWritesHallways() {
+    this.maze.addPlayer(0, 0, 3);
+    assertEquals(14, this.maze.getValidMoveMask(0));
+
+    int[] hallways = new int[4];
+    assertEquals(1, this.maze.getHallwayLength(1, 0));
+    assertEquals(1, this.maze.movePlayer(1, 0, hallways));
+    assertEquals(3, hallways[0]);
+    assertEquals(3, this.maze.getDoorMask(3));
+    assertEquals(0, this.maze.getHallwaysTraveled().size());
+    assertEquals(this.maze.getTurnOutcome(0).getConditions(), this.maze.getConditionMask(0));
+    assertEquals(this.maze.movedByBats(0),
+            (this.maze.getConditionMask(0) & TurnOutcome.MOVED_BY_BATS) != 0);
+  }
+
+  @Test
+  public void testMovePlayerWithShortBuffer() {
+    this.maze.addPlayer(0, 0, 3);
+
+    assertEquals(1, this.maze.getHallwayLength(2, 0));
+    assertEquals(1, this.maze.movePlayer(2, 0, new int[0]));
+    assertEquals(2, this.maze.getPlayerLocation(0));
+  }
+
+  @Test
+  public void testGetDoorMaskOfInvalidLocation() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("not a valid location");
+
+    this.maze.getDoorMask(9);
+  }
+
+  @Test
+  public void testGetArrowDestination() {
+    this.maze.addPlayer(0, 0, 3);
+
+    assertEquals(0, this.maze.getArrowDestination(2, 0, 0));
+    assertEquals(2, this.maze.getArrowDestination(2, 1, 0));
+    assertEquals(6, this.maze.getArrowDestination(1, 1, 0));
+    assertEquals(-1, this.maze.getArrowDestination(1, 2, 0));
+    // caves 0 and 2 form a loop, so the arrow keeps going around it
+    assertEquals(2, this.maze.getArrowDestination(2, 999999999, 0));
+    assertEquals(0, this.maze.getArrowDestination(2, 1000000000, 0));
+    assertEquals(3, this.maze.getPlayerArrows(0));
+  }
+
+  @Test
+  public void testTraceArrow() {
+    this.maze.addPlayer(0, 0, 3);
+
+    assertArrayEquals(new int[] {}, this.maze.traceArrow(2, 0, 0));
+    assertArrayEquals(new int[] {1, 2}, this.maze.traceArrow(2, 1, 0));
+    assertArrayEquals(new int[] {3, 6}, this.maze.traceArrow(1, 5, 0));
+    assertArrayEquals(new int[] {1, 2, 0}, this.maze.traceArrow(2, 1000000000, 0));
+  }
+
+  @Test
+  public void testShootArrowAroundLoop() {
+    this.maze.addPlayer(0, 0, 3);
+    this.maze.shootArrow(2, 1000000000, 0);
+
+    assertFalse(this.maze.wumpusKilled(0));
+    this.maze.shootArrow(3, 999999999, 0);
+    assertTrue(this.maze.wumpusKilled(0));
+  }
+
+  @Test
+  public void testAddPlayerInHallwayMovesToClosestCaveAcrossWrap() {
+    int numRows = 12;
+    int numCols = 12;
+    Maze wrappingMaze = this.createMaze(numRows, numCols, true, 3,
+            140, 0, 0);
+
+    boolean[] isCave = new boolean[numRows * numCols];
+    for (int location = 0; location < numRows * numCols; location++) {
+      wrappingMaze.addPlayer(location / numCols, location % numCols, 0);
+      isCave[location] = wrappingMaze.getPlayerLocation(location) == location;
+    }
+
+    int numHallways = 0;
+    for (int location = 0; location < numRows * numCols; location++) {
+      if (isCave[location]) {
+        assertTrue(wrappingMaze.getValidPlayerMoves(location).size() != 2);
+        continue;
+      }
+      numHallways += 1;
+
+      int closest = -1;
+      int closestDistance = Integer.MAX_VALUE;
+      for (int cave = 0; cave < numRows * numCols; cave++) {
+        if (!isCave[cave]) {
+          continue;
+        }
+        int rowDistance = Math.abs(cave / numCols - location / numCols);
+        int colDistance = Math.abs(cave % numCols - location % numCols);
+        rowDistance = Math.min(rowDistance, numRows - rowDistance);
+        colDistance = Math.min(colDistance, numCols - colDistance);
+        int distance = rowDistance * rowDistance + colDistance * colDistance;
+        if (distance < closestDistance) {
+          closestDistance = distance;
+          closest = cave;
+        }
+      }
+      assertEquals(closest, wrappingMaze.getPlayerLocation(location));
+    }
+    assertTrue(numHallways > 0);
+  }
+
   @Test
   public void testCreateMazeWithNegativeNumRows() {
     thrown.expect(IllegalArgumentException.class);
     thrown.expectMessage("number of rows must be positive");
 
-    Maze badMaze = new NonPerfectMaze(-1, 2, true, -1,
+    Maze badMaze = this.createMaze(-1, 2, true, -1,
             5, 5, 5);
   }
 
@@ -168,7 +322,7 @@ public class MazeModelTest {
     thrown.expect(IllegalArgumentException.class);
     thrown.expectMessage("number of columns must be positive");
 
-    Maze badMaze = new NonPerfectMaze(1, 0, true, -1,
+    Maze badMaze = this.createMaze(1, 0, true, -1,
             5, 5, 5);
   }
 
@@ -272,6 +426,15 @@ public class MazeModelTest {
     this.maze.shootArrow(1, -1, 0);
   }
 
+  @Test
+  public void testTraceArrowInInvalidDirection() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("this is not a valid direction");
+
+    this.maze.addPlayer(0, 0, 3);
+    this.maze.traceArrow(0, 1, 0);
+  }
+
   @Test
   public void testShootArrowWhenNoArrowsExist() {
     thrown.expect(IllegalStateException.class);
@@ -294,7 +457,7 @@ public class MazeModelTest {
     thrown.expect(IllegalArgumentException.class);
     thrown.expectMessage("numRemainingWalls is not valid");
 
-    Maze badMaze = new NonPerfectMaze(2, 2, true, -1,
+    Maze badMaze = this.createMaze(2, 2, true, -1,
             10, 5, 5);
   }
 }
@@ -0,0 +1,71 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import mazemodel.NonPerfectMaze;
+import mazemodel.PerfectMaze;
+
+/**
+ * A class to test saving games to snapshot files and loading them again.
+ */
+public class MazeSnapshotTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testLoadedGameGoesOnTheSameWay() throws IOException {
+    NonPerfectMaze maze = new NonPerfectMaze(9, 11, true, 12, 20, 10, 40);
+    maze.addPlayer(0, 0, 20);
+    maze.addPlayer(8, 10, 20);
+    Random random = new Random(4);
+    for (int turn = 0; turn < 15; turn++) {
+      MazeGames.takeTurn(maze, random);
+    }
+
+    Path snapshot = this.folder.newFile().toPath();
+    maze.save(snapshot);
+    NonPerfectMaze loaded = NonPerfectMaze.load(snapshot);
+    MazeGames.assertSameGame(maze, loaded, 2, new Random(6), 80, 5);
+  }
+
+  @Test
+  public void testPerfectMazeLoads() throws IOException {
+    PerfectMaze maze = new PerfectMaze(6, 7, false, 3, 10, 50);
+    maze.addPlayer(0, 0, 20);
+    Path snapshot = this.folder.newFile().toPath();
+    maze.save(snapshot);
+    MazeGames.assertSameGame(maze, NonPerfectMaze.load(snapshot), 1, new Random(6), 40, 5);
+  }
+
+  @Test
+  public void testNotASnapshot() throws IOException {
+    Path file = this.folder.newFile().toPath();
+    Files.write(file, new byte[64]);
+    thrown.expect(IOException.class);
+    thrown.expectMessage("not a maze snapshot");
+    NonPerfectMaze.load(file);
+  }
+
+  @Test
+  public void testTruncatedSnapshot() throws IOException {
+    NonPerfectMaze maze = new NonPerfectMaze(5, 5, false, 8, 4, 10, 10);
+    maze.addPlayer(0, 0, 3);
+    Path snapshot = this.folder.newFile().toPath();
+    maze.save(snapshot);
+    byte[] bytes = Files.readAllBytes(snapshot);
+    Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 1));
+    thrown.expect(IOException.class);
+    thrown.expectMessage("maze snapshot is damaged");
+    NonPerfectMaze.load(snapshot);
+  }
+}
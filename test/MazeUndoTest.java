@@ -0,0 +1,140 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import mazemodel.NonPerfectMaze;
+
+/**
+ * A class to test undoing and redoing turns of a NonPerfectMaze.
+ */
+public class MazeUndoTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testUndoThenRedoEveryTurn() {
+    NonPerfectMaze maze = this.createMaze(100);
+    long[] states = new long[41];
+    states[0] = this.getState(maze);
+    Random random = new Random(3);
+    for (int turn = 1; turn <= 40; turn++) {
+      MazeGames.takeTurn(maze, random);
+      states[turn] = this.getState(maze);
+    }
+
+    for (int turn = 39; turn >= 0; turn--) {
+      assertTrue(maze.undo());
+      assertEquals(states[turn], this.getState(maze));
+    }
+    assertFalse(maze.undo());
+    for (int turn = 1; turn <= 40; turn++) {
+      assertTrue(maze.redo());
+      assertEquals(states[turn], this.getState(maze));
+    }
+    assertFalse(maze.redo());
+  }
+
+  @Test
+  public void testUndoneTurnIsTakenTheSameWay() {
+    NonPerfectMaze maze = this.createMaze(100);
+    NonPerfectMaze other = this.createMaze(0);
+    Random seeds = new Random(5);
+    for (int turn = 0; turn < 30; turn++) {
+      long seed = seeds.nextLong();
+      MazeGames.takeTurn(maze, new Random(seed));
+      assertTrue(maze.undo());
+      MazeGames.takeTurn(maze, new Random(seed));
+      MazeGames.takeTurn(other, new Random(seed));
+      assertEquals(this.getState(other), this.getState(maze));
+    }
+  }
+
+  @Test
+  public void testNewTurnDropsRedo() {
+    NonPerfectMaze maze = this.createMaze(10);
+    Random random = new Random(8);
+    MazeGames.takeTurn(maze, random);
+    MazeGames.takeTurn(maze, random);
+    assertTrue(maze.undo());
+    MazeGames.takeTurn(maze, random);
+    assertFalse(maze.redo());
+    assertTrue(maze.undo());
+    assertTrue(maze.undo());
+    assertFalse(maze.undo());
+  }
+
+  @Test
+  public void testOnlyTheLatestTurnsAreKept() {
+    NonPerfectMaze maze = this.createMaze(5);
+    Random random = new Random(9);
+    long[] states = new long[13];
+    for (int turn = 0; turn < 13; turn++) {
+      states[turn] = this.getState(maze);
+      MazeGames.takeTurn(maze, random);
+    }
+    for (int turn = 12; turn >= 8; turn--) {
+      assertTrue(maze.undo());
+      assertEquals(states[turn], this.getState(maze));
+    }
+    assertFalse(maze.undo());
+  }
+
+  @Test
+  public void testAddingPlayerDropsTurns() {
+    NonPerfectMaze maze = this.createMaze(10);
+    MazeGames.takeTurn(maze, new Random(1));
+    maze.addPlayer(0, 0, 1);
+    assertFalse(maze.undo());
+  }
+
+  @Test
+  public void testNoUndoWithoutLimit() {
+    NonPerfectMaze maze = new NonPerfectMaze(6, 6, true, 2, 8, 0, 0);
+    maze.addPlayer(0, 0, 3);
+    maze.movePlayerInDirection(maze.getValidPlayerMoves(0).get(0), 0);
+    assertFalse(maze.undo());
+    assertFalse(maze.redo());
+  }
+
+  @Test
+  public void testNegativeLimit() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("number of turns to undo cannot be negative");
+    this.createMaze(-1);
+  }
+
+  private NonPerfectMaze createMaze(int undoLimit) {
+    NonPerfectMaze maze = new NonPerfectMaze(7, 8, true, 12, 10, 10, 40);
+    maze.addPlayer(0, 0, 20);
+    maze.addPlayer(6, 7, 20);
+    maze.setUndoLimit(undoLimit);
+    return maze;
+  }
+
+  /**
+   * Pack the state of both players into a number, along with where a few moves on a fork of the
+   * game lead, so that the state of the random number generator that moves players with bats
+   * counts too.
+   */
+  private long getState(NonPerfectMaze maze) {
+    long state = 0;
+    for (int player = 0; player < 2; player++) {
+      state = state * 31 + maze.getPlayerLocation(player);
+      state = state * 31 + maze.getPlayerArrows(player);
+      state = state * 31 + maze.getConditionMask(player);
+    }
+    NonPerfectMaze fork = maze.fork();
+    Random random = new Random(0);
+    for (int turn = 0; turn < 10 && !(fork.gameLost(0) && fork.gameLost(1)); turn++) {
+      MazeGames.takeTurn(fork, random);
+      state = state * 31 + fork.getPlayerLocation(0) * 64 + fork.getPlayerLocation(1);
+    }
+    return state;
+  }
+}
@@ -34,6 +34,17 @@ class MazeViewMock implements MazeView {
     return key.toString();
   }
 
+  @Override
+  public String getTileKey(int directionMask) {
+    StringBuilder key = new StringBuilder();
+    for (int direction = 0; direction < 4; direction++) {
+      if ((directionMask & (1 << direction)) != 0) {
+        key.append(direction);
+      }
+    }
+    return key.toString();
+  }
+
   @Override
   public void displayMaze(int numRows, int numCols) {
     this.log.append("displayMaze called with numRows: " + numRows + " and numCols: " + numCols +
@@ -0,0 +1,126 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+
+import mazesimulation.GameRecord;
+import mazesimulation.GameResult;
+import mazesimulation.GameSettings;
+import mazesimulation.RandomAgent;
+import mazesimulation.ResultColumn;
+import mazesimulation.ResultFileReader;
+import mazesimulation.ResultFileWriter;
+import mazesimulation.SimulationResult;
+import mazesimulation.SimulationRunner;
+
+/**
+ * A class to test the ResultFileWriter and ResultFileReader classes.
+ */
+public class ResultFileTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testCountResultsBySetting() throws IOException {
+    Path file = this.folder.newFile().toPath();
+    GameSettings fewPits = new GameSettings(6, 6, true, 10, 10, 20, 3, 500);
+    GameSettings manyPits = new GameSettings(6, 6, true, 10, 30, 20, 3, 500);
+    SimulationResult fewPitsResult;
+    SimulationResult manyPitsResult;
+    try (ResultFileWriter writer = new ResultFileWriter(file)) {
+      fewPitsResult = this.simulate(fewPits, writer);
+      manyPitsResult = this.simulate(manyPits, writer);
+      assertEquals(600, writer.getNumRecords());
+    }
+
+    try (ResultFileReader reader = new ResultFileReader(file)) {
+      assertEquals(600, reader.getNumRecords());
+      assertEquals(fewPitsResult.getTotalTurns() + manyPitsResult.getTotalTurns(),
+              reader.sum(ResultColumn.TURNS));
+      SortedMap<Integer, long[]> counts = reader.countResults(ResultColumn.PIT_PERCENT);
+      assertEquals(2, counts.size());
+      for (GameResult result : GameResult.values()) {
+        assertEquals(fewPitsResult.getCount(result), counts.get(10)[result.ordinal()]);
+        assertEquals(manyPitsResult.getCount(result), counts.get(30)[result.ordinal()]);
+      }
+    }
+  }
+
+  @Test
+  public void testColumnsOfManyBlocks() throws IOException {
+    Path file = this.folder.newFile().toPath();
+    GameSettings settings = new GameSettings(5, 7, false, 3, 10, 20, 4, 1000);
+    int numRecords = 150000;
+    try (ResultFileWriter writer = new ResultFileWriter(file)) {
+      for (int i = 0; i < numRecords; i++) {
+        writer.add(settings, new GameRecord(i == 1 ? Integer.MAX_VALUE : i,
+                GameResult.values()[i % 5], i % 1000, i % 3, i % 70000));
+      }
+    }
+
+    try (ResultFileReader reader = new ResultFileReader(file)) {
+      assertEquals(3, reader.getNumBlocks());
+      int record = 0;
+      for (int block = 0; block < reader.getNumBlocks(); block++) {
+        int[] seeds = reader.readColumn(block, ResultColumn.SEED);
+        int[] results = reader.readColumn(block, ResultColumn.RESULT);
+        int[] turns = reader.readColumn(block, ResultColumn.TURNS);
+        int[] batTransports = reader.readColumn(block, ResultColumn.BAT_TRANSPORTS);
+        int[] numCols = reader.readColumn(block, ResultColumn.NUM_COLS);
+        for (int i = 0; i < seeds.length; i++, record++) {
+          assertEquals(record == 1 ? Integer.MAX_VALUE : record, seeds[i]);
+          assertEquals(record % 5, results[i]);
+          assertEquals(record % 1000, turns[i]);
+          assertEquals(record % 70000, batTransports[i]);
+          assertEquals(7, numCols[i]);
+        }
+      }
+      assertEquals(numRecords, record);
+      assertEquals(0, reader.sum(ResultColumn.WRAPPING));
+      assertEquals(4L * numRecords, reader.sum(ResultColumn.ARROWS));
+      assertEquals(1000L * numRecords, reader.sum(ResultColumn.MAX_TURNS));
+    }
+  }
+
+  @Test
+  public void testEmptyFile() throws IOException {
+    Path file = this.folder.newFile().toPath();
+    new ResultFileWriter(file).close();
+
+    try (ResultFileReader reader = new ResultFileReader(file)) {
+      assertEquals(0, reader.getNumRecords());
+      assertEquals(0, reader.countResults(ResultColumn.PIT_PERCENT).size());
+    }
+  }
+
+  @Test
+  public void testNotAResultFile() throws IOException {
+    Path file = this.folder.newFile().toPath();
+    Files.write(file, "seed result turns arrows bats\n".getBytes("UTF-8"));
+
+    thrown.expect(IOException.class);
+    thrown.expectMessage("not a result file");
+    new ResultFileReader(file).close();
+  }
+
+  private SimulationResult simulate(GameSettings settings, ResultFileWriter writer) {
+    return new SimulationRunner(settings, RandomAgent::new, 2).run(0, 300, record -> {
+      try {
+        writer.add(settings, record);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+}
@@ -0,0 +1,200 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mazesimulation.GameResult;
+import mazesimulation.GameSettings;
+import mazesimulation.RandomAgent;
+import mazesimulation.SimulationCoordinator;
+import mazesimulation.SimulationResult;
+import mazesimulation.SimulationRunner;
+import mazesimulation.SimulationWorker;
+
+/**
+ * A class to test the SimulationCoordinator and SimulationWorker classes.
+ */
+public class SimulationCoordinatorTest {
+  private final GameSettings settings = new GameSettings(6, 6, true, 10, 10, 20, 3, 500);
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testSameResultAsOneProcess() throws IOException {
+    SimulationResult expected = new SimulationRunner(this.settings, RandomAgent::new, 1)
+            .run(100, 500);
+    SimulationResult result = new SimulationCoordinator(this.settings, 3, 37,
+        () -> new ThreadProcess(new SimulationWorker(RandomAgent::new)::serve)).run(100, 500);
+
+    this.assertSameTotals(expected, result);
+  }
+
+  @Test
+  public void testLeaseOfStoppedWorkerIsPlayedAgain() throws IOException {
+    AtomicInteger launches = new AtomicInteger();
+    SimulationResult expected = new SimulationRunner(this.settings, RandomAgent::new, 1)
+            .run(0, 300);
+    SimulationResult result = new SimulationCoordinator(this.settings, 2, 50, () -> {
+      if (launches.getAndIncrement() < 2) {
+        // read the settings and a lease, then stop without answering
+        return new ThreadProcess((in, out) -> {
+          in.readLine();
+          in.readLine();
+        });
+      }
+      return new ThreadProcess(new SimulationWorker(RandomAgent::new)::serve);
+    }).run(0, 300);
+
+    this.assertSameTotals(expected, result);
+    assertTrue(launches.get() >= 3);
+  }
+
+  @Test(timeout = 10000)
+  public void testLeaseOfHungWorkerIsPlayedAgain() throws IOException {
+    AtomicInteger launches = new AtomicInteger();
+    SimulationResult expected = new SimulationRunner(this.settings, RandomAgent::new, 1)
+            .run(0, 100);
+    SimulationResult result = new SimulationCoordinator(this.settings, 1, 50, () -> {
+      if (launches.getAndIncrement() == 0) {
+        // read the settings and a lease, then never answer until the worker is killed
+        return new ThreadProcess((in, out) -> {
+          in.readLine();
+          in.readLine();
+          try {
+            Thread.sleep(Long.MAX_VALUE);
+          } catch (InterruptedException e) {
+            return;
+          }
+        });
+      }
+      return new ThreadProcess(new SimulationWorker(RandomAgent::new)::serve);
+    }, 1000).run(0, 100);
+
+    this.assertSameTotals(expected, result);
+    assertEquals(2, launches.get());
+  }
+
+  @Test
+  public void testWorkersThatKeepStopping() throws IOException {
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("seeds 0 to 49 were lost by 3 workers");
+    new SimulationCoordinator(this.settings, 1, 50, () -> new ThreadProcess((in, out) -> { }))
+            .run(0, 100);
+  }
+
+  @Test
+  public void testWorkerProcesses() throws IOException {
+    ProcessBuilder worker = new ProcessBuilder(System.getProperty("java.home") + File.separator
+            + "bin" + File.separator + "java", "-cp", System.getProperty("java.class.path"),
+            "MazeDriver", "--worker");
+    worker.redirectError(ProcessBuilder.Redirect.INHERIT);
+    SimulationResult expected = new SimulationRunner(this.settings, RandomAgent::new, 1)
+            .run(0, 200);
+    SimulationResult result = new SimulationCoordinator(this.settings, 2, 40, worker::start)
+            .run(0, 200);
+
+    this.assertSameTotals(expected, result);
+  }
+
+  @Test
+  public void testWorkerRejectsLeaseBeforeSettings() throws IOException {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("not a valid request: lease 0 10");
+    new SimulationWorker(RandomAgent::new).serve(new BufferedReader(
+            new StringReader("lease 0 10\n")), new StringWriter());
+  }
+
+  private void assertSameTotals(SimulationResult expected, SimulationResult actual) {
+    assertEquals(expected.getNumGames(), actual.getNumGames());
+    for (GameResult result : GameResult.values()) {
+      assertEquals(expected.getCount(result), actual.getCount(result));
+    }
+    assertEquals(expected.getTotalTurns(), actual.getTotalTurns());
+    assertEquals(expected.getTotalArrowsUsed(), actual.getTotalArrowsUsed());
+    assertEquals(expected.getTotalBatTransports(), actual.getTotalBatTransports());
+  }
+
+  /**
+   * The body of a worker that runs on a thread instead of in a process of its own.
+   */
+  private interface WorkerBody {
+    void serve(BufferedReader in, Writer out) throws IOException;
+  }
+
+  /**
+   * A worker process that is really a thread of this process, talking over pipes.
+   */
+  private static class ThreadProcess extends Process {
+    private final PipedOutputStream requests = new PipedOutputStream();
+    private final PipedInputStream answers = new PipedInputStream();
+    private final Thread thread;
+
+    ThreadProcess(WorkerBody body) throws IOException {
+      PipedInputStream in = new PipedInputStream(this.requests);
+      PipedOutputStream out = new PipedOutputStream(this.answers);
+      this.thread = new Thread(() -> {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in,
+                StandardCharsets.UTF_8));
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+          body.serve(reader, writer);
+        } catch (IOException e) {
+          // the coordinator went away
+        }
+      });
+      this.thread.start();
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return this.requests;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return this.answers;
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+      this.thread.join();
+      return 0;
+    }
+
+    @Override
+    public int exitValue() {
+      if (this.thread.isAlive()) {
+        throw new IllegalThreadStateException("worker is still running");
+      }
+      return 0;
+    }
+
+    @Override
+    public void destroy() {
+      this.thread.interrupt();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+
+import mazesimulation.GameRecord;
+import mazesimulation.GameResult;
+import mazesimulation.GameSettings;
+import mazesimulation.RandomAgent;
+import mazesimulation.SimulationResult;
+import mazesimulation.SimulationRunner;
+
+/**
+ * A class to test the SimulationRunner class.
+ */
+public class SimulationRunnerTest {
+  private final GameSettings settings = new GameSettings(6, 6, true, 10, 10, 20, 3, 500);
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testSameResultOnAnyNumberOfThreads() {
+    SimulationResult single = new SimulationRunner(this.settings, RandomAgent::new, 1)
+            .run(100, 500);
+    SimulationResult many = new SimulationRunner(this.settings, RandomAgent::new, 4)
+            .run(100, 500);
+
+    for (GameResult result : GameResult.values()) {
+      assertEquals(single.getCount(result), many.getCount(result));
+    }
+    assertEquals(single.getTotalTurns(), many.getTotalTurns());
+    assertEquals(single.getTotalArrowsUsed(), many.getTotalArrowsUsed());
+    assertEquals(single.getTotalBatTransports(), many.getTotalBatTransports());
+  }
+
+  @Test
+  public void testTotalsMatchGameRecords() {
+    SimulationRunner runner = new SimulationRunner(this.settings, RandomAgent::new, 2);
+    SimulationResult result = runner.run(0, 200);
+
+    long[] counts = new long[GameResult.values().length];
+    long turns = 0;
+    long arrowsUsed = 0;
+    for (int seed = 0; seed < 200; seed++) {
+      GameRecord record = runner.playGame(seed);
+      assertEquals(seed, record.getSeed());
+      counts[record.getResult().ordinal()] += 1;
+      turns += record.getTurns();
+      arrowsUsed += record.getArrowsUsed();
+    }
+
+    assertEquals(200, result.getNumGames());
+    for (GameResult gameResult : GameResult.values()) {
+      assertEquals(counts[gameResult.ordinal()], result.getCount(gameResult));
+    }
+    assertEquals(turns, result.getTotalTurns());
+    assertEquals(arrowsUsed, result.getTotalArrowsUsed());
+  }
+
+  @Test
+  public void testNoArrowsMeansOutOfArrows() {
+    GameSettings noArrows = new GameSettings(4, 4, false, 0, 0, 0, 0, 100);
+    SimulationResult result = new SimulationRunner(noArrows, RandomAgent::new, 1).run(0, 50);
+
+    assertEquals(1.0, result.getRate(GameResult.OUT_OF_ARROWS), 0);
+    assertEquals(0, result.getTotalTurns());
+  }
+
+  @Test
+  public void testBadSeedRange() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("seed range is not valid");
+
+    new SimulationRunner(this.settings, RandomAgent::new, 1).run(-1, 10);
+  }
+
+  @Test
+  public void testBadParallelism() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("parallelism must be positive");
+
+    new SimulationRunner(this.settings, RandomAgent::new, 0);
+  }
+}
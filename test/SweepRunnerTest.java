@@ -0,0 +1,160 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import mazesimulation.GameResult;
+import mazesimulation.ParameterGrid;
+import mazesimulation.RandomAgent;
+import mazesimulation.SimulationResult;
+import mazesimulation.SweepRunner;
+
+/**
+ * A class to test the SweepRunner class.
+ */
+public class SweepRunnerTest {
+  private final ParameterGrid grid = new ParameterGrid(new int[] {5}, new int[] {5, 6},
+          new int[] {8}, new int[] {10, 20}, new int[] {10}, new boolean[] {true}, new int[] {3},
+          300);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testStreamsEveryUnit() throws IOException {
+    List<Integer> progress = new ArrayList<>();
+    SweepRunner runner = this.createRunner(this.folder.newFile().toPath());
+    SimulationResult[] totals = runner.run((configuration, settings, result, done, units) ->
+            progress.add(done));
+
+    assertEquals(4, totals.length);
+    assertEquals(12, runner.getNumUnits());
+    assertEquals(12, progress.size());
+    assertEquals(12, (int) progress.get(11));
+    for (SimulationResult result : totals) {
+      assertEquals(60, result.getNumGames());
+    }
+  }
+
+  @Test
+  public void testResumeAfterInterruption() throws IOException {
+    SimulationResult[] expected = this.createRunner(this.folder.newFile().toPath()).run(null);
+
+    Path checkpoint = this.folder.newFile().toPath();
+    try {
+      this.createRunner(checkpoint).run((configuration, settings, result, done, units) -> {
+        if (done == 5) {
+          throw new IllegalStateException("interrupted");
+        }
+      });
+      fail("the sweep should have been interrupted");
+    } catch (IllegalStateException e) {
+      assertEquals("interrupted", e.getMessage());
+    }
+
+    List<Integer> resumed = new ArrayList<>();
+    SimulationResult[] totals = this.createRunner(checkpoint).run(
+        (configuration, settings, result, done, units) -> resumed.add(done));
+    assertTrue(resumed.size() < 12);
+    this.assertSameTotals(expected, totals);
+  }
+
+  @Test
+  public void testResumeAfterLineCutShort() throws IOException {
+    Path checkpoint = this.folder.newFile().toPath();
+    SimulationResult[] expected = this.createRunner(checkpoint).run(null);
+
+    byte[] content = Files.readAllBytes(checkpoint);
+    byte[] cut = new byte[content.length - 5];
+    System.arraycopy(content, 0, cut, 0, cut.length);
+    Files.write(checkpoint, cut);
+
+    List<Integer> resumed = new ArrayList<>();
+    SimulationResult[] totals = this.createRunner(checkpoint).run(
+        (configuration, settings, result, done, units) -> resumed.add(done));
+    assertEquals(1, resumed.size());
+    this.assertSameTotals(expected, totals);
+  }
+
+  @Test
+  public void testResumeAfterLastNumberCutShort() throws IOException {
+    // enough bats that some units move players more than nine times
+    ParameterGrid batGrid = new ParameterGrid(new int[] {5}, new int[] {5, 6}, new int[] {8},
+            new int[] {10, 20}, new int[] {50}, new boolean[] {true}, new int[] {3}, 300);
+    Path checkpoint = this.folder.newFile().toPath();
+    SimulationResult[] expected = new SweepRunner(batGrid, RandomAgent::new, 2, 0, 20, 3,
+            checkpoint).run(null);
+
+    // move a unit whose last number has two digits to the end and cut off its last digit and
+    // newline, which leaves a line that still reads as a record of all the games of the unit
+    List<String> lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+    String last = null;
+    for (String line : lines.subList(1, lines.size())) {
+      if (line.length() - line.lastIndexOf(' ') > 2) {
+        last = line;
+      }
+    }
+    assertTrue(last != null);
+    lines.remove(last);
+    Files.write(checkpoint, (String.join("\n", lines) + "\n" + last.substring(0,
+            last.length() - 1)).getBytes(StandardCharsets.UTF_8));
+
+    List<Integer> resumed = new ArrayList<>();
+    SimulationResult[] totals = new SweepRunner(batGrid, RandomAgent::new, 2, 0, 20, 3,
+            checkpoint).run((configuration, settings, result, done, units) -> resumed.add(done));
+    assertEquals(1, resumed.size());
+    this.assertSameTotals(expected, totals);
+  }
+
+  @Test
+  public void testCheckpointOfDifferentSweep() throws IOException {
+    Path checkpoint = this.folder.newFile().toPath();
+    Files.write(checkpoint, "htw sweep 1 something else\n".getBytes(StandardCharsets.UTF_8));
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("checkpoint belongs to a different sweep");
+    this.createRunner(checkpoint).run(null);
+  }
+
+  @Test
+  public void testCheckpointOfDifferentAgent() throws IOException {
+    Path checkpoint = this.folder.newFile().toPath();
+    this.createRunner(checkpoint).run(null);
+    SweepRunner other = new SweepRunner(this.grid, () -> (maze, player, random) -> { }, 2, 0, 20,
+            3, checkpoint);
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("checkpoint was played by a different agent");
+    other.run(null);
+  }
+
+  private SweepRunner createRunner(Path checkpoint) {
+    return new SweepRunner(this.grid, RandomAgent::new, 2, 0, 20, 3, checkpoint);
+  }
+
+  private void assertSameTotals(SimulationResult[] expected, SimulationResult[] actual) {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].getNumGames(), actual[i].getNumGames());
+      for (GameResult result : GameResult.values()) {
+        assertEquals(expected[i].getCount(result), actual[i].getCount(result));
+      }
+      assertEquals(expected[i].getTotalTurns(), actual[i].getTotalTurns());
+      assertEquals(expected[i].getTotalBatTransports(), actual[i].getTotalBatTransports());
+    }
+  }
+}
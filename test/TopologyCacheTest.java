@@ -0,0 +1,95 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.Random;
+
+import mazemodel.Maze;
+import mazemodel.NonPerfectMaze;
+import mazemodel.TopologyCache;
+
+/**
+ * A class to test the TopologyCache class.
+ */
+public class TopologyCacheTest {
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testRestartedGamesMatchNewMazes() {
+    TopologyCache cache = new TopologyCache(2);
+    for (int game = 0; game < 3; game++) {
+      Maze cached = cache.getNonPerfectMaze(7, 9, true, 11, 6, 20, 30);
+      Maze generated = new NonPerfectMaze(7, 9, true, 11, 6, 20, 30);
+      this.assertSameGame(generated, cached, 7, 9, game);
+    }
+    assertEquals(1, cache.getNumMazesBuilt());
+    assertEquals(1, cache.getNumMazesKept());
+  }
+
+  @Test
+  public void testGamesOnTheSameMazeAreApart() {
+    TopologyCache cache = new TopologyCache(1);
+    Maze first = cache.getNonPerfectMaze(5, 5, false, 3, 2, 10, 40);
+    Maze second = cache.getNonPerfectMaze(5, 5, false, 3, 2, 10, 40);
+    assertNotSame(first, second);
+    first.addPlayer(0, 0, 3);
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("this player does not exist");
+    second.getPlayerLocation(0);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedMazeIsDropped() {
+    TopologyCache cache = new TopologyCache(2);
+    cache.getNonPerfectMaze(4, 4, true, 1, 3, 0, 0);
+    cache.getNonPerfectMaze(4, 4, true, 2, 3, 0, 0);
+    cache.getNonPerfectMaze(4, 4, true, 1, 3, 0, 0);
+    cache.getNonPerfectMaze(4, 4, true, 3, 3, 0, 0);
+    assertEquals(3, cache.getNumMazesBuilt());
+    cache.getNonPerfectMaze(4, 4, true, 1, 3, 0, 0);
+    assertEquals(3, cache.getNumMazesBuilt());
+    cache.getNonPerfectMaze(4, 4, true, 2, 3, 0, 0);
+    assertEquals(4, cache.getNumMazesBuilt());
+    assertEquals(2, cache.getNumMazesKept());
+  }
+
+  @Test
+  public void testMazesWithoutSeedAreNotKept() {
+    TopologyCache cache = new TopologyCache(2);
+    cache.getNonPerfectMaze(4, 4, true, -1, 3, 0, 0);
+    cache.getNonPerfectMaze(4, 4, true, -1, 3, 0, 0);
+    assertEquals(0, cache.getNumMazesBuilt());
+    assertEquals(0, cache.getNumMazesKept());
+  }
+
+  @Test
+  public void testInvalidMazeIsNotKept() {
+    TopologyCache cache = new TopologyCache(2);
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("numRemainingWalls is not valid");
+    cache.getNonPerfectMaze(4, 4, false, 1, 100, 0, 0);
+  }
+
+  @Test
+  public void testNoMazesKept() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("number of mazes to keep must be positive");
+    new TopologyCache(0);
+  }
+
+  private void assertSameGame(Maze expected, Maze actual, int rows, int cols, int seed) {
+    for (int location = 0; location < rows * cols; location++) {
+      assertEquals(expected.getDoorMask(location), actual.getDoorMask(location));
+    }
+    for (int player = 0; player < rows * cols; player++) {
+      expected.addPlayer(player / cols, player % cols, 4);
+      actual.addPlayer(player / cols, player % cols, 4);
+    }
+    MazeGames.assertSameGame(expected, actual, rows * cols, new Random(seed), 80, 20);
+  }
+}